@@ -1,26 +1,77 @@
 package com.pt.crypto_trading.config;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.pt.crypto_trading.domain.instrument.TradingPair;
+import com.pt.crypto_trading.dto.PriceDto;
+import com.pt.crypto_trading.service.BestPriceBook;
+import com.pt.crypto_trading.service.InstrumentRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.concurrent.ConcurrentMapCache;
-import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
-import java.util.Arrays;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 
 @Configuration
 @EnableCaching
+@RequiredArgsConstructor
+@Slf4j
 public class CacheConfig {
     
+    private final PriceCacheProperties priceCacheProperties;
+    private final PriceProviderProperties priceProviderProperties;
+    private final BestPriceBook bestPriceBook;
+    private final InstrumentRegistry instrumentRegistry;
+    
     @Bean
     public CacheManager cacheManager() {
-        SimpleCacheManager cacheManager = new SimpleCacheManager();
-        cacheManager.setCaches(Arrays.asList(
-            new ConcurrentMapCache("prices"),
-            new ConcurrentMapCache("allPrices"),
-            new ConcurrentMapCache("executionPrices")
-        ));
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        // Only the caches declared here exist; unknown names must not create unbounded caches on the fly
+        cacheManager.setCacheNames(List.of());
+        cacheManager.registerCustomCache("prices", buildCache("prices", this::loadPrice));
+        cacheManager.registerCustomCache("allPrices", buildCache("allPrices", key -> loadAllPrices()));
         return cacheManager;
     }
+    
+    private Cache<Object, Object> buildCache(String name, CacheLoader<Object, Object> loader) {
+        PriceCacheProperties.Spec spec = priceCacheProperties.getSpecs().getOrDefault(name, new PriceCacheProperties.Spec());
+        Duration refreshInterval = Duration.ofMillis(priceProviderProperties.getRefreshIntervalMs());
+        Duration expireAfterWrite = spec.getExpireAfterWrite() != null ? spec.getExpireAfterWrite() : refreshInterval.multipliedBy(3);
+        Duration refreshAfterWrite = spec.getRefreshAfterWrite() != null ? spec.getRefreshAfterWrite() : refreshInterval;
+        
+        log.info("Cache '{}' configured: maximumSize={}, expireAfterWrite={}, refreshAfterWrite={}", 
+                name, spec.getMaximumSize(), expireAfterWrite, refreshAfterWrite);
+        
+        return Caffeine.newBuilder()
+                .maximumSize(spec.getMaximumSize())
+                .expireAfterWrite(expireAfterWrite)
+                .refreshAfterWrite(refreshAfterWrite)
+                .recordStats()
+                .build(loader);
+    }
+    
+    private Object loadPrice(Object key) {
+        BestPriceBook.Quote quote = bestPriceBook.get((TradingPair) key);
+        return quote != null ? quote.toPriceDto() : null;
+    }
+    
+    private Object loadAllPrices() {
+        BestPriceBook.Snapshot snapshot = bestPriceBook.snapshot();
+        List<PriceDto> prices = new ArrayList<>();
+        for (TradingPair tradingPair : instrumentRegistry.pairs()) {
+            BestPriceBook.Quote quote = snapshot.get(tradingPair);
+            if (quote == null) {
+                return null;
+            }
+            prices.add(quote.toPriceDto());
+        }
+        return prices;
+    }
 }
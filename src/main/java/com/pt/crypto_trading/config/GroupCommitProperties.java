@@ -0,0 +1,17 @@
+package com.pt.crypto_trading.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.group-commit")
+public class GroupCommitProperties {
+    
+    private boolean enabled = false; // Settle concurrent trades together, one transaction per batch
+    private int maxBatchSize = 64;
+    private long maxWaitMs = 2; // How long the first trade of a batch waits for company
+    private int queueCapacity = 4096; // Pending trades before callers block
+    private long settleTimeoutMs = 10_000; // How long a caller waits for its batch to commit before giving up
+}
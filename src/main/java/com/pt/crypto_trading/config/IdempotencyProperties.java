@@ -0,0 +1,16 @@
+package com.pt.crypto_trading.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.idempotency")
+public class IdempotencyProperties {
+    
+    private int maxEntries = 100_000; // Past this, completed responses are not kept in memory and replay from the table; in-flight keys are always held
+    private long ttlMs = 86_400_000; // Matches IdempotentRequest.expiresAt
+    private long wheelTickMs = 60_000; // Expiry granularity, for cached keys and stored rows alike
+    private long inFlightWaitMs = 10_000; // How long a duplicate waits for the original request to finish
+}
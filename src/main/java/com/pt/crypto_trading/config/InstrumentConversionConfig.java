@@ -0,0 +1,47 @@
+package com.pt.crypto_trading.config;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.pt.crypto_trading.domain.instrument.Currency;
+import com.pt.crypto_trading.domain.instrument.TradingPair;
+import com.pt.crypto_trading.service.InstrumentRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.format.FormatterRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.io.IOException;
+
+// Resolves path variables, request params and JSON strings against the instrument registry
+@Configuration
+@RequiredArgsConstructor
+public class InstrumentConversionConfig implements WebMvcConfigurer {
+    
+    private final InstrumentRegistry instrumentRegistry;
+    
+    @Override
+    public void addFormatters(FormatterRegistry registry) {
+        registry.addConverter(String.class, TradingPair.class, instrumentRegistry::getPair);
+        registry.addConverter(String.class, Currency.class, instrumentRegistry::getCurrency);
+    }
+    
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer instrumentJsonCustomizer() {
+        return builder -> builder
+                .deserializerByType(TradingPair.class, new JsonDeserializer<TradingPair>() {
+                    @Override
+                    public TradingPair deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+                        return instrumentRegistry.getPair(parser.getValueAsString());
+                    }
+                })
+                .deserializerByType(Currency.class, new JsonDeserializer<Currency>() {
+                    @Override
+                    public Currency deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+                        return instrumentRegistry.getCurrency(parser.getValueAsString());
+                    }
+                });
+    }
+}
@@ -0,0 +1,39 @@
+package com.pt.crypto_trading.config;
+
+import com.pt.crypto_trading.integration.enums.PriceSource;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.instruments")
+public class InstrumentProperties {
+    
+    private int parallelAggregationThreshold = 256; // Aggregate pairs on the common pool from this many pairs up
+    private List<CurrencySpec> currencies = new ArrayList<>();
+    private List<PairSpec> pairs = new ArrayList<>();
+    
+    @Data
+    public static class CurrencySpec {
+        private String code;
+        private String name;
+        private int decimalPlaces = 8;
+        private BigDecimal initialBalance = BigDecimal.ZERO; // Credited to every new user
+    }
+    
+    @Data
+    public static class PairSpec {
+        private String symbol;
+        private String base;
+        private String quote;
+        private BigDecimal minTradeAmount; // Default: none, any positive quantity is accepted
+        private Map<PriceSource, String> exchangeSymbols = new HashMap<>(); // Default: provider's own mapping of the symbol
+    }
+}
@@ -0,0 +1,28 @@
+package com.pt.crypto_trading.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.ledger")
+public class LedgerProperties {
+    
+    private boolean enabled = false; // Settle trades in the in-memory ledger instead of on wallet rows
+    private int shards = Runtime.getRuntime().availableProcessors(); // At most 256
+    private int queueCapacity = 4096; // Pending trades per shard before callers block
+    private int batchSize = 256; // Trades applied per journal fsync
+    private String journalDirectory = "./data/ledger";
+    private long snapshotIntervalEntries = 100_000;
+    private long executeTimeoutMs = 10_000; // How long a caller waits for its trade to be journaled
+    private Projection projection = new Projection();
+    
+    @Data
+    public static class Projection {
+        private int queueCapacity = 65536;
+        private int batchSize = 500;
+        private long flushIntervalMs = 200;
+        private long retryBackoffMs = 1000;
+    }
+}
@@ -0,0 +1,24 @@
+package com.pt.crypto_trading.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.cache")
+public class PriceCacheProperties {
+    
+    private Map<String, Spec> specs = new HashMap<>();
+    
+    @Data
+    public static class Spec {
+        private long maximumSize = 1000;
+        private Duration expireAfterWrite; // Default: three price refresh intervals
+        private Duration refreshAfterWrite; // Default: one price refresh interval
+    }
+}
@@ -1,31 +1,92 @@
 package com.pt.crypto_trading.config;
 
+import com.pt.crypto_trading.domain.enums.CandleInterval;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 @Data
 @Component
 @ConfigurationProperties(prefix = "app.price")
 public class PriceProviderProperties {
     
+    private long refreshIntervalMs = 10000; // Scheduled aggregation tick
+    private long bestPricePersistIntervalMs = 1000; // How often changed best prices are written out, latest per pair only
     private Binance binance = new Binance();
     private Huobi huobi = new Huobi();
+    private Streaming streaming = new Streaming();
+    private FanOut fanOut = new FanOut();
+    private History history = new History();
+    private Candles candles = new Candles();
     private Cleanup cleanup = new Cleanup();
     
     @Data
     public static class Binance {
         private String url;
+        private String streamUrl;
     }
     
     @Data
     public static class Huobi {
         private String url;
+        private String streamUrl;
+    }
+    
+    @Data
+    public static class Streaming {
+        private boolean enabled = false; // Default: REST polling only
+        private long flushIntervalMs = 200; // How often pushed quotes are folded into best prices
+        private long initialBackoffMs = 1000; // First reconnect delay after a dropped stream
+        private long maxBackoffMs = 30000; // Upper bound for reconnect delay
+        private long staleAfterMs = 30000; // Streamed quotes older than this are dropped and the provider is polled again
+    }
+    
+    @Data
+    public static class FanOut {
+        private long cycleDeadlineMs = 3000; // Aggregate whatever arrived by this point in the cycle
+        private long minTimeoutMs = 250; // Floor for the adaptive per-provider timeout
+        private double timeoutMultiplier = 2.0; // Per-provider timeout = observed p95 * multiplier
+        private int minSamples = 20; // Latency samples needed before hedging and adaptive timeouts kick in
+        private int latencyWindow = 100; // Recent fetch latencies kept per provider
+        private int corePoolSize = 4;
+        private int maxPoolSize = 16;
+    }
+    
+    @Data
+    public static class History {
+        private int bufferCapacity = 8192; // Ticks held in memory while the writer catches up
+        private int batchSize = 500; // Ticks written to the quote store per flush
+        private long flushIntervalMs = 1000; // Flush a partial batch after this long
+        private OverflowPolicy overflowPolicy = OverflowPolicy.DROP_OLDEST;
+        private long heartbeatMs = 60000; // Unchanged quotes are re-recorded at most this often
+        private String storeDirectory = "./data/quotes"; // Root of the embedded quote time-series store
+        private int columnInitialBytes = 65536; // Initial mapping per column file, doubled when full
+        private int maxOpenSegments = 256; // Day segments kept mapped at once; idle ones beyond this are closed
+        private long maxRangeHours = 24; // Widest range one history request may ask for
+        private int maxPoints = 10000; // Most points one history request may return
+    }
+    
+    public enum OverflowPolicy {
+        DROP_OLDEST,
+        DROP_NEWEST
+    }
+    
+    @Data
+    public static class Candles {
+        private int retainedPerSeries = 500; // Closed bars kept in memory per (pair, source, interval)
+        private long persistIntervalMs = 1000; // How often closed bars are written out
+        private Set<CandleInterval> persistedIntervals = EnumSet.of(
+                CandleInterval.ONE_MINUTE, CandleInterval.FIVE_MINUTES, CandleInterval.ONE_HOUR, CandleInterval.ONE_DAY);
     }
     
     @Data
     public static class Cleanup {
-        private int retentionDays = 30; // Default: keep 30 days of history
+        private int retentionDays = 30; // Default: keep 30 days of raw ticks, then roll them up to 1-minute
+        private int minuteRetentionDays = 180; // 1-minute tier rolled up to 1-hour after this
+        private int hourRetentionDays = 730; // 1-hour tier dropped after this
         private String cron = "0 0 2 * * ?"; // Default: 2 AM daily
     }
 }
@@ -0,0 +1,14 @@
+package com.pt.crypto_trading.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.trade-export")
+public class TradeExportProperties {
+    
+    private int fetchSize = 1000; // Rows the driver pulls per round trip from the export cursor
+    private int bufferBytes = 65536; // Response bytes collected before each write to the socket
+}
@@ -0,0 +1,14 @@
+package com.pt.crypto_trading.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.trade-locks")
+public class TradeLockProperties {
+    
+    private int stripes = 1024; // Rounded up to a power of two; users sharing a stripe also share its lock
+    private long timeoutMs = 5000; // A trade that cannot get its user's lock in time fails instead of queueing forever
+}
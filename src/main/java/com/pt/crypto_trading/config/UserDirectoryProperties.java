@@ -0,0 +1,14 @@
+package com.pt.crypto_trading.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.user-directory")
+public class UserDirectoryProperties {
+    
+    private long negativeCacheSize = 10_000; // Unknown user ids remembered at once
+    private long negativeTtlMs = 30_000; // Bounds how long a user created on another instance stays invisible here
+}
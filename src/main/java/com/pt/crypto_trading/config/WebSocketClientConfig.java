@@ -0,0 +1,21 @@
+package com.pt.crypto_trading.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.socket.client.ReactorNettyWebSocketClient;
+import org.springframework.web.reactive.socket.client.WebSocketClient;
+
+@Configuration
+@Slf4j
+public class WebSocketClientConfig {
+    
+    @Bean
+    public WebSocketClient webSocketClient() {
+        ReactorNettyWebSocketClient webSocketClient = new ReactorNettyWebSocketClient();
+        
+        log.info("WebSocketClient bean configured for streaming price providers");
+        
+        return webSocketClient;
+    }
+}
@@ -0,0 +1,49 @@
+package com.pt.crypto_trading.controller;
+
+import com.pt.crypto_trading.domain.instrument.TradingPair;
+import com.pt.crypto_trading.dto.PositionDto;
+import com.pt.crypto_trading.service.PositionService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/positions")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Position", description = "Position and P&L API")
+public class PositionController {
+    
+    private final PositionService positionService;
+    
+    @GetMapping
+    @Operation(summary = "Get user positions", description = "Get net quantity, average entry price, realised P&L "
+            + "and volumes for every trading pair the user has traded")
+    public ResponseEntity<List<PositionDto>> getUserPositions(
+            @Parameter(description = "User ID", required = true, example = "1")
+            @RequestHeader("X-User-Id") Long userId) {
+        
+        log.debug("Getting positions for user: {}", userId);
+        List<PositionDto> positions = positionService.getUserPositions(userId);
+        return ResponseEntity.ok(positions);
+    }
+    
+    @GetMapping("/{tradingPair}")
+    @Operation(summary = "Get specific position", description = "Get the user's position in one trading pair")
+    public ResponseEntity<PositionDto> getUserPosition(
+            @Parameter(description = "User ID", required = true, example = "1")
+            @RequestHeader("X-User-Id") Long userId,
+            @Parameter(description = "Trading pair", required = true, example = "BTCUSDT")
+            @PathVariable TradingPair tradingPair) {
+        
+        log.debug("Getting {} position for user: {}", tradingPair, userId);
+        PositionDto position = positionService.getUserPosition(userId, tradingPair);
+        return ResponseEntity.ok(position);
+    }
+}
@@ -1,17 +1,23 @@
 package com.pt.crypto_trading.controller;
 
-import com.pt.crypto_trading.domain.enums.TradingPair;
+import com.pt.crypto_trading.domain.enums.CandleInterval;
+import com.pt.crypto_trading.domain.instrument.TradingPair;
+import com.pt.crypto_trading.dto.CandleDto;
 import com.pt.crypto_trading.dto.PriceDto;
+import com.pt.crypto_trading.dto.PriceHistoryDto;
+import com.pt.crypto_trading.integration.enums.PriceSource;
 import com.pt.crypto_trading.service.PriceService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 
@@ -46,4 +52,45 @@ public class PriceController {
                 .cacheControl(CacheControl.maxAge(5, TimeUnit.SECONDS))
                 .body(price);
     }
+    
+    @GetMapping("/{tradingPair}/candles")
+    @Operation(summary = "Get candles", description = "Get OHLC candles of the mid price, newest last; the last candle may still be open")
+    public ResponseEntity<List<CandleDto>> getCandles(
+            @Parameter(description = "Trading pair", required = true, example = "BTCUSDT")
+            @PathVariable TradingPair tradingPair,
+            @Parameter(description = "Candle interval: 1s, 1m, 5m, 1h or 1d", example = "1m")
+            @RequestParam(defaultValue = "1m") String interval,
+            @Parameter(description = "Price source; omit for the consolidated best price", example = "BINANCE")
+            @RequestParam(required = false) PriceSource source,
+            @Parameter(description = "Maximum number of candles", example = "100")
+            @RequestParam(defaultValue = "100") int limit) {
+        
+        log.debug("Getting {} candles for {} from {}", interval, tradingPair, source != null ? source : "best price");
+        List<CandleDto> candles = priceService.getCandles(tradingPair, source, CandleInterval.fromLabel(interval), limit);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(1, TimeUnit.SECONDS))
+                .body(candles);
+    }
+    
+    @GetMapping("/{tradingPair}/history")
+    @Operation(summary = "Get price history", description = "Get recorded quotes of one source for a trading pair within a time range, oldest first; "
+            + "a full page ends before 'to', so continue from the last timestamp")
+    public ResponseEntity<List<PriceHistoryDto>> getPriceHistory(
+            @Parameter(description = "Trading pair", required = true, example = "BTCUSDT")
+            @PathVariable TradingPair tradingPair,
+            @Parameter(description = "Price source", required = true, example = "BINANCE")
+            @RequestParam PriceSource source,
+            @Parameter(description = "Range start (ISO date-time), defaults to one hour before 'to'")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Range end (ISO date-time), defaults to now")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "Maximum number of points, up to app.price.history.max-points", example = "1000")
+            @RequestParam(defaultValue = "1000") int limit) {
+        
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.minusHours(1);
+        
+        log.debug("Getting {} price history for {} from {} to {}", source, tradingPair, start, end);
+        return ResponseEntity.ok(priceService.getPriceHistory(tradingPair, source, start, end, limit));
+    }
 }
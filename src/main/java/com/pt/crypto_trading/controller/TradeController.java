@@ -1,7 +1,15 @@
 package com.pt.crypto_trading.controller;
 
+import com.pt.crypto_trading.domain.enums.ExportFormat;
+import com.pt.crypto_trading.domain.enums.TradeStatus;
+import com.pt.crypto_trading.domain.enums.TradeType;
+import com.pt.crypto_trading.domain.instrument.TradingPair;
+import com.pt.crypto_trading.dto.TradeHistoryFilter;
+import com.pt.crypto_trading.dto.TradeHistoryPageDto;
 import com.pt.crypto_trading.dto.TradeRequestDto;
 import com.pt.crypto_trading.dto.TradeResponseDto;
+import com.pt.crypto_trading.service.TradeExportService;
+import com.pt.crypto_trading.service.TradeHistoryService;
 import com.pt.crypto_trading.service.TradeService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -12,8 +20,15 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDateTime;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/v1/trades")
@@ -23,6 +38,8 @@ import org.springframework.web.bind.annotation.*;
 public class TradeController {
     
     private final TradeService tradeService;
+    private final TradeHistoryService tradeHistoryService;
+    private final TradeExportService tradeExportService;
     
     @PostMapping
     @Operation(summary = "Execute trade", description = "Execute a buy or sell trade with optional idempotency key")
@@ -45,7 +62,8 @@ public class TradeController {
     }
     
     @GetMapping
-    @Operation(summary = "Get trade history", description = "Get user's trading history with pagination")
+    @Operation(summary = "Get trade history", description = "Get user's trading history with offset pagination and totals; "
+            + "prefer /history, whose cost does not grow with page depth", deprecated = true)
     public ResponseEntity<Page<TradeResponseDto>> getTradeHistory(
             @Parameter(description = "User ID", required = true, example = "1")
             @RequestHeader("X-User-Id") Long userId,
@@ -55,4 +73,66 @@ public class TradeController {
         Page<TradeResponseDto> trades = tradeService.getUserTradeHistory(userId, pageable);
         return ResponseEntity.ok(trades);
     }
+    
+    @GetMapping("/history")
+    @Operation(summary = "Get trade history page", description = "Get user's trades newest first by creation time, ties broken by id, optionally filtered; "
+            + "pass the returned cursor to get the next page")
+    public ResponseEntity<TradeHistoryPageDto> getTradeHistoryPage(
+            @Parameter(description = "User ID", required = true, example = "1")
+            @RequestHeader("X-User-Id") Long userId,
+            @Parameter(description = "Trading pair", example = "BTCUSDT")
+            @RequestParam(required = false) TradingPair tradingPair,
+            @Parameter(description = "Trade type", example = "BUY")
+            @RequestParam(required = false) TradeType type,
+            @Parameter(description = "Trade status", example = "COMPLETED")
+            @RequestParam(required = false) TradeStatus status,
+            @Parameter(description = "Created at or after (ISO date-time)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Created before (ISO date-time)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "Cursor from the previous page; omit for the newest trades")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size, at most 100", example = "20")
+            @RequestParam(defaultValue = "20") int limit) {
+        
+        log.debug("Getting trade history page for user: {}", userId);
+        TradeHistoryFilter filter = new TradeHistoryFilter(tradingPair, type, status, from, to);
+        return ResponseEntity.ok(tradeHistoryService.getTradeHistory(userId, filter, cursor, limit));
+    }
+    
+    @GetMapping("/export")
+    @Operation(summary = "Export trade history", description = "Stream all of user's trades, oldest first, "
+            + "as NDJSON or CSV; the whole range is written in one response")
+    public ResponseEntity<StreamingResponseBody> exportTrades(
+            @Parameter(description = "User ID", required = true, example = "1")
+            @RequestHeader("X-User-Id") Long userId,
+            @Parameter(description = "Export format: ndjson or csv", example = "ndjson")
+            @RequestParam(defaultValue = "ndjson") String format,
+            @Parameter(description = "Created at or after (ISO date-time)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Created before (ISO date-time)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "Gzip the file", example = "false")
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        
+        ExportFormat exportFormat = ExportFormat.fromLabel(format);
+        tradeExportService.validateExport(userId, from, to);
+        
+        log.debug("Exporting trades for user {} as {} (gzip: {})", userId, exportFormat, gzip);
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                GZIPOutputStream compressed = new GZIPOutputStream(out, 8192);
+                tradeExportService.exportTrades(userId, from, to, exportFormat, compressed);
+                compressed.finish();
+            } else {
+                tradeExportService.exportTrades(userId, from, to, exportFormat, out);
+            }
+        };
+        
+        String filename = "trades-" + userId + "." + exportFormat.getExtension() + (gzip ? ".gz" : "");
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(gzip ? "application/gzip" : exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(body);
+    }
 }
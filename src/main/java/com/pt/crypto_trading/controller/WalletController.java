@@ -1,6 +1,6 @@
 package com.pt.crypto_trading.controller;
 
-import com.pt.crypto_trading.domain.enums.Currency;
+import com.pt.crypto_trading.domain.instrument.Currency;
 import com.pt.crypto_trading.dto.WalletDto;
 import com.pt.crypto_trading.service.WalletService;
 import io.swagger.v3.oas.annotations.Operation;
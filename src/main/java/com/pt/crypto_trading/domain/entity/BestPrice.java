@@ -1,7 +1,7 @@
 package com.pt.crypto_trading.domain.entity;
 
 import com.pt.crypto_trading.domain.enums.TradeType;
-import com.pt.crypto_trading.domain.enums.TradingPair;
+import com.pt.crypto_trading.domain.instrument.TradingPair;
 import com.pt.crypto_trading.integration.enums.PriceSource;
 import jakarta.persistence.*;
 import lombok.Data;
@@ -23,7 +23,6 @@ public class BestPrice {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     
-    @Enumerated(EnumType.STRING)
     @Column(name = "trading_pair", nullable = false)
     private TradingPair tradingPair;
     
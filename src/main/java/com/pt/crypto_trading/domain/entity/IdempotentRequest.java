@@ -3,6 +3,7 @@ package com.pt.crypto_trading.domain.entity;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import java.time.Duration;
 import java.time.LocalDateTime;
 
 @Entity
@@ -15,6 +16,9 @@ import java.time.LocalDateTime;
 @Data
 @NoArgsConstructor
 public class IdempotentRequest {
+    
+    public static final Duration TTL = Duration.ofHours(24);
+    
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -40,7 +44,7 @@ public class IdempotentRequest {
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
-        expiresAt = createdAt.plusHours(24);
+        expiresAt = createdAt.plus(TTL);
     }
     
     public IdempotentRequest(String idempotencyKey, Long userId, String requestHash) {
@@ -0,0 +1,119 @@
+package com.pt.crypto_trading.domain.entity;
+
+import com.pt.crypto_trading.domain.enums.TradeType;
+import com.pt.crypto_trading.domain.instrument.TradingPair;
+import com.pt.crypto_trading.domain.money.FixedPoint;
+import com.pt.crypto_trading.domain.money.FixedPointConverter;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+
+// A user's running position in one trading pair, folded from completed trades on the average cost method.
+// Amounts are FixedPoint longs: quantities in the base currency, prices and P&L in the quote currency
+@Entity
+@Table(name = "positions",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "trading_pair"}))
+@Data
+@NoArgsConstructor
+public class Position {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+    
+    @Column(name = "trading_pair", nullable = false)
+    private TradingPair tradingPair;
+    
+    // Negative when more was sold than bought through trades, e.g. out of a starting balance
+    @Convert(converter = FixedPointConverter.class)
+    @Column(name = "net_quantity", precision = 18, scale = 8, nullable = false)
+    private long netQuantity;
+    
+    @Convert(converter = FixedPointConverter.class)
+    @Column(name = "average_entry_price", precision = 18, scale = 8, nullable = false)
+    private long averageEntryPrice;
+    
+    @Convert(converter = FixedPointConverter.class)
+    @Column(name = "realized_pnl", precision = 18, scale = 8, nullable = false)
+    private long realizedPnl;
+    
+    @Convert(converter = FixedPointConverter.class)
+    @Column(name = "buy_volume", precision = 18, scale = 8, nullable = false)
+    private long buyVolume;
+    
+    @Convert(converter = FixedPointConverter.class)
+    @Column(name = "sell_volume", precision = 18, scale = 8, nullable = false)
+    private long sellVolume;
+    
+    @Column(name = "trade_count", nullable = false)
+    private long tradeCount;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+    
+    public Position(Long userId, TradingPair tradingPair) {
+        this.userId = userId;
+        this.tradingPair = tradingPair;
+    }
+    
+    public void apply(TradeType type, long quantity, long price) {
+        long signedQuantity = type == TradeType.BUY ? quantity : -quantity;
+        if (netQuantity == 0 || (netQuantity > 0) == (signedQuantity > 0)) {
+            // Adding to the position: the entry price becomes the quantity-weighted average
+            long openQuantity = Math.abs(netQuantity);
+            long cost = FixedPoint.add(FixedPoint.multiply(openQuantity, averageEntryPrice, RoundingMode.HALF_UP),
+                                       FixedPoint.multiply(quantity, price, RoundingMode.HALF_UP));
+            averageEntryPrice = FixedPoint.divide(cost, FixedPoint.add(openQuantity, quantity), RoundingMode.HALF_UP);
+        } else {
+            // Reducing it: the closed part realises P&L against the entry price, any excess opens the other side
+            long closedQuantity = Math.min(quantity, Math.abs(netQuantity));
+            long pnl = FixedPoint.multiply(closedQuantity, FixedPoint.subtract(price, averageEntryPrice), RoundingMode.HALF_UP);
+            realizedPnl = FixedPoint.add(realizedPnl, netQuantity > 0 ? pnl : -pnl);
+            if (quantity > closedQuantity) {
+                averageEntryPrice = price;
+            } else if (quantity == Math.abs(netQuantity)) {
+                averageEntryPrice = 0;
+            }
+        }
+        netQuantity = FixedPoint.add(netQuantity, signedQuantity);
+        
+        if (type == TradeType.BUY) {
+            buyVolume = FixedPoint.add(buyVolume, quantity);
+        } else {
+            sellVolume = FixedPoint.add(sellVolume, quantity);
+        }
+        tradeCount++;
+    }
+    
+    public BigDecimal getNetQuantity() {
+        return FixedPoint.toBigDecimal(netQuantity);
+    }
+    
+    public BigDecimal getAverageEntryPrice() {
+        return FixedPoint.toBigDecimal(averageEntryPrice);
+    }
+    
+    public BigDecimal getRealizedPnl() {
+        return FixedPoint.toBigDecimal(realizedPnl);
+    }
+    
+    public BigDecimal getBuyVolume() {
+        return FixedPoint.toBigDecimal(buyVolume);
+    }
+    
+    public BigDecimal getSellVolume() {
+        return FixedPoint.toBigDecimal(sellVolume);
+    }
+}
@@ -0,0 +1,69 @@
+package com.pt.crypto_trading.domain.entity;
+
+import com.pt.crypto_trading.domain.enums.CandleInterval;
+import com.pt.crypto_trading.domain.instrument.TradingPair;
+import com.pt.crypto_trading.integration.enums.PriceSource;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "price_candles",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"trading_pair", "source", "candle_interval", "open_time"}),
+       indexes = {
+           @Index(name = "idx_price_candle_series", columnList = "trading_pair, source, candle_interval, open_time")
+       })
+@Data
+@NoArgsConstructor
+public class PriceCandle {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "trading_pair", nullable = false)
+    private TradingPair tradingPair;
+    
+    // Null for candles of the consolidated best price
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private PriceSource source;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "candle_interval", nullable = false, length = 20)
+    private CandleInterval interval;
+    
+    @Column(name = "open_time", nullable = false)
+    private LocalDateTime openTime;
+    
+    @Column(name = "close_time", nullable = false)
+    private LocalDateTime closeTime;
+    
+    @Column(name = "open_price", precision = 19, scale = 9)
+    private BigDecimal open;
+    
+    @Column(name = "high_price", precision = 19, scale = 9)
+    private BigDecimal high;
+    
+    @Column(name = "low_price", precision = 19, scale = 9)
+    private BigDecimal low;
+    
+    @Column(name = "close_price", precision = 19, scale = 9)
+    private BigDecimal close;
+    
+    @Column(name = "bid_close", precision = 18, scale = 8)
+    private BigDecimal bidClose;
+    
+    @Column(name = "ask_close", precision = 18, scale = 8)
+    private BigDecimal askClose;
+    
+    @Column(name = "spread_avg", precision = 18, scale = 8)
+    private BigDecimal spreadAvg;
+    
+    @Column(name = "spread_max", precision = 18, scale = 8)
+    private BigDecimal spreadMax;
+    
+    @Column(name = "tick_count", nullable = false)
+    private int tickCount;
+}
@@ -1,6 +1,6 @@
 package com.pt.crypto_trading.domain.entity;
 
-import com.pt.crypto_trading.domain.enums.TradingPair;
+import com.pt.crypto_trading.domain.instrument.TradingPair;
 import com.pt.crypto_trading.domain.enums.TradeType;
 import com.pt.crypto_trading.domain.enums.TradeStatus;
 import jakarta.persistence.*;
@@ -12,25 +12,25 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "trades",
        indexes = {
-           @Index(name = "idx_trade_user_created", columnList = "user_id, created_at"),
+           @Index(name = "idx_trade_user_created", columnList = "user_id, created_at, id"),
            @Index(name = "idx_trade_user_pair", columnList = "user_id, trading_pair"),
            @Index(name = "idx_trade_user_type", columnList = "user_id, type"),
            @Index(name = "idx_trade_user_status", columnList = "user_id, status"),
-           @Index(name = "idx_trade_user_pair_type", columnList = "user_id, trading_pair, type"),
-           @Index(name = "idx_trade_status_created", columnList = "status, created_at"),
-           @Index(name = "idx_trade_user_id_created", columnList = "user_id, id")
+           @Index(name = "idx_trade_status_created", columnList = "status, created_at")
        })
 @Data
 @NoArgsConstructor
 public class Trade {
+    // Pooled sequence: ids are handed out before the insert, so Hibernate can batch trade inserts, and one
+    // sequence round trip covers 50 trades. IDENTITY would force an immediate insert per trade
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "trade_id")
+    @SequenceGenerator(name = "trade_id", sequenceName = "trades_seq", allocationSize = 50)
     private Long id;
     
     @Column(name = "user_id", nullable = false)
     private Long userId;
     
-    @Enumerated(EnumType.STRING)
     @Column(name = "trading_pair", nullable = false)
     private TradingPair tradingPair;
     
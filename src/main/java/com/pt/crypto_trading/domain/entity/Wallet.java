@@ -4,10 +4,11 @@ import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDateTime;
 
-import com.pt.crypto_trading.domain.enums.Currency;
+import com.pt.crypto_trading.domain.instrument.Currency;
+import com.pt.crypto_trading.domain.money.FixedPoint;
+import com.pt.crypto_trading.domain.money.FixedPointConverter;
 
 @Entity
 @Table(name = "wallets", 
@@ -26,12 +27,13 @@ public class Wallet {
     @Column(name = "user_id", nullable = false)
     private Long userId;
     
-    @Enumerated(EnumType.STRING)
     @Column(length = 10, nullable = false)
     private Currency currency;
     
+    // Held as a FixedPoint long; the column stays DECIMAL(18,8)
+    @Convert(converter = FixedPointConverter.class)
     @Column(precision = 18, scale = 8, nullable = false)
-    private BigDecimal balance = BigDecimal.ZERO;
+    private long balance;
     
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
@@ -53,32 +55,39 @@ public class Wallet {
     public Wallet(Long userId, Currency currency, BigDecimal balance) {
         this.userId = userId;
         this.currency = currency;
-        this.balance = balance;
+        this.balance = FixedPoint.toScaled(balance);
     }
     
-    public void addBalance(BigDecimal amount) {
-        if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
-            throw new IllegalArgumentException("Amount must be positive and non-null");
+    public BigDecimal getBalance() {
+        return FixedPoint.toBigDecimal(balance);
+    }
+    
+    public long getScaledBalance() {
+        return balance;
+    }
+    
+    public void addBalance(long amount) {
+        if (amount <= 0) {
+            throw new IllegalArgumentException("Amount must be positive");
         }
         
-        this.balance = this.balance.add(amount).setScale(8, RoundingMode.HALF_UP);
+        this.balance = FixedPoint.add(this.balance, amount);
     }
 
-    public void subtractBalance(BigDecimal amount) {
-        if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
-            throw new IllegalArgumentException("Amount must be positive and non-null");
+    public void subtractBalance(long amount) {
+        if (amount <= 0) {
+            throw new IllegalArgumentException("Amount must be positive");
         }
         if (!hasSufficientBalance(amount)) {
             throw new IllegalArgumentException(
                 String.format("Insufficient balance. Required: %s, Available: %s", 
-                    amount.toPlainString(), this.balance.toPlainString()));
+                    FixedPoint.toBigDecimal(amount).toPlainString(), getBalance().toPlainString()));
         }
         
-        this.balance = this.balance.subtract(amount).setScale(8, RoundingMode.HALF_UP);
+        this.balance = FixedPoint.subtract(this.balance, amount);
     }
     
-    public boolean hasSufficientBalance(BigDecimal amount) {
-        if (amount == null) return false;
-        return this.balance.compareTo(amount) >= 0;
+    public boolean hasSufficientBalance(long amount) {
+        return this.balance >= amount;
     }
 }
\ No newline at end of file
@@ -0,0 +1,36 @@
+package com.pt.crypto_trading.domain.enums;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+import lombok.Getter;
+
+import java.util.Arrays;
+
+@Getter
+public enum CandleInterval {
+    ONE_SECOND("1s", 1_000L),
+    ONE_MINUTE("1m", 60_000L),
+    FIVE_MINUTES("5m", 300_000L),
+    ONE_HOUR("1h", 3_600_000L),
+    ONE_DAY("1d", 86_400_000L);
+    
+    @JsonValue
+    private final String label;
+    private final long millis;
+    
+    CandleInterval(String label, long millis) {
+        this.label = label;
+        this.millis = millis;
+    }
+    
+    // Bars are aligned to the epoch, so daily bars open at 00:00 UTC
+    public long openTimeOf(long epochMillis) {
+        return Math.floorDiv(epochMillis, millis) * millis;
+    }
+    
+    public static CandleInterval fromLabel(String label) {
+        return Arrays.stream(values())
+            .filter(interval -> interval.label.equals(label))
+            .findFirst()
+            .orElseThrow(() -> new IllegalArgumentException("Unknown candle interval: " + label));
+    }
+}
@@ -0,0 +1,28 @@
+package com.pt.crypto_trading.domain.enums;
+
+import lombok.Getter;
+
+import java.util.Arrays;
+
+@Getter
+public enum ExportFormat {
+    NDJSON("ndjson", "application/x-ndjson", "ndjson"),
+    CSV("csv", "text/csv", "csv");
+    
+    private final String label;
+    private final String contentType;
+    private final String extension;
+    
+    ExportFormat(String label, String contentType, String extension) {
+        this.label = label;
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+    
+    public static ExportFormat fromLabel(String label) {
+        return Arrays.stream(values())
+            .filter(format -> format.label.equalsIgnoreCase(label))
+            .findFirst()
+            .orElseThrow(() -> new IllegalArgumentException("Unknown export format: " + label));
+    }
+}
@@ -0,0 +1,37 @@
+package com.pt.crypto_trading.domain.instrument;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+import lombok.Getter;
+
+// Instances come from InstrumentRegistry; compare with equals, not ==
+@Getter
+public final class Currency {
+    
+    private final int id; // Dense index assigned by the registry
+    @JsonValue
+    private final String code;
+    private final String name;
+    private final int decimalPlaces;
+    
+    public Currency(int id, String code, String name, int decimalPlaces) {
+        this.id = id;
+        this.code = code;
+        this.name = name;
+        this.decimalPlaces = decimalPlaces;
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof Currency other && code.equals(other.code));
+    }
+    
+    @Override
+    public int hashCode() {
+        return code.hashCode();
+    }
+    
+    @Override
+    public String toString() {
+        return code;
+    }
+}
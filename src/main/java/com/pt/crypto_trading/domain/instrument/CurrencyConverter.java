@@ -0,0 +1,23 @@
+package com.pt.crypto_trading.domain.instrument;
+
+import com.pt.crypto_trading.service.InstrumentRegistry;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import lombok.RequiredArgsConstructor;
+
+@Converter(autoApply = true)
+@RequiredArgsConstructor
+public class CurrencyConverter implements AttributeConverter<Currency, String> {
+    
+    private final InstrumentRegistry instrumentRegistry;
+    
+    @Override
+    public String convertToDatabaseColumn(Currency currency) {
+        return currency != null ? currency.getCode() : null;
+    }
+    
+    @Override
+    public Currency convertToEntityAttribute(String code) {
+        return code != null ? instrumentRegistry.getCurrency(code) : null;
+    }
+}
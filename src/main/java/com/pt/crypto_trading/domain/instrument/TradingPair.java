@@ -0,0 +1,41 @@
+package com.pt.crypto_trading.domain.instrument;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+// Instances come from InstrumentRegistry; compare with equals, not ==
+@Getter
+public final class TradingPair {
+    
+    private final int id; // Dense index assigned by the registry, usable as an array slot
+    @JsonValue
+    private final String symbol;
+    private final Currency baseCurrency;
+    private final Currency quoteCurrency;
+    private final BigDecimal minTradeAmount;
+    
+    public TradingPair(int id, String symbol, Currency baseCurrency, Currency quoteCurrency, BigDecimal minTradeAmount) {
+        this.id = id;
+        this.symbol = symbol;
+        this.baseCurrency = baseCurrency;
+        this.quoteCurrency = quoteCurrency;
+        this.minTradeAmount = minTradeAmount;
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof TradingPair other && symbol.equals(other.symbol));
+    }
+    
+    @Override
+    public int hashCode() {
+        return symbol.hashCode();
+    }
+    
+    @Override
+    public String toString() {
+        return symbol;
+    }
+}
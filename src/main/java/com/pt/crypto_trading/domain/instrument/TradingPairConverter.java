@@ -0,0 +1,24 @@
+package com.pt.crypto_trading.domain.instrument;
+
+import com.pt.crypto_trading.service.InstrumentRegistry;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import lombok.RequiredArgsConstructor;
+
+// Stored by symbol, so rows keep the same column values the enum mapping wrote
+@Converter(autoApply = true)
+@RequiredArgsConstructor
+public class TradingPairConverter implements AttributeConverter<TradingPair, String> {
+    
+    private final InstrumentRegistry instrumentRegistry;
+    
+    @Override
+    public String convertToDatabaseColumn(TradingPair tradingPair) {
+        return tradingPair != null ? tradingPair.getSymbol() : null;
+    }
+    
+    @Override
+    public TradingPair convertToEntityAttribute(String symbol) {
+        return symbol != null ? instrumentRegistry.getPair(symbol) : null;
+    }
+}
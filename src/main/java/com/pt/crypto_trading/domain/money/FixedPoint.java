@@ -0,0 +1,94 @@
+package com.pt.crypto_trading.domain.money;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+// Prices, quantities and balances as a long scaled by 10^8, the precision of the DECIMAL(18,8) columns.
+// Arithmetic here never allocates and fails with ArithmeticException on overflow; BigDecimal only
+// appears at the JPA and JSON edges. DECIMAL(18,8) tops out below 10^10, so every stored value fits.
+public final class FixedPoint {
+    
+    public static final int SCALE = 8;
+    public static final long ONE = 100_000_000L;
+    
+    private FixedPoint() {
+    }
+    
+    public static long toScaled(BigDecimal value) {
+        return toScaled(value, RoundingMode.HALF_UP);
+    }
+    
+    public static long toScaled(BigDecimal value, RoundingMode roundingMode) {
+        return value.setScale(SCALE, roundingMode).unscaledValue().longValueExact();
+    }
+    
+    public static BigDecimal toBigDecimal(long scaled) {
+        return BigDecimal.valueOf(scaled, SCALE);
+    }
+    
+    public static long add(long a, long b) {
+        return Math.addExact(a, b);
+    }
+    
+    public static long subtract(long a, long b) {
+        return Math.subtractExact(a, b);
+    }
+    
+    // a * b rescaled back to 8 decimals; the 128-bit product is split so no intermediate overflows
+    public static long multiply(long a, long b, RoundingMode roundingMode) {
+        boolean negative = (a < 0) != (b < 0);
+        long x = Math.absExact(a);
+        long y = Math.absExact(b);
+        long xHigh = x / ONE;
+        long xLow = x % ONE;
+        long yHigh = y / ONE;
+        long yLow = y % ONE;
+        
+        // x * y / ONE = xHigh * yHigh * ONE + xHigh * yLow + xLow * yHigh + xLow * yLow / ONE
+        long whole = Math.addExact(
+                Math.multiplyExact(Math.multiplyExact(xHigh, yHigh), ONE),
+                Math.addExact(Math.multiplyExact(xHigh, yLow), Math.multiplyExact(xLow, yHigh)));
+        long fraction = xLow * yLow; // Both factors are below 10^8
+        
+        long magnitude = round(Math.addExact(whole, fraction / ONE), fraction % ONE, ONE, roundingMode, negative);
+        return negative ? -magnitude : magnitude;
+    }
+    
+    // a / b at 8 decimals; BigDecimal is only used when a * 10^8 does not fit in a long
+    public static long divide(long a, long b, RoundingMode roundingMode) {
+        if (b == 0) {
+            throw new ArithmeticException("Division by zero");
+        }
+        
+        long high = Math.multiplyHigh(a, ONE);
+        long low = a * ONE;
+        if (high != (low >> 63) || low == Long.MIN_VALUE) {
+            return toScaled(toBigDecimal(a).divide(toBigDecimal(b), SCALE, roundingMode), roundingMode);
+        }
+        
+        boolean negative = (a < 0) != (b < 0);
+        long x = Math.abs(low);
+        long y = Math.absExact(b);
+        long magnitude = round(x / y, x % y, y, roundingMode, negative);
+        return negative ? -magnitude : magnitude;
+    }
+    
+    private static long round(long quotient, long remainder, long divisor, RoundingMode roundingMode, boolean negative) {
+        if (remainder == 0) {
+            return quotient;
+        }
+        
+        long rest = divisor - remainder;
+        boolean increment = switch (roundingMode) {
+            case UP -> true;
+            case DOWN -> false;
+            case CEILING -> !negative;
+            case FLOOR -> negative;
+            case HALF_UP -> remainder >= rest;
+            case HALF_DOWN -> remainder > rest;
+            case HALF_EVEN -> remainder > rest || (remainder == rest && (quotient & 1) == 1);
+            case UNNECESSARY -> throw new ArithmeticException("Rounding necessary");
+        };
+        return increment ? Math.incrementExact(quotient) : quotient;
+    }
+}
@@ -0,0 +1,21 @@
+package com.pt.crypto_trading.domain.money;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.math.BigDecimal;
+
+// Maps a FixedPoint long field onto a DECIMAL(18,8) column
+@Converter
+public class FixedPointConverter implements AttributeConverter<Long, BigDecimal> {
+    
+    @Override
+    public BigDecimal convertToDatabaseColumn(Long scaled) {
+        return scaled != null ? FixedPoint.toBigDecimal(scaled) : null;
+    }
+    
+    @Override
+    public Long convertToEntityAttribute(BigDecimal value) {
+        return value != null ? FixedPoint.toScaled(value) : null;
+    }
+}
@@ -0,0 +1,32 @@
+package com.pt.crypto_trading.dto;
+
+import com.pt.crypto_trading.domain.enums.CandleInterval;
+import com.pt.crypto_trading.domain.instrument.TradingPair;
+import com.pt.crypto_trading.integration.enums.PriceSource;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CandleDto {
+    private TradingPair tradingPair;
+    private PriceSource source; // Null for the consolidated best price
+    private CandleInterval interval;
+    private LocalDateTime openTime;
+    private LocalDateTime closeTime;
+    private BigDecimal open;
+    private BigDecimal high;
+    private BigDecimal low;
+    private BigDecimal close;
+    private BigDecimal bidClose;
+    private BigDecimal askClose;
+    private BigDecimal spreadAvg;
+    private BigDecimal spreadMax;
+    private int tickCount;
+    private boolean closed;
+}
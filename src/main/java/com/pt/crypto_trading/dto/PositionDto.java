@@ -0,0 +1,67 @@
+package com.pt.crypto_trading.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.pt.crypto_trading.domain.entity.Position;
+import com.pt.crypto_trading.domain.instrument.TradingPair;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "User's position and P&L in one trading pair, from completed trades")
+public class PositionDto {
+    
+    @Schema(description = "User ID", example = "1")
+    private Long userId;
+    
+    @Schema(description = "Trading pair", example = "BTCUSDT")
+    private TradingPair tradingPair;
+    
+    @Schema(description = "Bought minus sold quantity; negative when more was sold than bought", example = "0.5")
+    private BigDecimal netQuantity;
+    
+    @Schema(description = "Average entry price of the open quantity", example = "45000.0")
+    private BigDecimal averageEntryPrice;
+    
+    @Schema(description = "P&L realised by closing quantity, in the quote currency", example = "120.5")
+    private BigDecimal realizedPnl;
+    
+    @Schema(description = "Total quantity bought", example = "1.5")
+    private BigDecimal buyVolume;
+    
+    @Schema(description = "Total quantity sold", example = "1.0")
+    private BigDecimal sellVolume;
+    
+    @Schema(description = "Completed trades in this pair", example = "3")
+    private long tradeCount;
+    
+    @Schema(description = "Last update timestamp")
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime updatedAt;
+    
+    public static PositionDto fromPosition(Position position) {
+        return new PositionDto(
+            position.getUserId(),
+            position.getTradingPair(),
+            position.getNetQuantity(),
+            position.getAverageEntryPrice(),
+            position.getRealizedPnl(),
+            position.getBuyVolume(),
+            position.getSellVolume(),
+            position.getTradeCount(),
+            position.getUpdatedAt()
+        );
+    }
+    
+    // A pair the user has never traded
+    public static PositionDto flat(Long userId, TradingPair tradingPair) {
+        return new PositionDto(userId, tradingPair, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO,
+                               BigDecimal.ZERO, BigDecimal.ZERO, 0, null);
+    }
+}
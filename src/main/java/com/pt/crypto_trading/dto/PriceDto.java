@@ -1,6 +1,6 @@
 package com.pt.crypto_trading.dto;
 
-import com.pt.crypto_trading.domain.enums.TradingPair;
+import com.pt.crypto_trading.domain.instrument.TradingPair;
 import com.pt.crypto_trading.integration.enums.PriceSource;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -0,0 +1,33 @@
+package com.pt.crypto_trading.dto;
+
+import com.pt.crypto_trading.domain.instrument.TradingPair;
+import com.pt.crypto_trading.integration.enums.PriceSource;
+import com.pt.crypto_trading.timeseries.QuotePoint;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceHistoryDto {
+    private TradingPair tradingPair;
+    private PriceSource source;
+    private BigDecimal bidPrice;
+    private BigDecimal askPrice;
+    private LocalDateTime timestamp;
+    
+    public static PriceHistoryDto fromQuotePoint(TradingPair tradingPair, PriceSource source, QuotePoint point) {
+        return new PriceHistoryDto(
+            tradingPair,
+            source,
+            point.bidPrice(),
+            point.askPrice(),
+            LocalDateTime.ofInstant(point.timestamp(), ZoneId.systemDefault())
+        );
+    }
+}
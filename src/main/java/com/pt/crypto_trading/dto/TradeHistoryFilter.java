@@ -0,0 +1,22 @@
+package com.pt.crypto_trading.dto;
+
+import com.pt.crypto_trading.domain.enums.TradeStatus;
+import com.pt.crypto_trading.domain.enums.TradeType;
+import com.pt.crypto_trading.domain.instrument.TradingPair;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Optional trade history filters; null fields do not restrict, all set fields must match
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TradeHistoryFilter {
+    private TradingPair tradingPair;
+    private TradeType type;
+    private TradeStatus status;
+    private LocalDateTime from; // Inclusive, on createdAt
+    private LocalDateTime to; // Exclusive, on createdAt
+}
@@ -0,0 +1,21 @@
+package com.pt.crypto_trading.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "One page of trade history, newest first")
+public class TradeHistoryPageDto {
+    
+    @Schema(description = "Trades on this page")
+    private List<TradeResponseDto> trades;
+    
+    @Schema(description = "Opaque token for the next page; null on the last page")
+    private String nextCursor;
+}
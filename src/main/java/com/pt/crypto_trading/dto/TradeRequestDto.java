@@ -1,6 +1,6 @@
 package com.pt.crypto_trading.dto;
 
-import com.pt.crypto_trading.domain.enums.TradingPair;
+import com.pt.crypto_trading.domain.instrument.TradingPair;
 import com.pt.crypto_trading.domain.enums.TradeType;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotNull;
@@ -32,8 +32,10 @@ public class TradeRequestDto {
     
     // Add validation method for production readiness
     public void validateBusinessRules() {
-        if (tradingPair != TradingPair.ETHUSDT && tradingPair != TradingPair.BTCUSDT) {
-            throw new IllegalArgumentException("Only ETHUSDT and BTCUSDT trading pairs are supported");
+        // Unknown symbols never get this far; they fail to resolve against the instrument registry
+        if (tradingPair.getMinTradeAmount() != null && quantity.compareTo(tradingPair.getMinTradeAmount()) < 0) {
+            throw new IllegalArgumentException(String.format(
+                    "Minimum quantity for %s is %s", tradingPair, tradingPair.getMinTradeAmount().toPlainString()));
         }
     }
 }
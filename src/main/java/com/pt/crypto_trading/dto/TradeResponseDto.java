@@ -4,7 +4,9 @@ import com.fasterxml.jackson.annotation.JsonFormat;
 import com.pt.crypto_trading.domain.entity.Trade;
 import com.pt.crypto_trading.domain.enums.TradeStatus;
 import com.pt.crypto_trading.domain.enums.TradeType;
-import com.pt.crypto_trading.domain.enums.TradingPair;
+import com.pt.crypto_trading.domain.instrument.TradingPair;
+import com.pt.crypto_trading.domain.money.FixedPoint;
+import com.pt.crypto_trading.ledger.LedgerEntry;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -69,4 +71,20 @@ public class TradeResponseDto {
             trade.getExecutedAt() != null ? trade.getExecutedAt() : LocalDateTime.now()
         );
     }
+    
+    public static TradeResponseDto fromLedgerEntry(LedgerEntry entry, TradingPair tradingPair) {
+        return new TradeResponseDto(
+            entry.tradeId(),
+            entry.userId(),
+            tradingPair,
+            entry.type(),
+            FixedPoint.toBigDecimal(entry.quantity()),
+            FixedPoint.toBigDecimal(entry.price()),
+            FixedPoint.toBigDecimal(entry.totalAmount()),
+            TradeStatus.COMPLETED,
+            null,
+            entry.executedAtTime(),
+            entry.executedAtTime()
+        );
+    }
 }
@@ -1,6 +1,6 @@
 package com.pt.crypto_trading.dto;
 
-import com.pt.crypto_trading.domain.enums.Currency;
+import com.pt.crypto_trading.domain.instrument.Currency;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
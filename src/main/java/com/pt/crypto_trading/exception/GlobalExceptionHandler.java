@@ -66,6 +66,19 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
     }
     
+    @ExceptionHandler(TradeLockTimeoutException.class)
+    public ResponseEntity<ErrorResponse> handleTradeLockTimeoutException(TradeLockTimeoutException ex, WebRequest request) {
+        log.warn("Trade lock timeout: {}", ex.getMessage());
+        ErrorResponse error = new ErrorResponse(
+            HttpStatus.TOO_MANY_REQUESTS.value(),
+            "Too Many Requests",
+            ex.getMessage(),
+            request.getDescription(false),
+            "TRADE_LOCK_TIMEOUT"
+        );
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(error);
+    }
+    
     @ExceptionHandler({
         ConstraintViolationException.class,
         DataIntegrityViolationException.class
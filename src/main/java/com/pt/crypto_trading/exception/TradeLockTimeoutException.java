@@ -0,0 +1,8 @@
+package com.pt.crypto_trading.exception;
+
+// The user already has a trade in flight and the next one could not get its turn in time; safe to retry
+public class TradeLockTimeoutException extends RuntimeException {
+    public TradeLockTimeoutException(String message) {
+        super(message);
+    }
+}
@@ -1,30 +1,46 @@
 package com.pt.crypto_trading.integration.client;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.pt.crypto_trading.config.PriceProviderProperties;
-import com.pt.crypto_trading.domain.enums.TradingPair;
-import com.pt.crypto_trading.integration.dto.BinancePriceDto;
+import com.pt.crypto_trading.domain.instrument.TradingPair;
 import com.pt.crypto_trading.integration.enums.PriceSource;
+import com.pt.crypto_trading.service.InstrumentRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.socket.WebSocketMessage;
+import org.springframework.web.reactive.socket.client.WebSocketClient;
+import org.springframework.web.util.UriComponentsBuilder;
 
-import java.util.Arrays;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.time.Duration;
 import java.util.Map;
 import java.util.stream.Collectors;
 
 @Component
 @RequiredArgsConstructor
 @Slf4j
-public class BinanceClient implements PriceProvider {
+public class BinanceClient implements StreamingPriceProvider {
     
     private final RestTemplate restTemplate;
     private final PriceProviderProperties priceProviderProperties;
+    private final ProviderHealthRegistry providerHealthRegistry;
+    private final WebSocketClient webSocketClient;
+    private final ObjectMapper objectMapper;
+    private final InstrumentRegistry instrumentRegistry;
     
-    private static final Map<String, TradingPair> SYMBOL_MAPPING = Map.of(
-            "BTCUSDT", TradingPair.BTCUSDT,
-            "ETHUSDT", TradingPair.ETHUSDT
-    );
+    // A symbols filter longer than this costs more than downloading the full ticker list
+    private static final int MAX_FILTERED_SYMBOLS = 100;
+    
+    private volatile PriceStreamConnection streamConnection;
     
     @Override
     public PriceSource getSource() {
@@ -35,22 +51,19 @@ public class BinanceClient implements PriceProvider {
     public Map<TradingPair, PriceData> fetchPrices() {
         try {
             log.debug("Fetching prices from Binance");
-            String apiUrl = priceProviderProperties.getBinance().getUrl();
-            BinancePriceDto[] response = restTemplate.getForObject(apiUrl, BinancePriceDto[].class);
+            Map<TradingPair, PriceData> prices = restTemplate.execute(
+                    subscribedTickerUri(),
+                    HttpMethod.GET,
+                    request -> request.getHeaders().set(HttpHeaders.ACCEPT_ENCODING, "gzip"),
+                    this::parseTickers);
             
-            if (response == null) {
+            if (prices == null || prices.isEmpty()) {
                 log.warn("Empty response from Binance API");
                 return Map.of();
             }
             
-            return Arrays.stream(response)
-                    .filter(this::isValidPrice)
-                    .filter(dto -> SYMBOL_MAPPING.containsKey(dto.getSymbol()))
-                    .collect(Collectors.toMap(
-                            dto -> SYMBOL_MAPPING.get(dto.getSymbol()),
-                            dto -> new PriceData(dto.getBidPrice(), dto.getAskPrice(), PriceSource.BINANCE)
-                    ));
-                    
+            return prices;
+            
         } catch (Exception e) {
             log.error("Failed to fetch prices from Binance: {}", e.getMessage(), e);
             return Map.of();
@@ -59,19 +72,98 @@ public class BinanceClient implements PriceProvider {
     
     @Override
     public boolean isAvailable() {
+        return providerHealthRegistry.isAvailable(PriceSource.BINANCE);
+    }
+    
+    @Override
+    public synchronized void startStreaming(PriceUpdateListener listener) {
+        if (streamConnection != null) {
+            return;
+        }
+        
+        String streams = symbolMapping().keySet().stream()
+                .map(symbol -> symbol.toLowerCase() + "@bookTicker")
+                .collect(Collectors.joining("/"));
+        URI uri = URI.create(priceProviderProperties.getBinance().getStreamUrl() + "?streams=" + streams);
+        PriceProviderProperties.Streaming streaming = priceProviderProperties.getStreaming();
+        
+        streamConnection = new PriceStreamConnection(
+                PriceSource.BINANCE,
+                webSocketClient,
+                uri,
+                session -> session.receive()
+                        .map(WebSocketMessage::getPayloadAsText)
+                        .doOnNext(payload -> handleStreamMessage(payload, listener))
+                        .then(),
+                Duration.ofMillis(streaming.getInitialBackoffMs()),
+                Duration.ofMillis(streaming.getMaxBackoffMs()));
+        streamConnection.open();
+    }
+    
+    @Override
+    public synchronized void stopStreaming() {
+        if (streamConnection != null) {
+            streamConnection.close();
+            streamConnection = null;
+        }
+    }
+    
+    @Override
+    public boolean isStreaming() {
+        PriceStreamConnection connection = streamConnection;
+        return connection != null && connection.isConnected();
+    }
+    
+    private void handleStreamMessage(String payload, PriceUpdateListener listener) {
         try {
-            String apiUrl = priceProviderProperties.getBinance().getUrl();
-            restTemplate.getForObject(apiUrl, BinancePriceDto[].class);
-            return true;
+            // Combined stream frames wrap the bookTicker event: {"stream":"btcusdt@bookTicker","data":{...}}
+            JsonNode root = objectMapper.readTree(payload);
+            JsonNode ticker = root.has("data") ? root.get("data") : root;
+            
+            TradingPair tradingPair = symbolMapping().get(ticker.path("s").asText());
+            if (tradingPair == null) {
+                return;
+            }
+            
+            BigDecimal bidPrice = new BigDecimal(ticker.path("b").asText());
+            BigDecimal askPrice = new BigDecimal(ticker.path("a").asText());
+            if (bidPrice.compareTo(askPrice) >= 0) {
+                return;
+            }
+            
+            listener.onPriceUpdate(tradingPair, new PriceData(bidPrice, askPrice, PriceSource.BINANCE));
+            
         } catch (Exception e) {
-            log.warn("Binance API is not available: {}", e.getMessage());
-            return false;
+            log.warn("Failed to handle Binance stream message: {}", e.getMessage());
         }
     }
     
-    private boolean isValidPrice(BinancePriceDto dto) {
-        return dto.getBidPrice() != null && 
-               dto.getAskPrice() != null && 
-               dto.getBidPrice().compareTo(dto.getAskPrice()) < 0;
+    private URI subscribedTickerUri() {
+        UriComponentsBuilder builder = UriComponentsBuilder.fromUriString(priceProviderProperties.getBinance().getUrl());
+        Map<String, TradingPair> symbolMapping = symbolMapping();
+        
+        // Ask Binance for the subscribed symbols only instead of the full ticker list
+        if (symbolMapping.size() <= MAX_FILTERED_SYMBOLS) {
+            String symbols = symbolMapping.keySet().stream()
+                    .map(symbol -> "\"" + symbol + "\"")
+                    .collect(Collectors.joining(",", "[", "]"));
+            builder.queryParam("symbols", symbols);
+        }
+        
+        return builder.build()
+                .encode()
+                .toUri();
+    }
+    
+    private Map<String, TradingPair> symbolMapping() {
+        return instrumentRegistry.exchangeSymbols(PriceSource.BINANCE, symbol -> symbol);
+    }
+    
+    private Map<TradingPair, PriceData> parseTickers(ClientHttpResponse response) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(TickerPayloadParser.decodedBody(response))) {
+            parser.nextToken();
+            return TickerPayloadParser.parseTickerArray(
+                    parser, symbolMapping(), symbol -> symbol, "bidPrice", "askPrice", PriceSource.BINANCE);
+        }
     }
 }
@@ -1,28 +1,51 @@
 package com.pt.crypto_trading.integration.client;
 
-import com.pt.crypto_trading.domain.enums.TradingPair;
-import com.pt.crypto_trading.integration.dto.HuobiPriceDto;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pt.crypto_trading.config.PriceProviderProperties;
+import com.pt.crypto_trading.domain.instrument.TradingPair;
 import com.pt.crypto_trading.integration.enums.PriceSource;
+import com.pt.crypto_trading.service.InstrumentRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.socket.WebSocketMessage;
+import org.springframework.web.reactive.socket.WebSocketSession;
+import org.springframework.web.reactive.socket.client.WebSocketClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
 
 @Component
 @RequiredArgsConstructor
 @Slf4j
-public class HuobiClient implements PriceProvider {
+public class HuobiClient implements StreamingPriceProvider {
     
     private final RestTemplate restTemplate;
+    private final PriceProviderProperties priceProviderProperties;
+    private final ProviderHealthRegistry providerHealthRegistry;
+    private final WebSocketClient webSocketClient;
+    private final ObjectMapper objectMapper;
+    private final InstrumentRegistry instrumentRegistry;
     
     private static final String API_URL = "https://api.huobi.pro/market/tickers";
-    private static final Map<String, TradingPair> SYMBOL_MAPPING = Map.of(
-            "btcusdt", TradingPair.BTCUSDT,
-            "ethusdt", TradingPair.ETHUSDT
-    );
+    
+    private volatile PriceStreamConnection streamConnection;
     
     @Override
     public PriceSource getSource() {
@@ -33,21 +56,20 @@ public class HuobiClient implements PriceProvider {
     public Map<TradingPair, PriceData> fetchPrices() {
         try {
             log.debug("Fetching prices from Huobi");
-            HuobiPriceDto response = restTemplate.getForObject(API_URL, HuobiPriceDto.class);
+            // Huobi has no multi-symbol filter on /market/tickers, so unsubscribed tickers are skipped while parsing
+            Map<TradingPair, PriceData> prices = restTemplate.execute(
+                    URI.create(API_URL),
+                    HttpMethod.GET,
+                    request -> request.getHeaders().set(HttpHeaders.ACCEPT_ENCODING, "gzip"),
+                    this::parseTickers);
             
-            if (!isValidResponse(response)) {
+            if (prices == null) {
                 log.warn("Invalid response from Huobi API");
                 return Map.of();
             }
             
-            return response.getData().stream()
-                    .filter(this::isValidTicker)
-                    .filter(ticker -> SYMBOL_MAPPING.containsKey(ticker.getSymbol().toLowerCase()))
-                    .collect(Collectors.toMap(
-                            ticker -> SYMBOL_MAPPING.get(ticker.getSymbol().toLowerCase()),
-                            ticker -> new PriceData(ticker.getBid(), ticker.getAsk(), PriceSource.HUOBI)
-                    ));
-                    
+            return prices;
+            
         } catch (Exception e) {
             log.error("Failed to fetch prices from Huobi: {}", e.getMessage(), e);
             return Map.of();
@@ -56,24 +78,138 @@ public class HuobiClient implements PriceProvider {
     
     @Override
     public boolean isAvailable() {
+        return providerHealthRegistry.isAvailable(PriceSource.HUOBI);
+    }
+    
+    @Override
+    public synchronized void startStreaming(PriceUpdateListener listener) {
+        if (streamConnection != null) {
+            return;
+        }
+        
+        URI uri = URI.create(priceProviderProperties.getHuobi().getStreamUrl());
+        PriceProviderProperties.Streaming streaming = priceProviderProperties.getStreaming();
+        
+        streamConnection = new PriceStreamConnection(
+                PriceSource.HUOBI,
+                webSocketClient,
+                uri,
+                session -> handleStreamSession(session, listener),
+                Duration.ofMillis(streaming.getInitialBackoffMs()),
+                Duration.ofMillis(streaming.getMaxBackoffMs()));
+        streamConnection.open();
+    }
+    
+    @Override
+    public synchronized void stopStreaming() {
+        if (streamConnection != null) {
+            streamConnection.close();
+            streamConnection = null;
+        }
+    }
+    
+    @Override
+    public boolean isStreaming() {
+        PriceStreamConnection connection = streamConnection;
+        return connection != null && connection.isConnected();
+    }
+    
+    private Mono<Void> handleStreamSession(WebSocketSession session, PriceUpdateListener listener) {
+        // Huobi pings every few seconds and drops the connection if the pong does not come back
+        Sinks.Many<String> pongs = Sinks.many().unicast().onBackpressureBuffer();
+        
+        Flux<String> subscriptions = Flux.fromIterable(symbolMapping().keySet())
+                .map(symbol -> String.format("{\"sub\":\"market.%s.bbo\",\"id\":\"%s\"}", symbol, symbol));
+        
+        Mono<Void> outbound = session.send(subscriptions.concatWith(pongs.asFlux()).map(session::textMessage));
+        
+        Mono<Void> inbound = session.receive()
+                .map(this::decodeStreamMessage)
+                .doOnNext(payload -> handleStreamMessage(payload, listener, pongs))
+                .doFinally(signal -> pongs.tryEmitComplete())
+                .then();
+        
+        return Mono.when(outbound, inbound);
+    }
+    
+    private String decodeStreamMessage(WebSocketMessage message) {
+        if (message.getType() == WebSocketMessage.Type.TEXT) {
+            return message.getPayloadAsText();
+        }
+        
+        // Market data frames are gzip-compressed binary
+        try (InputStream input = new GZIPInputStream(message.getPayload().asInputStream())) {
+            return new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            log.warn("Failed to decompress Huobi stream frame: {}", e.getMessage());
+            return "";
+        }
+    }
+    
+    private void handleStreamMessage(String payload, PriceUpdateListener listener, Sinks.Many<String> pongs) {
+        if (payload.isEmpty()) {
+            return;
+        }
+        
         try {
-            HuobiPriceDto response = restTemplate.getForObject(API_URL, HuobiPriceDto.class);
-            return isValidResponse(response);
+            JsonNode root = objectMapper.readTree(payload);
+            
+            if (root.has("ping")) {
+                pongs.tryEmitNext("{\"pong\":" + root.get("ping").asLong() + "}");
+                return;
+            }
+            
+            JsonNode tick = root.get("tick");
+            if (tick == null) {
+                return;
+            }
+            
+            TradingPair tradingPair = symbolMapping().get(tick.path("symbol").asText().toLowerCase());
+            if (tradingPair == null) {
+                return;
+            }
+            
+            BigDecimal bidPrice = new BigDecimal(tick.path("bid").asText());
+            BigDecimal askPrice = new BigDecimal(tick.path("ask").asText());
+            if (bidPrice.signum() <= 0 || bidPrice.compareTo(askPrice) >= 0) {
+                return;
+            }
+            
+            listener.onPriceUpdate(tradingPair, new PriceData(bidPrice, askPrice, PriceSource.HUOBI));
+            
         } catch (Exception e) {
-            log.warn("Huobi API is not available: {}", e.getMessage());
-            return false;
+            log.warn("Failed to handle Huobi stream message: {}", e.getMessage());
         }
     }
     
-    private boolean isValidResponse(HuobiPriceDto response) {
-        return response != null && 
-               response.getData() != null && 
-               "ok".equals(response.getStatus());
+    private Map<String, TradingPair> symbolMapping() {
+        return instrumentRegistry.exchangeSymbols(PriceSource.HUOBI, String::toLowerCase);
     }
     
-    private boolean isValidTicker(HuobiPriceDto.HuobiTickerDto ticker) {
-        return ticker.getBid() != null && 
-               ticker.getAsk() != null && 
-               ticker.getBid().compareTo(ticker.getAsk()) < 0;
+    private Map<TradingPair, PriceData> parseTickers(ClientHttpResponse response) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(TickerPayloadParser.decodedBody(response))) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            
+            String status = null;
+            Map<TradingPair, PriceData> prices = Map.of();
+            
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                
+                if ("status".equals(field)) {
+                    status = parser.getText();
+                } else if ("data".equals(field) && parser.currentToken() == JsonToken.START_ARRAY) {
+                    prices = TickerPayloadParser.parseTickerArray(
+                            parser, symbolMapping(), String::toLowerCase, "bid", "ask", PriceSource.HUOBI);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            
+            return "ok".equals(status) ? prices : null;
+        }
     }
 }
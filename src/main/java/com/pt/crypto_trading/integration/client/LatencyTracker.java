@@ -0,0 +1,37 @@
+package com.pt.crypto_trading.integration.client;
+
+import java.util.Arrays;
+
+public class LatencyTracker {
+    
+    private final long[] samples;
+    private int next;
+    private int count;
+    
+    public LatencyTracker(int windowSize) {
+        this.samples = new long[windowSize];
+    }
+    
+    public synchronized void record(long latencyMs) {
+        samples[next] = latencyMs;
+        next = (next + 1) % samples.length;
+        if (count < samples.length) {
+            count++;
+        }
+    }
+    
+    public synchronized int sampleCount() {
+        return count;
+    }
+    
+    public synchronized long percentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile * count) - 1;
+        return sorted[Math.max(0, Math.min(index, count - 1))];
+    }
+}
@@ -1,6 +1,7 @@
 package com.pt.crypto_trading.integration.client;
 
-import com.pt.crypto_trading.domain.enums.TradingPair;
+import com.pt.crypto_trading.domain.instrument.TradingPair;
+import com.pt.crypto_trading.domain.money.FixedPoint;
 import com.pt.crypto_trading.integration.enums.PriceSource;
 
 import java.math.BigDecimal;
@@ -11,5 +12,10 @@ public interface PriceProvider {
     Map<TradingPair, PriceData> fetchPrices();
     boolean isAvailable();
     
-    record PriceData(BigDecimal bidPrice, BigDecimal askPrice, PriceSource source) {}
+    // Scaled copies are taken once at ingestion so aggregation compares plain longs
+    record PriceData(BigDecimal bidPrice, BigDecimal askPrice, PriceSource source, long scaledBid, long scaledAsk) {
+        public PriceData(BigDecimal bidPrice, BigDecimal askPrice, PriceSource source) {
+            this(bidPrice, askPrice, source, FixedPoint.toScaled(bidPrice), FixedPoint.toScaled(askPrice));
+        }
+    }
 }
@@ -0,0 +1,71 @@
+package com.pt.crypto_trading.integration.client;
+
+import com.pt.crypto_trading.integration.enums.PriceSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.reactive.socket.WebSocketHandler;
+import org.springframework.web.reactive.socket.client.WebSocketClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.net.URI;
+import java.time.Duration;
+
+@Slf4j
+public class PriceStreamConnection {
+    
+    private final PriceSource source;
+    private final WebSocketClient webSocketClient;
+    private final URI uri;
+    private final WebSocketHandler handler;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    
+    private volatile Disposable subscription;
+    private volatile boolean connected;
+    
+    public PriceStreamConnection(PriceSource source, WebSocketClient webSocketClient, URI uri,
+                                 WebSocketHandler handler, Duration initialBackoff, Duration maxBackoff) {
+        this.source = source;
+        this.webSocketClient = webSocketClient;
+        this.uri = uri;
+        this.handler = handler;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+    }
+    
+    public synchronized void open() {
+        if (subscription != null && !subscription.isDisposed()) {
+            return;
+        }
+        
+        log.info("Opening {} price stream: {}", source, uri);
+        subscription = Mono.defer(() -> webSocketClient.execute(uri, session -> {
+                    connected = true;
+                    log.info("{} price stream connected", source);
+                    return handler.handle(session);
+                }))
+                .doFinally(signal -> connected = false)
+                .repeatWhen(completed -> completed.delayElements(initialBackoff))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, initialBackoff)
+                        .maxBackoff(maxBackoff)
+                        .doBeforeRetry(retry -> log.warn("{} price stream dropped (attempt {}): {}",
+                                source, retry.totalRetries() + 1, retry.failure().getMessage())))
+                .subscribe(
+                        unused -> { },
+                        error -> log.error("{} price stream terminated: {}", source, error.getMessage()));
+    }
+    
+    public synchronized void close() {
+        if (subscription != null) {
+            log.info("Closing {} price stream", source);
+            subscription.dispose();
+            subscription = null;
+        }
+        connected = false;
+    }
+    
+    public boolean isConnected() {
+        return connected;
+    }
+}
@@ -0,0 +1,158 @@
+package com.pt.crypto_trading.integration.client;
+
+import com.pt.crypto_trading.config.PriceProviderProperties;
+import com.pt.crypto_trading.domain.instrument.TradingPair;
+import com.pt.crypto_trading.integration.enums.PriceSource;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+@Component
+@Slf4j
+public class ProviderFanOut {
+    
+    private final ExecutorService executor;
+    private final PriceProviderProperties.FanOut config;
+    private final Map<PriceSource, LatencyTracker> latencies = new ConcurrentHashMap<>();
+    
+    // Private to the fan-out: exposed as a bean it would be taken for the application's task executor, and
+    // Boot would back off from configuring the one MVC async requests run on
+    public ProviderFanOut(PriceProviderProperties priceProviderProperties) {
+        this.config = priceProviderProperties.getFanOut();
+        
+        AtomicInteger threadNumber = new AtomicInteger();
+        // No queue: abandoned attempts can hold a thread until the read timeout, so never wait behind them
+        this.executor = new ThreadPoolExecutor(config.getCorePoolSize(), config.getMaxPoolSize(),
+                60, TimeUnit.SECONDS, new SynchronousQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "price-fetch-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        
+        log.info("Price fetch executor configured: core={}, max={}", config.getCorePoolSize(), config.getMaxPoolSize());
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+    
+    public Map<PriceSource, Map<TradingPair, PriceProvider.PriceData>> fetchAll(
+            List<PriceProvider> providers,
+            Function<PriceProvider, Map<TradingPair, PriceProvider.PriceData>> fetcher) {
+        
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(config.getCycleDeadlineMs());
+        
+        Map<PriceSource, CompletableFuture<Map<TradingPair, PriceProvider.PriceData>>> pending = new EnumMap<>(PriceSource.class);
+        for (PriceProvider provider : providers) {
+            pending.put(provider.getSource(), fetchWithHedge(provider, fetcher, deadline));
+        }
+        
+        try {
+            CompletableFuture.allOf(pending.values().toArray(CompletableFuture[]::new))
+                    .get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            log.warn("Price fetch deadline of {}ms reached, aggregating partial results", config.getCycleDeadlineMs());
+        } catch (Exception e) {
+            log.error("Price fetch fan-out failed: {}", e.getMessage());
+        }
+        
+        Map<PriceSource, Map<TradingPair, PriceProvider.PriceData>> results = new EnumMap<>(PriceSource.class);
+        pending.forEach((source, future) -> results.put(source, future.getNow(Map.of())));
+        return results;
+    }
+    
+    private CompletableFuture<Map<TradingPair, PriceProvider.PriceData>> fetchWithHedge(
+            PriceProvider provider,
+            Function<PriceProvider, Map<TradingPair, PriceProvider.PriceData>> fetcher,
+            long deadline) {
+        
+        PriceSource source = provider.getSource();
+        LatencyTracker tracker = latencies.computeIfAbsent(source, key -> new LatencyTracker(config.getLatencyWindow()));
+        boolean learned = tracker.sampleCount() >= config.getMinSamples();
+        long p95 = tracker.percentile(0.95);
+        long remainingMs = Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
+        
+        long timeoutMs = learned
+                ? Math.min(remainingMs, Math.max(config.getMinTimeoutMs(), (long) (p95 * config.getTimeoutMultiplier())))
+                : remainingMs;
+        
+        CompletableFuture<Map<TradingPair, PriceProvider.PriceData>> winner = new CompletableFuture<>();
+        AtomicInteger attempts = new AtomicInteger();
+        
+        launchAttempt(provider, fetcher, tracker, winner, attempts);
+        
+        if (learned && p95 < timeoutMs) {
+            // Hedge: a second request once the first one is slower than the provider's usual p95
+            CompletableFuture.runAsync(() -> {
+                if (!winner.isDone()) {
+                    log.debug("Hedging {} fetch after {}ms", source, p95);
+                    launchAttempt(provider, fetcher, tracker, winner, attempts);
+                }
+            }, CompletableFuture.delayedExecutor(p95, TimeUnit.MILLISECONDS));
+        }
+        
+        return winner.completeOnTimeout(Map.of(), timeoutMs, TimeUnit.MILLISECONDS);
+    }
+    
+    private void launchAttempt(PriceProvider provider,
+                               Function<PriceProvider, Map<TradingPair, PriceProvider.PriceData>> fetcher,
+                               LatencyTracker tracker,
+                               CompletableFuture<Map<TradingPair, PriceProvider.PriceData>> winner,
+                               AtomicInteger attempts) {
+        attempts.incrementAndGet();
+        long start = System.nanoTime();
+        AtomicBoolean finished = new AtomicBoolean();
+        
+        try {
+            Future<?> attempt = executor.submit(() -> {
+                Map<TradingPair, PriceProvider.PriceData> prices = null;
+                try {
+                    prices = fetcher.apply(provider);
+                } catch (RuntimeException e) {
+                    log.debug("{} fetch attempt failed: {}", provider.getSource(), e.getMessage());
+                }
+                finished.set(true);
+                
+                // An attempt cut short by cancellation says nothing about how fast the provider is
+                if (!Thread.currentThread().isInterrupted()) {
+                    tracker.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                }
+                boolean last = attempts.decrementAndGet() == 0;
+                if (prices != null && !prices.isEmpty()) {
+                    winner.complete(prices);
+                } else if (last) {
+                    winner.complete(Map.of());
+                }
+            });
+            
+            // Once there is a winner, or the timeout gave up on this provider, the other attempts are only
+            // holding pool threads; interrupt them rather than let them run to the read timeout
+            winner.whenComplete((prices, error) -> {
+                if (!finished.get()) {
+                    attempt.cancel(true);
+                }
+            });
+        } catch (Exception e) {
+            log.warn("Could not dispatch {} fetch: {}", provider.getSource(), e.getMessage());
+            if (attempts.decrementAndGet() == 0) {
+                winner.complete(Map.of());
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.pt.crypto_trading.integration.client;
+
+import com.pt.crypto_trading.domain.instrument.TradingPair;
+import com.pt.crypto_trading.exception.CryptoTradingException;
+import com.pt.crypto_trading.integration.enums.PriceSource;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProviderHealthRegistry {
+    
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    
+    public Map<TradingPair, PriceProvider.PriceData> fetchPrices(PriceProvider provider) {
+        CircuitBreaker circuitBreaker = circuitBreakerFor(provider.getSource());
+        
+        try {
+            // Outcome and duration of the real fetch feed the breaker, so no separate liveness probe is needed
+            return circuitBreaker.executeSupplier(() -> {
+                Map<TradingPair, PriceProvider.PriceData> prices = provider.fetchPrices();
+                if (prices.isEmpty()) {
+                    throw new CryptoTradingException("No prices returned by " + provider.getSource());
+                }
+                return prices;
+            });
+        } catch (CallNotPermittedException e) {
+            log.debug("Skipping {} - circuit breaker is {}", provider.getSource(), circuitBreaker.getState());
+            return Map.of();
+        } catch (Exception e) {
+            log.warn("Fetch from {} recorded as failure: {}", provider.getSource(), e.getMessage());
+            return Map.of();
+        }
+    }
+    
+    public boolean isAvailable(PriceSource source) {
+        CircuitBreaker.State state = circuitBreakerFor(source).getState();
+        return state != CircuitBreaker.State.OPEN && state != CircuitBreaker.State.FORCED_OPEN;
+    }
+    
+    public CircuitBreaker.State getState(PriceSource source) {
+        return circuitBreakerFor(source).getState();
+    }
+    
+    private CircuitBreaker circuitBreakerFor(PriceSource source) {
+        return circuitBreakerRegistry.circuitBreaker(source.name().toLowerCase());
+    }
+}
@@ -0,0 +1,14 @@
+package com.pt.crypto_trading.integration.client;
+
+import com.pt.crypto_trading.domain.instrument.TradingPair;
+
+public interface StreamingPriceProvider extends PriceProvider {
+    void startStreaming(PriceUpdateListener listener);
+    void stopStreaming();
+    boolean isStreaming();
+    
+    @FunctionalInterface
+    interface PriceUpdateListener {
+        void onPriceUpdate(TradingPair tradingPair, PriceData priceData);
+    }
+}
@@ -0,0 +1,94 @@
+package com.pt.crypto_trading.integration.client;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.pt.crypto_trading.domain.instrument.TradingPair;
+import com.pt.crypto_trading.integration.enums.PriceSource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+import java.util.zip.GZIPInputStream;
+
+public final class TickerPayloadParser {
+    
+    private TickerPayloadParser() {
+    }
+    
+    public static InputStream decodedBody(ClientHttpResponse response) throws IOException {
+        String contentEncoding = response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING);
+        if (contentEncoding != null && contentEncoding.toLowerCase().contains("gzip")) {
+            return new GZIPInputStream(response.getBody());
+        }
+        return response.getBody();
+    }
+    
+    // Walks the ticker array token by token; fields of unmapped symbols are skipped, never materialised
+    public static Map<TradingPair, PriceProvider.PriceData> parseTickerArray(
+            JsonParser parser,
+            Map<String, TradingPair> symbolMapping,
+            UnaryOperator<String> symbolNormalizer,
+            String bidField,
+            String askField,
+            PriceSource source) throws IOException {
+        
+        Map<TradingPair, PriceProvider.PriceData> prices = new HashMap<>();
+        
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            throw new IOException("Expected ticker array but found " + parser.currentToken());
+        }
+        
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            TradingPair tradingPair = null;
+            boolean unsubscribed = false;
+            String bid = null;
+            String ask = null;
+            
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                
+                if (unsubscribed) {
+                    parser.skipChildren();
+                } else if ("symbol".equals(field)) {
+                    tradingPair = symbolMapping.get(symbolNormalizer.apply(parser.getText()));
+                    unsubscribed = tradingPair == null;
+                } else if (bidField.equals(field)) {
+                    bid = parser.getText();
+                } else if (askField.equals(field)) {
+                    ask = parser.getText();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            
+            if (tradingPair != null && bid != null && ask != null) {
+                PriceProvider.PriceData priceData = toPriceData(bid, ask, source);
+                if (priceData != null) {
+                    prices.put(tradingPair, priceData);
+                }
+            }
+        }
+        
+        return prices;
+    }
+    
+    private static PriceProvider.PriceData toPriceData(String bid, String ask, PriceSource source) {
+        if ("null".equals(bid) || "null".equals(ask)) {
+            return null;
+        }
+        
+        BigDecimal bidPrice = new BigDecimal(bid);
+        BigDecimal askPrice = new BigDecimal(ask);
+        if (bidPrice.compareTo(askPrice) >= 0) {
+            return null;
+        }
+        
+        return new PriceProvider.PriceData(bidPrice, askPrice, source);
+    }
+}
@@ -0,0 +1,3 @@
+package com.pt.crypto_trading.ledger;
+
+record AccountKey(long userId, String currency) {}
@@ -0,0 +1,172 @@
+package com.pt.crypto_trading.ledger;
+
+import com.pt.crypto_trading.config.LedgerProperties;
+import com.pt.crypto_trading.domain.enums.TradeType;
+import com.pt.crypto_trading.domain.instrument.TradingPair;
+import com.pt.crypto_trading.dto.TradeResponseDto;
+import com.pt.crypto_trading.repository.WalletRepository;
+import com.pt.crypto_trading.service.IdempotencyCache;
+import com.pt.crypto_trading.service.InstrumentRegistry;
+import com.pt.crypto_trading.service.PositionService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Stream;
+
+// Balances live in memory, partitioned by user across single-threaded shards; a trade is acknowledged once
+// its shard has journaled it, and the database catches up through the projector
+@Component
+@ConditionalOnProperty(prefix = "app.ledger", name = "enabled", havingValue = "true")
+@Slf4j
+public class Ledger {
+    
+    static final int SHARD_BITS = 8;
+    static final int MAX_SHARDS = 1 << SHARD_BITS;
+    
+    // Ledger trade ids start at 2^50: clear of the range the trades sequence hands out and still exact in JSON
+    private static final long TRADE_ID_BASE = 1L << 50;
+    
+    private final LedgerProperties config;
+    private final WalletRepository walletRepository;
+    private final IdempotencyCache idempotencyCache;
+    private final InstrumentRegistry instrumentRegistry;
+    private final LedgerProjector projector;
+    private final List<LedgerShard> shards = new ArrayList<>();
+    
+    public Ledger(LedgerProperties config,
+                  WalletRepository walletRepository,
+                  PositionService positionService,
+                  InstrumentRegistry instrumentRegistry,
+                  IdempotencyCache idempotencyCache,
+                  JdbcTemplate jdbcTemplate,
+                  TransactionTemplate transactionTemplate,
+                  MeterRegistry meterRegistry) {
+        if (config.getShards() < 1 || config.getShards() > MAX_SHARDS) {
+            throw new IllegalStateException("app.ledger.shards must be between 1 and " + MAX_SHARDS);
+        }
+        this.config = config;
+        this.walletRepository = walletRepository;
+        this.idempotencyCache = idempotencyCache;
+        this.instrumentRegistry = instrumentRegistry;
+        this.projector = new LedgerProjector(jdbcTemplate, transactionTemplate, positionService, instrumentRegistry,
+                config.getProjection(), config.getShards(), meterRegistry);
+    }
+    
+    static long tradeId(long sequence, int shard) {
+        return TRADE_ID_BASE | (sequence << SHARD_BITS) | shard;
+    }
+    
+    static int shardOf(long tradeId) {
+        return (int) (tradeId & (MAX_SHARDS - 1));
+    }
+    
+    @PostConstruct
+    public void start() throws IOException {
+        requireMatchingDatabase();
+        
+        // The projector has to run first so recovery can hand it the journal tail
+        projector.start();
+        
+        for (int i = 0; i < config.getShards(); i++) {
+            LedgerJournal journal = new LedgerJournal(Path.of(config.getJournalDirectory(), "shard-" + i));
+            LedgerShard shard = new LedgerShard(i, journal, projector, walletRepository,
+                    config.getQueueCapacity(), config.getBatchSize(), config.getSnapshotIntervalEntries());
+            shard.recover(this::rememberRequest);
+            shards.add(shard);
+        }
+        shards.forEach(LedgerShard::start);
+        
+        log.info("Ledger started with {} shards in {}", shards.size(), config.getJournalDirectory());
+    }
+    
+    // Journaled balances belong to the users of the database they were projected into. An empty wallets table
+    // next to a non-empty journal means the schema was recreated: user ids restart at 1, and replaying would
+    // hand the old users' balances and trades to new users with the same ids
+    private void requireMatchingDatabase() throws IOException {
+        Path root = Path.of(config.getJournalDirectory());
+        if (!Files.isDirectory(root) || walletRepository.count() > 0) {
+            return;
+        }
+        
+        List<Path> shardDirectories;
+        try (Stream<Path> files = Files.list(root)) {
+            shardDirectories = files.filter(path -> path.getFileName().toString().startsWith("shard-")).toList();
+        }
+        for (Path directory : shardDirectories) {
+            if (LedgerJournal.holdsState(directory)) {
+                throw new IllegalStateException("Ledger journal " + root.toAbsolutePath() + " holds balances but the "
+                        + "wallets table is empty; the database was recreated, so move the journal aside or point "
+                        + "app.ledger.journal-directory at an empty directory");
+            }
+        }
+    }
+    
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        for (LedgerShard shard : shards) {
+            try {
+                shard.stop();
+            } catch (IOException e) {
+                log.warn("Failed to close ledger journal: {}", e.getMessage());
+            }
+        }
+        projector.stop();
+    }
+    
+    // Amounts are FixedPoint longs; the key and hash are journaled with the trade and may be null.
+    // Blocks until the trade is journaled or rejected, or the execute timeout passes
+    public LedgerEntry execute(long userId, TradingPair tradingPair, TradeType type,
+                               long quantity, long price, long totalAmount,
+                               String idempotencyKey, String requestHash) {
+        LedgerShard shard = shards.get(Math.floorMod(userId, shards.size()));
+        CompletableFuture<LedgerEntry> result = new CompletableFuture<>();
+        
+        try {
+            shard.submit(new LedgerShard.TradeCommand(userId, tradingPair, type, quantity, price, totalAmount,
+                    idempotencyKey, requestHash, result));
+            return result.get(config.getExecuteTimeoutMs(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while submitting trade to the ledger", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            // The command is already with the shard, so it may still be journaled; a keyed retry finds it then
+            throw new IllegalStateException("Ledger timed out journaling the trade; it may still settle");
+        }
+    }
+    
+    // A keyed trade the journal holds but whose idempotent_requests row has not been written yet
+    public Optional<LedgerEntry> findUnprojected(long userId, String idempotencyKey) {
+        return projector.findUnprojected(userId, idempotencyKey);
+    }
+    
+    // Recovered trades go back into the idempotency tier, so a client retrying across the restart gets its result
+    private void rememberRequest(LedgerEntry entry) {
+        if (entry.idempotencyKey() != null) {
+            TradeResponseDto response = TradeResponseDto.fromLedgerEntry(
+                    entry, instrumentRegistry.getPair(entry.tradingPair()));
+            idempotencyCache.remember(entry.userId(), entry.idempotencyKey(), entry.requestHash(), response,
+                                      entry.executedAt());
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.pt.crypto_trading.ledger;
+
+import com.pt.crypto_trading.domain.enums.TradeType;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+// One settled trade as journaled; amounts are FixedPoint longs and balances are the values after the trade,
+// so replaying or re-projecting an entry is idempotent. The idempotency key and request hash travel with the
+// trade, so a retry after a crash still finds the trade; both are null for a request without a key
+public record LedgerEntry(
+    long sequence,
+    long tradeId,
+    long userId,
+    String tradingPair,
+    TradeType type,
+    long quantity,
+    long price,
+    long totalAmount,
+    long executedAt,
+    String debitCurrency,
+    long debitBalance,
+    String creditCurrency,
+    long creditBalance,
+    String idempotencyKey,
+    String requestHash
+) {
+    
+    public LocalDateTime executedAtTime() {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(executedAt), ZoneId.systemDefault());
+    }
+    
+    void writeTo(DataOutput out) throws IOException {
+        out.writeLong(sequence);
+        out.writeLong(tradeId);
+        out.writeLong(userId);
+        out.writeUTF(tradingPair);
+        out.writeUTF(type.name());
+        out.writeLong(quantity);
+        out.writeLong(price);
+        out.writeLong(totalAmount);
+        out.writeLong(executedAt);
+        out.writeUTF(debitCurrency);
+        out.writeLong(debitBalance);
+        out.writeUTF(creditCurrency);
+        out.writeLong(creditBalance);
+        out.writeBoolean(idempotencyKey != null);
+        if (idempotencyKey != null) {
+            out.writeUTF(idempotencyKey);
+            out.writeUTF(requestHash);
+        }
+    }
+    
+    static LedgerEntry readFrom(DataInput in) throws IOException {
+        long sequence = in.readLong();
+        long tradeId = in.readLong();
+        long userId = in.readLong();
+        String tradingPair = in.readUTF();
+        TradeType type = TradeType.valueOf(in.readUTF());
+        long quantity = in.readLong();
+        long price = in.readLong();
+        long totalAmount = in.readLong();
+        long executedAt = in.readLong();
+        String debitCurrency = in.readUTF();
+        long debitBalance = in.readLong();
+        String creditCurrency = in.readUTF();
+        long creditBalance = in.readLong();
+        boolean keyed = in.readBoolean();
+        String idempotencyKey = keyed ? in.readUTF() : null;
+        String requestHash = keyed ? in.readUTF() : null;
+        
+        return new LedgerEntry(sequence, tradeId, userId, tradingPair, type, quantity, price, totalAmount, executedAt,
+                debitCurrency, debitBalance, creditCurrency, creditBalance, idempotencyKey, requestHash);
+    }
+}
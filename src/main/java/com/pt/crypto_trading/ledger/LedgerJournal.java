@@ -0,0 +1,245 @@
+package com.pt.crypto_trading.ledger;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+// Write-ahead journal of one shard: journal-<first sequence>.log segments of [length][crc][entry] records,
+// plus snapshot-<sequence>.bin files holding every account balance as of that sequence
+@Slf4j
+final class LedgerJournal implements Closeable {
+    
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".bin";
+    private static final int RECORD_HEADER_BYTES = Integer.BYTES * 2;
+    private static final int MAX_RECORD_BYTES = 4096;
+    
+    private final Path directory;
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(64 * 1024);
+    private final DataOutputStream bufferOut = new DataOutputStream(buffer);
+    private FileChannel segment;
+    
+    LedgerJournal(Path directory) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+    }
+    
+    record Snapshot(long sequence, Map<AccountKey, Long> balances) {}
+    
+    // Whether a shard directory holds a snapshot or any journaled bytes
+    static boolean holdsState(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return false;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.anyMatch(path -> {
+                String name = path.getFileName().toString();
+                if (name.startsWith(SNAPSHOT_PREFIX) && name.endsWith(SNAPSHOT_SUFFIX)) {
+                    return true;
+                }
+                try {
+                    return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX) && Files.size(path) > 0;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+    
+    Snapshot loadSnapshot() throws IOException {
+        List<Long> snapshots = sequences(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+        if (snapshots.isEmpty()) {
+            return new Snapshot(0, Map.of());
+        }
+        
+        long sequence = snapshots.get(snapshots.size() - 1);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                Files.newInputStream(file(SNAPSHOT_PREFIX, sequence, SNAPSHOT_SUFFIX))))) {
+            int count = in.readInt();
+            Map<AccountKey, Long> balances = new HashMap<>(count * 2);
+            for (int i = 0; i < count; i++) {
+                balances.put(new AccountKey(in.readLong(), in.readUTF()), in.readLong());
+            }
+            return new Snapshot(sequence, balances);
+        }
+    }
+    
+    // Replays every retained entry in order; a torn record at the tail of the last segment is cut off
+    long replay(Consumer<LedgerEntry> consumer) throws IOException {
+        List<Long> segments = sequences(SEGMENT_PREFIX, SEGMENT_SUFFIX);
+        long lastSequence = 0;
+        
+        for (int i = 0; i < segments.size(); i++) {
+            Path path = file(SEGMENT_PREFIX, segments.get(i), SEGMENT_SUFFIX);
+            boolean last = i == segments.size() - 1;
+            long validBytes = 0;
+            
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+                byte[] payload;
+                while ((payload = readPayload(in)) != null) {
+                    LedgerEntry entry = LedgerEntry.readFrom(new DataInputStream(new ByteArrayInputStream(payload)));
+                    consumer.accept(entry);
+                    lastSequence = entry.sequence();
+                    validBytes += RECORD_HEADER_BYTES + payload.length;
+                }
+            }
+            
+            long size = Files.size(path);
+            if (validBytes < size) {
+                if (!last) {
+                    throw new IllegalStateException("Corrupt ledger journal segment " + path);
+                }
+                log.warn("Truncating {} torn bytes from ledger journal {}", size - validBytes, path);
+                try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                    channel.truncate(validBytes);
+                }
+            }
+        }
+        
+        return lastSequence;
+    }
+    
+    void openForAppend(long nextSequence) throws IOException {
+        List<Long> segments = sequences(SEGMENT_PREFIX, SEGMENT_SUFFIX);
+        long start = segments.isEmpty() ? nextSequence : segments.get(segments.size() - 1);
+        segment = FileChannel.open(file(SEGMENT_PREFIX, start, SEGMENT_SUFFIX),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+    
+    // The whole batch goes out in one write and one fsync; callers acknowledge only after this returns
+    void append(List<LedgerEntry> entries) throws IOException {
+        buffer.reset();
+        ByteArrayOutputStream record = new ByteArrayOutputStream(128);
+        DataOutputStream recordOut = new DataOutputStream(record);
+        CRC32 crc = new CRC32();
+        
+        for (LedgerEntry entry : entries) {
+            record.reset();
+            entry.writeTo(recordOut);
+            crc.reset();
+            crc.update(record.toByteArray());
+            bufferOut.writeInt(record.size());
+            bufferOut.writeInt((int) crc.getValue());
+            record.writeTo(bufferOut);
+        }
+        
+        long start = segment.size();
+        try {
+            ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+            while (bytes.hasRemaining()) {
+                segment.write(bytes);
+            }
+            segment.force(false);
+        } catch (IOException e) {
+            // A half-written batch would hide every later record behind a torn one on replay
+            segment.truncate(start);
+            throw e;
+        }
+    }
+    
+    // Snapshots are written aside and renamed into place, then a fresh segment starts after them
+    void writeSnapshot(long sequence, Map<AccountKey, Long> balances) throws IOException {
+        Path target = file(SNAPSHOT_PREFIX, sequence, SNAPSHOT_SUFFIX);
+        Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        
+        try (OutputStream stream = Files.newOutputStream(temporary);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream))) {
+            out.writeInt(balances.size());
+            for (Map.Entry<AccountKey, Long> balance : balances.entrySet()) {
+                out.writeLong(balance.getKey().userId());
+                out.writeUTF(balance.getKey().currency());
+                out.writeLong(balance.getValue());
+            }
+        }
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        
+        for (Long older : sequences(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX)) {
+            if (older < sequence) {
+                Files.deleteIfExists(file(SNAPSHOT_PREFIX, older, SNAPSHOT_SUFFIX));
+            }
+        }
+        
+        segment.close();
+        segment = FileChannel.open(file(SEGMENT_PREFIX, sequence + 1, SEGMENT_SUFFIX),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+    
+    // Drops sealed segments whose entries are all at or below the given sequence
+    void deleteSegmentsThrough(long sequence) throws IOException {
+        List<Long> segments = sequences(SEGMENT_PREFIX, SEGMENT_SUFFIX);
+        for (int i = 0; i < segments.size() - 1; i++) {
+            if (segments.get(i + 1) - 1 <= sequence) {
+                Files.deleteIfExists(file(SEGMENT_PREFIX, segments.get(i), SEGMENT_SUFFIX));
+            }
+        }
+    }
+    
+    @Override
+    public void close() throws IOException {
+        if (segment != null) {
+            segment.close();
+        }
+    }
+    
+    // Null at the end of the segment or at the first record that is incomplete or fails its checksum
+    private byte[] readPayload(DataInputStream in) throws IOException {
+        try {
+            int length = in.readInt();
+            int checksum = in.readInt();
+            if (length <= 0 || length > MAX_RECORD_BYTES) {
+                return null;
+            }
+            
+            byte[] payload = in.readNBytes(length);
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            return payload.length == length && (int) crc.getValue() == checksum ? payload : null;
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+    
+    private List<Long> sequences(String prefix, String suffix) throws IOException {
+        List<Long> sequences = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(prefix) && name.endsWith(suffix))
+                    .forEach(name -> sequences.add(Long.parseLong(
+                            name.substring(prefix.length(), name.length() - suffix.length()))));
+        }
+        sequences.sort(null);
+        return sequences;
+    }
+    
+    private Path file(String prefix, long sequence, String suffix) {
+        return directory.resolve(String.format("%s%020d%s", prefix, sequence, suffix));
+    }
+}
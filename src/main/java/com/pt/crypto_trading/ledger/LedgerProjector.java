@@ -0,0 +1,222 @@
+package com.pt.crypto_trading.ledger;
+
+import com.pt.crypto_trading.config.LedgerProperties;
+import com.pt.crypto_trading.domain.entity.IdempotentRequest;
+import com.pt.crypto_trading.domain.enums.TradeStatus;
+import com.pt.crypto_trading.domain.money.FixedPoint;
+import com.pt.crypto_trading.service.InstrumentRegistry;
+import com.pt.crypto_trading.service.PositionService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Copies journaled entries into the trades, wallets and positions tables in the background; those tables
+// become a read model of the ledger. Rows are written by id and absolute balance, so replays are harmless;
+// positions are incremental, so they only move for entries the trades table does not hold yet
+@Slf4j
+final class LedgerProjector {
+    
+    private static final String MERGE_TRADE =
+            "MERGE INTO trades (id, user_id, trading_pair, type, quantity, price, total_amount, status, created_at, executed_at) " +
+            "KEY (id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_WALLET =
+            "UPDATE wallets SET balance = ?, updated_at = ? WHERE user_id = ? AND currency = ?";
+    // A plain insert, so the unique index still rejects a second trade under a key another one holds
+    private static final String INSERT_IDEMPOTENT_REQUEST =
+            "INSERT INTO idempotent_requests (idempotency_key, user_id, trade_id, request_hash, created_at, expires_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?)";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PositionService positionService;
+    private final InstrumentRegistry instrumentRegistry;
+    private final LedgerProperties.Projection config;
+    private final BlockingQueue<LedgerEntry> queue;
+    
+    // Acknowledged keyed trades whose idempotent_requests row is not written yet, by user and key
+    private final Map<RequestKey, LedgerEntry> unprojected = new ConcurrentHashMap<>();
+    private final AtomicLongArray projectedSequence;
+    
+    private final Counter projectedCounter;
+    private final Counter retriedCounter;
+    private final Timer flushTimer;
+    
+    private volatile boolean running;
+    private Thread thread;
+    
+    LedgerProjector(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                    PositionService positionService, InstrumentRegistry instrumentRegistry,
+                    LedgerProperties.Projection config, int shards, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.positionService = positionService;
+        this.instrumentRegistry = instrumentRegistry;
+        this.config = config;
+        this.queue = new ArrayBlockingQueue<>(config.getQueueCapacity());
+        this.projectedSequence = new AtomicLongArray(shards);
+        
+        Gauge.builder("ledger.projection.queue.size", queue, BlockingQueue::size)
+                .description("Journaled trades waiting to be projected to the database")
+                .register(meterRegistry);
+        this.projectedCounter = meterRegistry.counter("ledger.projection.entries", "outcome", "projected");
+        this.retriedCounter = meterRegistry.counter("ledger.projection.entries", "outcome", "retried");
+        this.flushTimer = meterRegistry.timer("ledger.projection.flush");
+    }
+    
+    void start() {
+        running = true;
+        thread = new Thread(this::run, "ledger-projector");
+        thread.setDaemon(true);
+        thread.start();
+    }
+    
+    void stop() throws InterruptedException {
+        running = false;
+        thread.join(config.getFlushIntervalMs() * 2 + 10_000);
+    }
+    
+    // Blocks when the database falls behind, which in turn slows the shards down
+    void enqueue(LedgerEntry entry) {
+        if (entry.idempotencyKey() != null) {
+            unprojected.put(new RequestKey(entry.userId(), entry.idempotencyKey()), entry);
+        }
+        try {
+            queue.put(entry);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing ledger projection", e);
+        }
+    }
+    
+    Optional<LedgerEntry> findUnprojected(long userId, String idempotencyKey) {
+        return Optional.ofNullable(unprojected.get(new RequestKey(userId, idempotencyKey)));
+    }
+    
+    long projectedSequence(int shard) {
+        return projectedSequence.get(shard);
+    }
+    
+    private void run() {
+        List<LedgerEntry> batch = new ArrayList<>(config.getBatchSize());
+        
+        while (running || !queue.isEmpty() || !batch.isEmpty()) {
+            try {
+                LedgerEntry next = queue.poll(config.getFlushIntervalMs(), TimeUnit.MILLISECONDS);
+                if (next != null) {
+                    batch.add(next);
+                    queue.drainTo(batch, config.getBatchSize() - batch.size());
+                }
+                if (!batch.isEmpty()) {
+                    flush(batch);
+                    batch.clear();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                // The journal is the record of truth, so a failed batch is retried rather than dropped
+                retriedCounter.increment(batch.size());
+                log.error("Failed to project {} ledger entries, retrying: {}", batch.size(), e.getMessage());
+                if (!running) {
+                    break;
+                }
+                try {
+                    Thread.sleep(config.getRetryBackoffMs());
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+    }
+    
+    private void flush(List<LedgerEntry> batch) {
+        List<Object[]> trades = new ArrayList<>(batch.size());
+        List<Object[]> wallets = new ArrayList<>(batch.size() * 2);
+        
+        for (LedgerEntry entry : batch) {
+            Timestamp executedAt = Timestamp.valueOf(entry.executedAtTime());
+            trades.add(new Object[] {
+                    entry.tradeId(),
+                    entry.userId(),
+                    entry.tradingPair(),
+                    entry.type().name(),
+                    FixedPoint.toBigDecimal(entry.quantity()),
+                    FixedPoint.toBigDecimal(entry.price()),
+                    FixedPoint.toBigDecimal(entry.totalAmount()),
+                    TradeStatus.COMPLETED.name(),
+                    executedAt,
+                    executedAt});
+            wallets.add(new Object[] {
+                    FixedPoint.toBigDecimal(entry.debitBalance()), executedAt, entry.userId(), entry.debitCurrency()});
+            wallets.add(new Object[] {
+                    FixedPoint.toBigDecimal(entry.creditBalance()), executedAt, entry.userId(), entry.creditCurrency()});
+        }
+        
+        flushTimer.record(() -> transactionTemplate.executeWithoutResult(status -> {
+            Set<Long> projected = projectedTradeIds(batch);
+            
+            // A replayed entry's key row was committed with its trade row, so only new entries insert one
+            List<PositionService.Fill> fills = new ArrayList<>(batch.size());
+            List<Object[]> requests = new ArrayList<>();
+            for (LedgerEntry entry : batch) {
+                if (projected.contains(entry.tradeId())) {
+                    continue;
+                }
+                fills.add(new PositionService.Fill(entry.userId(), instrumentRegistry.getPair(entry.tradingPair()),
+                        entry.type(), entry.quantity(), entry.price()));
+                if (entry.idempotencyKey() != null) {
+                    requests.add(new Object[] {
+                            entry.idempotencyKey(),
+                            entry.userId(),
+                            entry.tradeId(),
+                            entry.requestHash(),
+                            Timestamp.valueOf(entry.executedAtTime()),
+                            Timestamp.valueOf(entry.executedAtTime().plus(IdempotentRequest.TTL))});
+                }
+            }
+            
+            jdbcTemplate.batchUpdate(MERGE_TRADE, trades);
+            jdbcTemplate.batchUpdate(UPDATE_WALLET, wallets);
+            jdbcTemplate.batchUpdate(INSERT_IDEMPOTENT_REQUEST, requests);
+            positionService.applyTrades(fills);
+        }));
+        
+        for (LedgerEntry entry : batch) {
+            projectedSequence.accumulateAndGet(Ledger.shardOf(entry.tradeId()), entry.sequence(), Math::max);
+            if (entry.idempotencyKey() != null) {
+                unprojected.remove(new RequestKey(entry.userId(), entry.idempotencyKey()), entry);
+            }
+        }
+        projectedCounter.increment(batch.size());
+        log.debug("Projected {} ledger entries", batch.size());
+    }
+    
+    // Entries already in the trades table are replays from journal recovery
+    private Set<Long> projectedTradeIds(List<LedgerEntry> batch) {
+        String placeholders = String.join(", ", Collections.nCopies(batch.size(), "?"));
+        Object[] tradeIds = batch.stream().map(LedgerEntry::tradeId).toArray();
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT id FROM trades WHERE id IN (" + placeholders + ")", Long.class, tradeIds));
+    }
+    
+    private record RequestKey(long userId, String idempotencyKey) {}
+}
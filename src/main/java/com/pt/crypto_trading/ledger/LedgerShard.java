@@ -0,0 +1,262 @@
+package com.pt.crypto_trading.ledger;
+
+import com.pt.crypto_trading.domain.entity.Wallet;
+import com.pt.crypto_trading.domain.enums.TradeType;
+import com.pt.crypto_trading.domain.instrument.Currency;
+import com.pt.crypto_trading.domain.instrument.TradingPair;
+import com.pt.crypto_trading.domain.money.FixedPoint;
+import com.pt.crypto_trading.exception.InsufficientBalanceException;
+import com.pt.crypto_trading.exception.ResourceNotFoundException;
+import com.pt.crypto_trading.repository.WalletRepository;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// Owns the balances of every user hashed to it; one thread applies trades in order, so nothing here is locked
+@Slf4j
+final class LedgerShard {
+    
+    static final int MAX_IDEMPOTENCY_KEY_LENGTH = 64;
+    
+    private final int index;
+    private final LedgerJournal journal;
+    private final LedgerProjector projector;
+    private final WalletRepository walletRepository;
+    private final int batchSize;
+    private final long snapshotIntervalEntries;
+    private final BlockingQueue<TradeCommand> commands;
+    
+    // Only touched by the shard thread once started
+    private final Map<AccountKey, Account> accounts = new HashMap<>();
+    private long lastSequence;
+    private long snapshotSequence;
+    
+    private volatile boolean running;
+    private Thread thread;
+    
+    LedgerShard(int index, LedgerJournal journal, LedgerProjector projector, WalletRepository walletRepository,
+                int queueCapacity, int batchSize, long snapshotIntervalEntries) {
+        this.index = index;
+        this.journal = journal;
+        this.projector = projector;
+        this.walletRepository = walletRepository;
+        this.batchSize = batchSize;
+        this.snapshotIntervalEntries = snapshotIntervalEntries;
+        this.commands = new ArrayBlockingQueue<>(queueCapacity);
+    }
+    
+    // Last snapshot plus the journal after it; every retained entry is handed to the projector again,
+    // and to the listener, which rebuilds anything else kept in memory
+    void recover(Consumer<LedgerEntry> listener) throws IOException {
+        LedgerJournal.Snapshot snapshot = journal.loadSnapshot();
+        snapshot.balances().forEach((key, balance) -> accounts.put(key, new Account(balance)));
+        snapshotSequence = snapshot.sequence();
+        lastSequence = snapshot.sequence();
+        
+        long replayed = journal.replay(entry -> {
+            if (entry.sequence() > snapshotSequence) {
+                accounts.put(new AccountKey(entry.userId(), entry.debitCurrency()), new Account(entry.debitBalance()));
+                accounts.put(new AccountKey(entry.userId(), entry.creditCurrency()), new Account(entry.creditBalance()));
+            }
+            projector.enqueue(entry);
+            listener.accept(entry);
+        });
+        lastSequence = Math.max(lastSequence, replayed);
+        
+        journal.openForAppend(lastSequence + 1);
+        log.info("Ledger shard {} recovered {} accounts up to sequence {}", index, accounts.size(), lastSequence);
+    }
+    
+    void start() {
+        running = true;
+        thread = new Thread(this::run, "ledger-shard-" + index);
+        thread.setDaemon(true);
+        thread.start();
+    }
+    
+    void stop() throws InterruptedException, IOException {
+        running = false;
+        thread.join(10_000);
+        journal.close();
+    }
+    
+    CompletableFuture<LedgerEntry> submit(TradeCommand command) throws InterruptedException {
+        if (!running) {
+            throw new IllegalStateException("Ledger is not running");
+        }
+        commands.put(command);
+        return command.result();
+    }
+    
+    private void run() {
+        List<TradeCommand> batch = new ArrayList<>(batchSize);
+        
+        while (running || !commands.isEmpty()) {
+            try {
+                TradeCommand next = commands.poll(100, TimeUnit.MILLISECONDS);
+                if (next == null) {
+                    continue;
+                }
+                batch.add(next);
+                commands.drainTo(batch, batchSize - 1);
+                process(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.error("Ledger shard {} loop failed", index, e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+    
+    private void process(List<TradeCommand> batch) throws IOException {
+        List<LedgerEntry> entries = new ArrayList<>(batch.size());
+        List<TradeCommand> applied = new ArrayList<>(batch.size());
+        List<Undo> undo = new ArrayList<>(batch.size() * 2);
+        
+        for (TradeCommand command : batch) {
+            try {
+                entries.add(apply(command, undo));
+                applied.add(command);
+            } catch (RuntimeException e) {
+                command.result().completeExceptionally(e);
+            }
+        }
+        
+        if (entries.isEmpty()) {
+            return;
+        }
+        
+        try {
+            journal.append(entries);
+        } catch (IOException e) {
+            // Nothing was acknowledged, so memory goes back to what the journal holds
+            for (int i = undo.size() - 1; i >= 0; i--) {
+                undo.get(i).account().balance = undo.get(i).balance();
+            }
+            lastSequence -= entries.size();
+            IllegalStateException failure = new IllegalStateException("Ledger journal write failed", e);
+            applied.forEach(command -> command.result().completeExceptionally(failure));
+            return;
+        }
+        
+        for (int i = 0; i < entries.size(); i++) {
+            applied.get(i).result().complete(entries.get(i));
+            projector.enqueue(entries.get(i));
+        }
+        
+        if (lastSequence - snapshotSequence >= snapshotIntervalEntries) {
+            snapshot();
+        }
+    }
+    
+    private LedgerEntry apply(TradeCommand command, List<Undo> undo) {
+        TradingPair tradingPair = command.tradingPair();
+        boolean buy = command.type() == TradeType.BUY;
+        Currency debitCurrency = buy ? tradingPair.getQuoteCurrency() : tradingPair.getBaseCurrency();
+        Currency creditCurrency = buy ? tradingPair.getBaseCurrency() : tradingPair.getQuoteCurrency();
+        long debitAmount = buy ? command.totalAmount() : command.quantity();
+        long creditAmount = buy ? command.quantity() : command.totalAmount();
+        
+        // Keeps every record well below the journal's record size limit
+        if (command.idempotencyKey() != null && command.idempotencyKey().length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            throw new IllegalArgumentException(
+                "Idempotency key must not exceed " + MAX_IDEMPOTENCY_KEY_LENGTH + " characters");
+        }
+        
+        Account debit = account(command.userId(), debitCurrency);
+        Account credit = account(command.userId(), creditCurrency);
+        if (debit.balance < debitAmount) {
+            throw new InsufficientBalanceException(String.format("Insufficient %s balance. Required: %s",
+                    debitCurrency, FixedPoint.toBigDecimal(debitAmount)));
+        }
+        
+        long debitBalance = FixedPoint.subtract(debit.balance, debitAmount);
+        long creditBalance = FixedPoint.add(credit.balance, creditAmount);
+        undo.add(new Undo(debit, debit.balance));
+        undo.add(new Undo(credit, credit.balance));
+        debit.balance = debitBalance;
+        credit.balance = creditBalance;
+        
+        long sequence = ++lastSequence;
+        return new LedgerEntry(
+                sequence,
+                Ledger.tradeId(sequence, index),
+                command.userId(),
+                tradingPair.getSymbol(),
+                command.type(),
+                command.quantity(),
+                command.price(),
+                command.totalAmount(),
+                System.currentTimeMillis(),
+                debitCurrency.getCode(),
+                debitBalance,
+                creditCurrency.getCode(),
+                creditBalance,
+                command.idempotencyKey(),
+                command.requestHash());
+    }
+    
+    // Accounts the ledger has never touched are still authoritative in the wallets table
+    private Account account(long userId, Currency currency) {
+        AccountKey key = new AccountKey(userId, currency.getCode());
+        Account account = accounts.get(key);
+        if (account == null) {
+            Wallet wallet = walletRepository.findByUserIdAndCurrency(userId, currency)
+                    .orElseThrow(() -> new ResourceNotFoundException(
+                        String.format("Wallet not found for user %d and currency %s", userId, currency)));
+            account = new Account(wallet.getScaledBalance());
+            accounts.put(key, account);
+        }
+        return account;
+    }
+    
+    private void snapshot() {
+        try {
+            Map<AccountKey, Long> balances = new HashMap<>(accounts.size() * 2);
+            accounts.forEach((key, account) -> balances.put(key, account.balance));
+            journal.writeSnapshot(lastSequence, balances);
+            snapshotSequence = lastSequence;
+            
+            // Segments are only dropped once both the snapshot and the projection are past them
+            journal.deleteSegmentsThrough(Math.min(snapshotSequence, projector.projectedSequence(index)));
+            log.info("Ledger shard {} snapshot at sequence {} with {} accounts", index, snapshotSequence, balances.size());
+        } catch (IOException e) {
+            // The journal still holds everything, so a failed snapshot only delays cleanup
+            log.error("Ledger shard {} snapshot failed: {}", index, e.getMessage());
+        }
+    }
+    
+    record TradeCommand(
+        long userId,
+        TradingPair tradingPair,
+        TradeType type,
+        long quantity,
+        long price,
+        long totalAmount,
+        String idempotencyKey,
+        String requestHash,
+        CompletableFuture<LedgerEntry> result
+    ) {}
+    
+    private static final class Account {
+        private long balance;
+        
+        private Account(long balance) {
+            this.balance = balance;
+        }
+    }
+    
+    private record Undo(Account account, long balance) {}
+}
@@ -1,7 +1,7 @@
 package com.pt.crypto_trading.repository;
 
 import com.pt.crypto_trading.domain.entity.BestPrice;
-import com.pt.crypto_trading.domain.enums.TradingPair;
+import com.pt.crypto_trading.domain.instrument.TradingPair;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -13,7 +13,7 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface BestPriceRepository extends JpaRepository<BestPrice, Long> {
+public interface BestPriceRepository extends JpaRepository<BestPrice, Long>, BestPriceRepositoryCustom {
     
     Optional<BestPrice> findByTradingPair(TradingPair tradingPair);
     
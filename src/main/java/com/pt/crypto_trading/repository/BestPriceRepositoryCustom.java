@@ -0,0 +1,9 @@
+package com.pt.crypto_trading.repository;
+
+import com.pt.crypto_trading.domain.entity.BestPrice;
+
+import java.util.Collection;
+
+public interface BestPriceRepositoryCustom {
+    int upsertAll(Collection<BestPrice> bestPrices);
+}
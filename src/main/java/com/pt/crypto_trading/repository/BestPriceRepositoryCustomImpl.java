@@ -0,0 +1,82 @@
+package com.pt.crypto_trading.repository;
+
+import com.pt.crypto_trading.domain.entity.BestPrice;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class BestPriceRepositoryCustomImpl implements BestPriceRepositoryCustom {
+    
+    // Keeps a single statement's bind parameter count well inside driver limits
+    private static final int MAX_ROWS_PER_STATEMENT = 500;
+    
+    private static final String MERGE_HEAD =
+            "MERGE INTO best_prices t USING (VALUES ";
+    
+    private static final String VALUES_ROW =
+            "(CAST(? AS VARCHAR(255)), CAST(? AS DECIMAL(18,8)), CAST(? AS DECIMAL(18,8)), " +
+            "CAST(? AS VARCHAR(20)), CAST(? AS VARCHAR(20)), CAST(? AS TIMESTAMP))";
+    
+    // Newest quote wins: a matched row is only touched when the incoming quote is not older and actually differs
+    private static final String MERGE_TAIL =
+            ") AS s(trading_pair, best_bid_price, best_ask_price, bid_source, ask_source, updated_at) " +
+            "ON t.trading_pair = s.trading_pair " +
+            "WHEN MATCHED AND t.updated_at <= s.updated_at AND (" +
+            "t.best_bid_price IS DISTINCT FROM s.best_bid_price OR " +
+            "t.best_ask_price IS DISTINCT FROM s.best_ask_price OR " +
+            "t.bid_source IS DISTINCT FROM s.bid_source OR " +
+            "t.ask_source IS DISTINCT FROM s.ask_source) THEN UPDATE SET " +
+            "best_bid_price = s.best_bid_price, best_ask_price = s.best_ask_price, " +
+            "bid_source = s.bid_source, ask_source = s.ask_source, " +
+            "updated_at = s.updated_at, version = t.version + 1 " +
+            "WHEN NOT MATCHED THEN INSERT " +
+            "(trading_pair, best_bid_price, best_ask_price, bid_source, ask_source, updated_at, version) " +
+            "VALUES (s.trading_pair, s.best_bid_price, s.best_ask_price, s.bid_source, s.ask_source, s.updated_at, 0)";
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    @Override
+    public int upsertAll(Collection<BestPrice> bestPrices) {
+        List<BestPrice> rows = new ArrayList<>(bestPrices);
+        int affected = 0;
+        
+        for (int from = 0; from < rows.size(); from += MAX_ROWS_PER_STATEMENT) {
+            List<BestPrice> chunk = rows.subList(from, Math.min(rows.size(), from + MAX_ROWS_PER_STATEMENT));
+            affected += jdbcTemplate.update(mergeStatement(chunk.size()), bindParameters(chunk));
+        }
+        
+        return affected;
+    }
+    
+    private String mergeStatement(int rowCount) {
+        StringBuilder sql = new StringBuilder(MERGE_HEAD);
+        for (int i = 0; i < rowCount; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(VALUES_ROW);
+        }
+        return sql.append(MERGE_TAIL).toString();
+    }
+    
+    private Object[] bindParameters(List<BestPrice> chunk) {
+        Object[] parameters = new Object[chunk.size() * 6];
+        int index = 0;
+        
+        for (BestPrice bestPrice : chunk) {
+            parameters[index++] = bestPrice.getTradingPair().getSymbol();
+            parameters[index++] = bestPrice.getBestBidPrice();
+            parameters[index++] = bestPrice.getBestAskPrice();
+            parameters[index++] = bestPrice.getBidSource() != null ? bestPrice.getBidSource().name() : null;
+            parameters[index++] = bestPrice.getAskSource() != null ? bestPrice.getAskSource().name() : null;
+            parameters[index++] = Timestamp.valueOf(bestPrice.getUpdatedAt());
+        }
+        
+        return parameters;
+    }
+}
@@ -0,0 +1,20 @@
+package com.pt.crypto_trading.repository;
+
+import com.pt.crypto_trading.domain.entity.Position;
+import com.pt.crypto_trading.domain.instrument.TradingPair;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PositionRepository extends JpaRepository<Position, Long> {
+    
+    List<Position> findByUserIdOrderByTradingPair(Long userId);
+    
+    Optional<Position> findByUserIdAndTradingPair(Long userId, TradingPair tradingPair);
+    
+    List<Position> findByUserIdIn(Collection<Long> userIds);
+}
@@ -0,0 +1,19 @@
+package com.pt.crypto_trading.repository;
+
+import com.pt.crypto_trading.domain.entity.PriceCandle;
+import com.pt.crypto_trading.domain.enums.CandleInterval;
+import com.pt.crypto_trading.domain.instrument.TradingPair;
+import com.pt.crypto_trading.integration.enums.PriceSource;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface PriceCandleRepository extends JpaRepository<PriceCandle, Long>, PriceCandleRepositoryCustom {
+    
+    // A null source matches the consolidated best-price series
+    List<PriceCandle> findByTradingPairAndSourceAndIntervalOrderByOpenTimeDesc(
+            TradingPair tradingPair, PriceSource source, CandleInterval interval, Pageable pageable);
+}
@@ -0,0 +1,9 @@
+package com.pt.crypto_trading.repository;
+
+import com.pt.crypto_trading.domain.entity.PriceCandle;
+
+import java.util.Collection;
+
+public interface PriceCandleRepositoryCustom {
+    void insertAll(Collection<PriceCandle> candles);
+}
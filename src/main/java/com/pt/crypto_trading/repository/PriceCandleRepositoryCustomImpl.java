@@ -0,0 +1,51 @@
+package com.pt.crypto_trading.repository;
+
+import com.pt.crypto_trading.domain.entity.PriceCandle;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class PriceCandleRepositoryCustomImpl implements PriceCandleRepositoryCustom {
+    
+    private static final String INSERT_CANDLE =
+            "INSERT INTO price_candles (trading_pair, source, candle_interval, open_time, close_time, " +
+            "open_price, high_price, low_price, close_price, bid_close, ask_close, spread_avg, spread_max, tick_count) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    // One JDBC batch; the IDENTITY key keeps Hibernate from batching these inserts. All or nothing, so a
+    // failed batch can be queued again without leaving half of it behind
+    @Override
+    @Transactional
+    public void insertAll(Collection<PriceCandle> candles) {
+        List<Object[]> rows = new ArrayList<>(candles.size());
+        for (PriceCandle candle : candles) {
+            rows.add(new Object[] {
+                    candle.getTradingPair().getSymbol(),
+                    candle.getSource() != null ? candle.getSource().name() : null,
+                    candle.getInterval().name(),
+                    Timestamp.valueOf(candle.getOpenTime()),
+                    Timestamp.valueOf(candle.getCloseTime()),
+                    candle.getOpen(),
+                    candle.getHigh(),
+                    candle.getLow(),
+                    candle.getClose(),
+                    candle.getBidClose(),
+                    candle.getAskClose(),
+                    candle.getSpreadAvg(),
+                    candle.getSpreadMax(),
+                    candle.getTickCount()});
+        }
+        
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_CANDLE, rows);
+        }
+    }
+}
@@ -1,7 +1,7 @@
 package com.pt.crypto_trading.repository;
 
 import com.pt.crypto_trading.domain.entity.Trade;
-import com.pt.crypto_trading.domain.enums.TradingPair;
+import com.pt.crypto_trading.domain.instrument.TradingPair;
 import com.pt.crypto_trading.domain.enums.TradeStatus;
 import com.pt.crypto_trading.domain.enums.TradeType;
 import org.springframework.data.domain.Page;
@@ -11,12 +11,11 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
-public interface TradeRepository extends JpaRepository<Trade, Long> {
+public interface TradeRepository extends JpaRepository<Trade, Long>, TradeRepositoryCustom {
     
     Page<Trade> findByUserIdOrderByCreatedAtDesc(Long userId, Pageable pageable);
     
@@ -29,18 +28,6 @@ public interface TradeRepository extends JpaRepository<Trade, Long> {
     @Query("SELECT t FROM Trade t WHERE t.userId = :userId AND t.createdAt >= :fromDate ORDER BY t.createdAt DESC")
     List<Trade> findByUserIdAndCreatedAtAfter(@Param("userId") Long userId, @Param("fromDate") LocalDateTime fromDate);
     
-    @Query("SELECT t FROM Trade t WHERE t.userId = :userId AND t.tradingPair = :tradingPair AND t.type = :tradeType ORDER BY t.createdAt DESC")
-    List<Trade> findByUserIdAndTradingPairAndTradeType(
-            @Param("userId") Long userId, 
-            @Param("tradingPair") TradingPair tradingPair, 
-            @Param("tradeType") TradeType tradeType);
-    
-    @Query("SELECT SUM(t.quantity) FROM Trade t WHERE t.userId = :userId AND t.tradingPair = :tradingPair AND t.type = :tradeType AND t.status = 'COMPLETED'")
-    BigDecimal sumQuantityByUserAndTradingPairAndTradeType(
-            @Param("userId") Long userId, 
-            @Param("tradingPair") TradingPair tradingPair, 
-            @Param("tradeType") TradeType tradeType);
-    
     @Query("SELECT COUNT(t) FROM Trade t WHERE t.userId = :userId AND t.status = :status")
     long countByUserIdAndStatus(@Param("userId") Long userId, @Param("status") TradeStatus status);
     
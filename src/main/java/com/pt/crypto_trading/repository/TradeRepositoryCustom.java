@@ -0,0 +1,11 @@
+package com.pt.crypto_trading.repository;
+
+import com.pt.crypto_trading.domain.entity.Trade;
+import com.pt.crypto_trading.dto.TradeHistoryFilter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface TradeRepositoryCustom {
+    List<Trade> findHistoryPage(Long userId, TradeHistoryFilter filter, LocalDateTime beforeCreatedAt, Long beforeId, int limit);
+}
@@ -0,0 +1,68 @@
+package com.pt.crypto_trading.repository;
+
+import com.pt.crypto_trading.domain.entity.Trade;
+import com.pt.crypto_trading.dto.TradeHistoryFilter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class TradeRepositoryCustomImpl implements TradeRepositoryCustom {
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    // Keyset page on (user_id, created_at, id), newest first: seeks straight to the cursor in idx_trade_user_created
+    // and reads limit rows, however deep the page; only the filters actually set are added to the query.
+    // Ids are not in time order (ledger ids sit above 2^50, database ids below), so id only breaks ties
+    @Override
+    public List<Trade> findHistoryPage(Long userId, TradeHistoryFilter filter, LocalDateTime beforeCreatedAt,
+                                       Long beforeId, int limit) {
+        StringBuilder jpql = new StringBuilder("SELECT t FROM Trade t WHERE t.userId = :userId");
+        if (beforeCreatedAt != null) {
+            jpql.append(" AND (t.createdAt < :beforeCreatedAt OR (t.createdAt = :beforeCreatedAt AND t.id < :beforeId))");
+        }
+        if (filter.getTradingPair() != null) {
+            jpql.append(" AND t.tradingPair = :tradingPair");
+        }
+        if (filter.getType() != null) {
+            jpql.append(" AND t.type = :type");
+        }
+        if (filter.getStatus() != null) {
+            jpql.append(" AND t.status = :status");
+        }
+        if (filter.getFrom() != null) {
+            jpql.append(" AND t.createdAt >= :from");
+        }
+        if (filter.getTo() != null) {
+            jpql.append(" AND t.createdAt < :to");
+        }
+        jpql.append(" ORDER BY t.createdAt DESC, t.id DESC");
+        
+        TypedQuery<Trade> query = entityManager.createQuery(jpql.toString(), Trade.class)
+                .setParameter("userId", userId)
+                .setMaxResults(limit);
+        if (beforeCreatedAt != null) {
+            query.setParameter("beforeCreatedAt", beforeCreatedAt);
+            query.setParameter("beforeId", beforeId);
+        }
+        if (filter.getTradingPair() != null) {
+            query.setParameter("tradingPair", filter.getTradingPair());
+        }
+        if (filter.getType() != null) {
+            query.setParameter("type", filter.getType());
+        }
+        if (filter.getStatus() != null) {
+            query.setParameter("status", filter.getStatus());
+        }
+        if (filter.getFrom() != null) {
+            query.setParameter("from", filter.getFrom());
+        }
+        if (filter.getTo() != null) {
+            query.setParameter("to", filter.getTo());
+        }
+        return query.getResultList();
+    }
+}
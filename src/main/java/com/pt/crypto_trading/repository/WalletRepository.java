@@ -1,14 +1,17 @@
 package com.pt.crypto_trading.repository;
 
 import com.pt.crypto_trading.domain.entity.Wallet;
-import com.pt.crypto_trading.domain.enums.Currency;
+import com.pt.crypto_trading.domain.instrument.Currency;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import jakarta.persistence.LockModeType;
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,8 +22,22 @@ public interface WalletRepository extends JpaRepository<Wallet, Long> {
     
     Optional<Wallet> findByUserIdAndCurrency(Long userId, Currency currency);
     
+    boolean existsByUserIdAndCurrency(Long userId, Currency currency);
+    
+    // Locks every wallet of a batch's users in one statement, always in id order
     @Lock(LockModeType.PESSIMISTIC_WRITE)
-    @Query("SELECT w FROM Wallet w WHERE w.userId = :userId AND w.currency = :currency")
-    Optional<Wallet> findByUserIdAndCurrencyForUpdate(@Param("userId") Long userId, @Param("currency") Currency currency);
+    @Query("SELECT w FROM Wallet w WHERE w.userId IN :userIds ORDER BY w.id")
+    List<Wallet> findByUserIdInForUpdate(@Param("userIds") Collection<Long> userIds);
+    
+    // The balance guard and the write are one statement, so the row lock lasts only as long as the UPDATE
+    @Modifying
+    @Query(value = "UPDATE wallets SET balance = balance - :amount, updated_at = LOCALTIMESTAMP " +
+                   "WHERE user_id = :userId AND currency = :currency AND balance >= :amount", nativeQuery = true)
+    int debit(@Param("userId") Long userId, @Param("currency") String currency, @Param("amount") BigDecimal amount);
+    
+    @Modifying
+    @Query(value = "UPDATE wallets SET balance = balance + :amount, updated_at = LOCALTIMESTAMP " +
+                   "WHERE user_id = :userId AND currency = :currency", nativeQuery = true)
+    int credit(@Param("userId") Long userId, @Param("currency") String currency, @Param("amount") BigDecimal amount);
 
 }
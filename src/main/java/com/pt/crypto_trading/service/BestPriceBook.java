@@ -0,0 +1,161 @@
+package com.pt.crypto_trading.service;
+
+import com.pt.crypto_trading.domain.entity.BestPrice;
+import com.pt.crypto_trading.domain.enums.TradeType;
+import com.pt.crypto_trading.domain.instrument.TradingPair;
+import com.pt.crypto_trading.domain.money.FixedPoint;
+import com.pt.crypto_trading.dto.PriceDto;
+import com.pt.crypto_trading.integration.enums.PriceSource;
+import com.pt.crypto_trading.repository.BestPriceRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+@Component
+@Slf4j
+public class BestPriceBook {
+    
+    private final BestPriceRepository bestPriceRepository;
+    
+    // Readers only ever dereference this; the aggregator swaps in a new immutable snapshot per publish
+    private final AtomicReference<Snapshot> current;
+    
+    public BestPriceBook(BestPriceRepository bestPriceRepository, InstrumentRegistry instrumentRegistry) {
+        this.bestPriceRepository = bestPriceRepository;
+        // Slots are indexed by TradingPair.getId(), which the registry keeps dense
+        this.current = new AtomicReference<>(new Snapshot(0, new Quote[instrumentRegistry.pairCount()]));
+    }
+    
+    @PostConstruct
+    public void restoreFromDatabase() {
+        List<BestPrice> persisted = bestPriceRepository.findAll();
+        
+        while (true) {
+            Snapshot previous = current.get();
+            long version = previous.version() + 1;
+            Quote[] quotes = previous.quotes.clone();
+            int restored = 0;
+            
+            for (BestPrice bestPrice : persisted) {
+                int index = bestPrice.getTradingPair().getId();
+                if (quotes[index] == null && bestPrice.isValidPrice()) {
+                    quotes[index] = new Quote(
+                            bestPrice.getTradingPair(),
+                            bestPrice.getBestBidPrice(),
+                            bestPrice.getBestAskPrice(),
+                            FixedPoint.toScaled(bestPrice.getBestBidPrice()),
+                            FixedPoint.toScaled(bestPrice.getBestAskPrice()),
+                            bestPrice.getBidSource(),
+                            bestPrice.getAskSource(),
+                            bestPrice.getUpdatedAt(),
+                            version);
+                    restored++;
+                }
+            }
+            
+            if (restored == 0 || current.compareAndSet(previous, new Snapshot(version, quotes))) {
+                log.info("Restored {} best prices from database into price book", restored);
+                return;
+            }
+        }
+    }
+    
+    public Quote get(TradingPair tradingPair) {
+        return current.get().get(tradingPair);
+    }
+    
+    public Snapshot snapshot() {
+        return current.get();
+    }
+    
+    public Snapshot publish(Map<TradingPair, PriceAggregationService.BestPriceResult> bestPrices) {
+        LocalDateTime updatedAt = LocalDateTime.now();
+        
+        while (true) {
+            Snapshot previous = current.get();
+            long version = previous.version() + 1;
+            Quote[] quotes = previous.quotes.clone();
+            
+            bestPrices.forEach((tradingPair, result) -> {
+                if (result.bestBid() != null && result.bestAsk() != null) {
+                    quotes[tradingPair.getId()] = new Quote(
+                            tradingPair,
+                            result.bestBid().bidPrice(),
+                            result.bestAsk().askPrice(),
+                            result.bestBid().scaledBid(),
+                            result.bestAsk().scaledAsk(),
+                            result.bestBid().source(),
+                            result.bestAsk().source(),
+                            updatedAt,
+                            version);
+                }
+            });
+            
+            Snapshot next = new Snapshot(version, quotes);
+            if (current.compareAndSet(previous, next)) {
+                return next;
+            }
+        }
+    }
+    
+    public record Quote(
+        TradingPair tradingPair,
+        BigDecimal bidPrice,
+        BigDecimal askPrice,
+        long scaledBid,
+        long scaledAsk,
+        PriceSource bidSource,
+        PriceSource askSource,
+        LocalDateTime updatedAt,
+        long version
+    ) {
+        public long getScaledPriceForTradeType(TradeType tradeType) {
+            return tradeType == TradeType.BUY ? scaledAsk : scaledBid;
+        }
+        
+        public boolean isValidPrice() {
+            return scaledBid > 0 && scaledAsk > 0;
+        }
+        
+        // Mapped here rather than in the dto, so the dto layer does not reach back into the service layer
+        public PriceDto toPriceDto() {
+            return new PriceDto(tradingPair, bidPrice, askPrice, bidSource, askSource, updatedAt);
+        }
+    }
+    
+    public static final class Snapshot {
+        private final long version;
+        private final Quote[] quotes;
+        
+        private Snapshot(long version, Quote[] quotes) {
+            this.version = version;
+            this.quotes = quotes;
+        }
+        
+        public long version() {
+            return version;
+        }
+        
+        public Quote get(TradingPair tradingPair) {
+            return quotes[tradingPair.getId()];
+        }
+        
+        public List<Quote> quotes() {
+            List<Quote> present = new ArrayList<>(quotes.length);
+            for (Quote quote : quotes) {
+                if (quote != null) {
+                    present.add(quote);
+                }
+            }
+            return Collections.unmodifiableList(present);
+        }
+    }
+}
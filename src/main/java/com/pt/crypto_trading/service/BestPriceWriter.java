@@ -0,0 +1,55 @@
+package com.pt.crypto_trading.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// Writes the book's best prices out behind the price tick. Each run takes the current snapshot and persists
+// the quotes changed since the last successful write, so a pair that moved many times in between costs one
+// row and a slow database never holds up publishing
+@Component
+@Slf4j
+public class BestPriceWriter {
+    
+    private final BestPriceBook bestPriceBook;
+    private final PricePersistenceService pricePersistenceService;
+    
+    // Snapshot version up to which every quote is in the database; restored quotes already are
+    private long persistedVersion;
+    
+    public BestPriceWriter(BestPriceBook bestPriceBook, PricePersistenceService pricePersistenceService) {
+        this.bestPriceBook = bestPriceBook;
+        this.pricePersistenceService = pricePersistenceService;
+        this.persistedVersion = bestPriceBook.snapshot().version();
+    }
+    
+    @Scheduled(fixedDelayString = "${app.price.best-price-persist-interval-ms:1000}")
+    public synchronized void persistChangedPrices() {
+        BestPriceBook.Snapshot snapshot = bestPriceBook.snapshot();
+        if (snapshot.version() == persistedVersion) {
+            return;
+        }
+        
+        long since = persistedVersion;
+        List<BestPriceBook.Quote> changed = snapshot.quotes().stream()
+                .filter(quote -> quote.version() > since)
+                .toList();
+        
+        try {
+            pricePersistenceService.persistBestPrices(changed);
+            persistedVersion = snapshot.version();
+            log.debug("Persisted {} best prices up to version {}", changed.size(), snapshot.version());
+        } catch (Exception e) {
+            // The book keeps serving the new prices; the next run writes them again, with anything newer
+            log.error("Failed to persist {} best prices: {}", changed.size(), e.getMessage());
+        }
+    }
+    
+    @PreDestroy
+    public void flush() {
+        persistChangedPrices();
+    }
+}
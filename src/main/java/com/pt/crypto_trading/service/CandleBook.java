@@ -0,0 +1,275 @@
+package com.pt.crypto_trading.service;
+
+import com.pt.crypto_trading.config.PriceProviderProperties;
+import com.pt.crypto_trading.domain.entity.PriceCandle;
+import com.pt.crypto_trading.domain.enums.CandleInterval;
+import com.pt.crypto_trading.domain.instrument.TradingPair;
+import com.pt.crypto_trading.dto.CandleDto;
+import com.pt.crypto_trading.integration.client.PriceProvider;
+import com.pt.crypto_trading.integration.enums.PriceSource;
+import com.pt.crypto_trading.repository.PriceCandleRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+// OHLC of the mid price per (pair, source, interval), folded in tick by tick; a null source is the best price
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CandleBook {
+    
+    private static final BigDecimal TWO = BigDecimal.valueOf(2);
+    
+    private final PriceCandleRepository priceCandleRepository;
+    private final PriceProviderProperties priceProviderProperties;
+    private final InstrumentRegistry instrumentRegistry;
+    
+    private final Map<SeriesKey, Series> series = new ConcurrentHashMap<>();
+    private final Queue<PriceCandle> closedCandles = new ConcurrentLinkedQueue<>();
+    
+    @PostConstruct
+    public void restoreFromDatabase() {
+        PriceProviderProperties.Candles config = priceProviderProperties.getCandles();
+        int restored = 0;
+        
+        for (TradingPair tradingPair : instrumentRegistry.pairs()) {
+            for (PriceSource source : sourcesWithBest()) {
+                for (CandleInterval interval : config.getPersistedIntervals()) {
+                    List<PriceCandle> recent = priceCandleRepository.findByTradingPairAndSourceAndIntervalOrderByOpenTimeDesc(
+                            tradingPair, source, interval, PageRequest.of(0, config.getRetainedPerSeries()));
+                    if (recent.isEmpty()) {
+                        continue;
+                    }
+                    
+                    Series restoredSeries = seriesFor(new SeriesKey(tradingPair, source, interval));
+                    for (int i = recent.size() - 1; i >= 0; i--) {
+                        restoredSeries.restore(recent.get(i));
+                    }
+                    restored += recent.size();
+                }
+            }
+        }
+        
+        log.info("Restored {} closed candles from database", restored);
+    }
+    
+    public void onBestPrices(Collection<BestPriceBook.Quote> quotes, long timestamp) {
+        for (BestPriceBook.Quote quote : quotes) {
+            update(quote.tradingPair(), null, timestamp, quote.bidPrice(), quote.askPrice());
+        }
+    }
+    
+    public void onProviderPrices(List<Map<TradingPair, PriceProvider.PriceData>> pricesByProvider, long timestamp) {
+        for (Map<TradingPair, PriceProvider.PriceData> providerPrices : pricesByProvider) {
+            providerPrices.forEach((tradingPair, priceData) ->
+                    update(tradingPair, priceData.source(), timestamp, priceData.bidPrice(), priceData.askPrice()));
+        }
+    }
+    
+    // Newest last; the still-open bar, if any, is the final element
+    public List<CandleDto> getCandles(TradingPair tradingPair, PriceSource source, CandleInterval interval, int limit) {
+        Series candles = series.get(new SeriesKey(tradingPair, source, interval));
+        return candles != null ? candles.latest(limit) : List.of();
+    }
+    
+    @Scheduled(fixedDelayString = "${app.price.candles.persist-interval-ms:1000}")
+    public void persistClosedCandles() {
+        List<PriceCandle> batch = new ArrayList<>();
+        PriceCandle candle;
+        while ((candle = closedCandles.poll()) != null) {
+            batch.add(candle);
+        }
+        
+        if (batch.isEmpty()) {
+            return;
+        }
+        
+        try {
+            priceCandleRepository.insertAll(batch);
+            log.debug("Persisted {} closed candles", batch.size());
+        } catch (Exception e) {
+            // The batch rolled back as a whole, so it goes back on the queue for the next run
+            closedCandles.addAll(batch);
+            log.error("Failed to persist {} closed candles, retrying: {}", batch.size(), e.getMessage());
+        }
+    }
+    
+    private void update(TradingPair tradingPair, PriceSource source, long timestamp, BigDecimal bid, BigDecimal ask) {
+        for (CandleInterval interval : CandleInterval.values()) {
+            seriesFor(new SeriesKey(tradingPair, source, interval)).update(timestamp, bid, ask);
+        }
+    }
+    
+    private Series seriesFor(SeriesKey key) {
+        return series.computeIfAbsent(key, Series::new);
+    }
+    
+    private static List<PriceSource> sourcesWithBest() {
+        List<PriceSource> sources = new ArrayList<>();
+        sources.add(null);
+        sources.addAll(List.of(PriceSource.values()));
+        return sources;
+    }
+    
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+    
+    private record SeriesKey(TradingPair tradingPair, PriceSource source, CandleInterval interval) {}
+    
+    private final class Series {
+        private final SeriesKey key;
+        private final Deque<CandleDto> closed = new ArrayDeque<>();
+        private Bar current;
+        
+        private Series(SeriesKey key) {
+            this.key = key;
+        }
+        
+        synchronized void update(long timestamp, BigDecimal bid, BigDecimal ask) {
+            long openTime = key.interval().openTimeOf(timestamp);
+            
+            if (current != null && openTime > current.openTime) {
+                close(current);
+                current = null;
+            }
+            if (current != null && openTime < current.openTime) {
+                return; // Late tick for a bar that is already closed
+            }
+            
+            if (current == null) {
+                current = new Bar(openTime);
+            }
+            current.add(bid, ask);
+        }
+        
+        synchronized void restore(PriceCandle candle) {
+            retain(new CandleDto(
+                    key.tradingPair(), key.source(), key.interval(),
+                    candle.getOpenTime(), candle.getCloseTime(),
+                    candle.getOpen(), candle.getHigh(), candle.getLow(), candle.getClose(),
+                    candle.getBidClose(), candle.getAskClose(),
+                    candle.getSpreadAvg(), candle.getSpreadMax(),
+                    candle.getTickCount(), true));
+        }
+        
+        synchronized List<CandleDto> latest(int limit) {
+            List<CandleDto> result = new ArrayList<>(Math.min(limit, closed.size() + 1));
+            int fromClosed = Math.min(closed.size(), current != null ? limit - 1 : limit);
+            
+            Iterator<CandleDto> newestFirst = closed.descendingIterator();
+            for (int i = 0; i < fromClosed; i++) {
+                result.add(newestFirst.next());
+            }
+            Collections.reverse(result);
+            
+            if (current != null && limit > 0) {
+                result.add(current.toDto(false));
+            }
+            return result;
+        }
+        
+        private void close(Bar bar) {
+            CandleDto candle = bar.toDto(true);
+            retain(candle);
+            
+            if (priceProviderProperties.getCandles().getPersistedIntervals().contains(key.interval())) {
+                closedCandles.add(toEntity(candle));
+            }
+        }
+        
+        private void retain(CandleDto candle) {
+            closed.addLast(candle);
+            while (closed.size() > priceProviderProperties.getCandles().getRetainedPerSeries()) {
+                closed.removeFirst();
+            }
+        }
+        
+        private PriceCandle toEntity(CandleDto candle) {
+            PriceCandle entity = new PriceCandle();
+            entity.setTradingPair(candle.getTradingPair());
+            entity.setSource(candle.getSource());
+            entity.setInterval(candle.getInterval());
+            entity.setOpenTime(candle.getOpenTime());
+            entity.setCloseTime(candle.getCloseTime());
+            entity.setOpen(candle.getOpen());
+            entity.setHigh(candle.getHigh());
+            entity.setLow(candle.getLow());
+            entity.setClose(candle.getClose());
+            entity.setBidClose(candle.getBidClose());
+            entity.setAskClose(candle.getAskClose());
+            entity.setSpreadAvg(candle.getSpreadAvg());
+            entity.setSpreadMax(candle.getSpreadMax());
+            entity.setTickCount(candle.getTickCount());
+            return entity;
+        }
+        
+        private final class Bar {
+            private final long openTime;
+            private BigDecimal open;
+            private BigDecimal high;
+            private BigDecimal low;
+            private BigDecimal close;
+            private BigDecimal bidClose;
+            private BigDecimal askClose;
+            private BigDecimal spreadSum = BigDecimal.ZERO;
+            private BigDecimal spreadMax;
+            private int ticks;
+            
+            private Bar(long openTime) {
+                this.openTime = openTime;
+            }
+            
+            private void add(BigDecimal bid, BigDecimal ask) {
+                BigDecimal mid = bid.add(ask).divide(TWO);
+                BigDecimal spread = ask.subtract(bid);
+                
+                if (ticks == 0) {
+                    open = mid;
+                    high = mid;
+                    low = mid;
+                    spreadMax = spread;
+                } else {
+                    high = high.max(mid);
+                    low = low.min(mid);
+                    spreadMax = spreadMax.max(spread);
+                }
+                close = mid;
+                bidClose = bid;
+                askClose = ask;
+                spreadSum = spreadSum.add(spread);
+                ticks++;
+            }
+            
+            private CandleDto toDto(boolean closed) {
+                return new CandleDto(
+                        key.tradingPair(), key.source(), key.interval(),
+                        toLocalDateTime(openTime), toLocalDateTime(openTime + key.interval().getMillis()),
+                        open, high, low, close,
+                        bidClose, askClose,
+                        spreadSum.divide(BigDecimal.valueOf(ticks), 8, RoundingMode.HALF_UP), spreadMax,
+                        ticks, closed);
+            }
+        }
+    }
+}
@@ -1,38 +1,39 @@
 package com.pt.crypto_trading.service;
 
-import com.pt.crypto_trading.repository.IdempotentRequestRepository;
-import com.pt.crypto_trading.repository.PriceHistoryRepository;
+import com.pt.crypto_trading.config.PriceProviderProperties;
+import com.pt.crypto_trading.timeseries.QuoteStore;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class DatabaseMaintenanceService {
     
-    private final PriceHistoryRepository priceHistoryRepository;
-    private final IdempotentRequestRepository idempotentRequestRepository;
+    private final QuoteStore quoteStore;
+    private final PriceProviderProperties priceProviderProperties;
     
-    @Scheduled(cron = "0 0 2 * * ?") // Daily at 2 AM
-    @Transactional
-    public void cleanupOldData() {
-        log.info("Starting database cleanup");
+    // Price history lives in day segments of the quote store, so retention drops whole days outside any transaction
+    @Scheduled(cron = "${app.price.cleanup.cron:0 0 2 * * ?}")
+    public void compactPriceHistory() {
+        PriceProviderProperties.Cleanup cleanup = priceProviderProperties.getCleanup();
+        log.info("Starting price history retention: raw {}d, 1m {}d, 1h {}d",
+                cleanup.getRetentionDays(), cleanup.getMinuteRetentionDays(), cleanup.getHourRetentionDays());
         
-        // Cleanup old price history (older than 30 days)
-        LocalDateTime priceHistoryCutoff = LocalDateTime.now().minusDays(30);
-        int deletedPriceHistory = priceHistoryRepository.deleteOldHistory(priceHistoryCutoff);
-        log.info("Deleted {} old price history records", deletedPriceHistory);
-        
-        // Cleanup expired idempotent requests
-        LocalDateTime idempotentCutoff = LocalDateTime.now().minusHours(24);
-        int deletedIdempotent = idempotentRequestRepository.deleteExpiredRequests(idempotentCutoff);
-        log.info("Deleted {} expired idempotent requests", deletedIdempotent);
-        
-        log.info("Database cleanup completed");
+        try {
+            quoteStore.applyRetention(
+                    LocalDate.now(ZoneOffset.UTC),
+                    Math.max(1, cleanup.getRetentionDays()),
+                    Math.max(1, cleanup.getMinuteRetentionDays()),
+                    Math.max(1, cleanup.getHourRetentionDays()));
+            log.info("Price history retention completed, store holds {} bytes", quoteStore.storedBytes());
+        } catch (Exception e) {
+            log.error("Price history retention failed", e);
+        }
     }
 }
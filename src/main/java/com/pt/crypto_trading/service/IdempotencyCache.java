@@ -0,0 +1,231 @@
+package com.pt.crypto_trading.service;
+
+import com.pt.crypto_trading.config.IdempotencyProperties;
+import com.pt.crypto_trading.dto.TradeRequestDto;
+import com.pt.crypto_trading.dto.TradeResponseDto;
+import com.pt.crypto_trading.exception.DuplicateRequestException;
+import com.pt.crypto_trading.repository.IdempotentRequestRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+// In-memory tier in front of idempotent_requests: the first request with a key reserves it atomically,
+// concurrent duplicates wait for that request's outcome, and completed responses are replayed from memory
+// until a timing wheel expires them
+@Component
+@Slf4j
+public class IdempotencyCache {
+    
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 algorithm not available", e);
+        }
+    });
+    
+    private final IdempotentRequestRepository idempotentRequestRepository;
+    private final IdempotencyProperties config;
+    private final Map<CacheKey, Entry> entries = new ConcurrentHashMap<>();
+    
+    // Bucket i holds the keys expiring in a tick t with t % wheel.length == i
+    private final Queue<CacheKey>[] wheel;
+    private long lastTick;
+    
+    private final Counter reservedCounter;
+    private final Counter replayedCounter;
+    private final Counter coalescedCounter;
+    private final Counter uncachedCounter;
+    private final Counter expiredCounter;
+    
+    @SuppressWarnings("unchecked")
+    public IdempotencyCache(IdempotentRequestRepository idempotentRequestRepository,
+                            IdempotencyProperties config,
+                            MeterRegistry meterRegistry) {
+        this.idempotentRequestRepository = idempotentRequestRepository;
+        this.config = config;
+        
+        int buckets = (int) (config.getTtlMs() / config.getWheelTickMs()) + 2;
+        this.wheel = new Queue[buckets];
+        for (int i = 0; i < buckets; i++) {
+            wheel[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.lastTick = System.currentTimeMillis() / config.getWheelTickMs();
+        
+        Gauge.builder("idempotency.cache.size", entries, Map::size)
+                .description("Idempotency keys held in memory, in flight or completed")
+                .register(meterRegistry);
+        this.reservedCounter = meterRegistry.counter("idempotency.cache.requests", "outcome", "reserved");
+        this.replayedCounter = meterRegistry.counter("idempotency.cache.requests", "outcome", "replayed");
+        this.coalescedCounter = meterRegistry.counter("idempotency.cache.requests", "outcome", "coalesced");
+        this.uncachedCounter = meterRegistry.counter("idempotency.cache.requests", "outcome", "uncached");
+        this.expiredCounter = meterRegistry.counter("idempotency.cache.expired");
+    }
+    
+    // Hex SHA-256 of the fields that make two requests the same trade; computed once per request
+    public static String requestHash(TradeRequestDto request) {
+        String content = request.getTradingPair() + "-" + request.getType() + "-" + request.getQuantity().toPlainString();
+        return HexFormat.of().formatHex(SHA_256.get().digest(content.getBytes(StandardCharsets.UTF_8)));
+    }
+    
+    // Runs execution at most once per live key; execution receives the request hash, or null without a key.
+    // Every keyed request reserves its key whatever the cache holds, so a duplicate of one still in flight always
+    // waits for it; the size cap only decides whether a completed response stays in memory
+    public TradeResponseDto execute(Long userId, TradeRequestDto request, Function<String, TradeResponseDto> execution) {
+        String idempotencyKey = request.getIdempotencyKey();
+        if (idempotencyKey == null || idempotencyKey.trim().isEmpty()) {
+            return execution.apply(null);
+        }
+        
+        String requestHash = requestHash(request);
+        CacheKey key = new CacheKey(userId, idempotencyKey);
+        Entry entry = new Entry(requestHash);
+        Entry existing;
+        while ((existing = entries.putIfAbsent(key, entry)) != null) {
+            if (!existing.isExpired()) {
+                return await(existing, requestHash);
+            }
+            entries.remove(key, existing);
+        }
+        
+        reservedCounter.increment();
+        try {
+            TradeResponseDto response = execution.apply(requestHash);
+            entry.expiresAt = System.currentTimeMillis() + config.getTtlMs();
+            entry.result.complete(response);
+            if (entries.size() > config.getMaxEntries()) {
+                // Full: the key is released once its waiters have the response; a later retry is answered
+                // from the key execution has already stored
+                entries.remove(key, entry);
+                uncachedCounter.increment();
+            } else {
+                schedule(key, entry.expiresAt);
+            }
+            return response;
+        } catch (RuntimeException e) {
+            // A failed attempt releases the key: waiters see this failure, later retries run again
+            entries.remove(key, entry);
+            entry.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+    
+    // Seeds a request that completed elsewhere, e.g. a trade recovered from the ledger journal; a live entry wins
+    public void remember(Long userId, String idempotencyKey, String requestHash, TradeResponseDto response,
+                         long completedAt) {
+        long expiresAt = completedAt + config.getTtlMs();
+        if (expiresAt <= System.currentTimeMillis() || entries.size() >= config.getMaxEntries()) {
+            return;
+        }
+        
+        CacheKey key = new CacheKey(userId, idempotencyKey);
+        Entry entry = new Entry(requestHash);
+        entry.expiresAt = expiresAt;
+        entry.result.complete(response);
+        if (entries.putIfAbsent(key, entry) == null) {
+            schedule(key, expiresAt);
+        }
+    }
+    
+    // Expires cached keys tick by tick, and stored rows along with them
+    @Scheduled(fixedDelayString = "${app.idempotency.wheel-tick-ms:60000}")
+    @Transactional
+    public void advanceWheel() {
+        long now = System.currentTimeMillis();
+        long currentTick = now / config.getWheelTickMs();
+        long firstTick = Math.max(lastTick + 1, currentTick - wheel.length + 1);
+        int expired = 0;
+        
+        for (long tick = firstTick; tick <= currentTick; tick++) {
+            Queue<CacheKey> bucket = wheel[(int) (tick % wheel.length)];
+            for (int pending = bucket.size(); pending > 0; pending--) {
+                CacheKey key = bucket.poll();
+                if (key == null) {
+                    break;
+                }
+                Entry entry = entries.get(key);
+                if (entry == null || entry.expiresAt > now) {
+                    // Gone already, or re-reserved after expiring and filed under its own tick
+                    continue;
+                }
+                if (entries.remove(key, entry)) {
+                    expired++;
+                }
+            }
+        }
+        lastTick = currentTick;
+        expiredCounter.increment(expired);
+        
+        int deleted = idempotentRequestRepository.deleteExpiredRequests(LocalDateTime.now());
+        if (expired > 0 || deleted > 0) {
+            log.debug("Expired {} cached and {} stored idempotency keys", expired, deleted);
+        }
+    }
+    
+    private TradeResponseDto await(Entry entry, String requestHash) {
+        if (!entry.requestHash.equals(requestHash)) {
+            throw new DuplicateRequestException("Idempotency key already used with different request content");
+        }
+        
+        if (entry.result.isDone()) {
+            replayedCounter.increment();
+        } else {
+            coalescedCounter.increment();
+        }
+        
+        try {
+            return entry.result.get(config.getInFlightWaitMs(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new DuplicateRequestException("A request with this idempotency key is still in progress");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for an in-flight request", e);
+        }
+    }
+    
+    private void schedule(CacheKey key, long expiresAt) {
+        // One tick late rather than early: the bucket is swept only once its whole tick has passed
+        long tick = expiresAt / config.getWheelTickMs() + 1;
+        wheel[(int) (tick % wheel.length)].add(key);
+    }
+    
+    private record CacheKey(Long userId, String idempotencyKey) {}
+    
+    private static final class Entry {
+        private final String requestHash;
+        private final CompletableFuture<TradeResponseDto> result = new CompletableFuture<>();
+        private volatile long expiresAt = Long.MAX_VALUE; // Set once the request completes
+        
+        private Entry(String requestHash) {
+            this.requestHash = requestHash;
+        }
+        
+        private boolean isExpired() {
+            return System.currentTimeMillis() >= expiresAt;
+        }
+    }
+}
@@ -1,9 +1,13 @@
 package com.pt.crypto_trading.service;
 
+import com.pt.crypto_trading.domain.entity.IdempotentRequest;
 import com.pt.crypto_trading.dto.TradeRequestDto;
 import com.pt.crypto_trading.dto.TradeResponseDto;
 
+import java.util.List;
+
 public interface IdempotencyService {
-    TradeResponseDto checkIdempotency(Long userId, TradeRequestDto request);
+    TradeResponseDto checkIdempotency(Long userId, TradeRequestDto request, String requestHash);
     void saveIdempotentRequest(Long userId, String idempotencyKey, String requestHash, Long tradeId);
+    void saveIdempotentRequests(List<IdempotentRequest> requests);
 }
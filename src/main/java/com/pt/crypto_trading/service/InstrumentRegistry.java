@@ -0,0 +1,134 @@
+package com.pt.crypto_trading.service;
+
+import com.pt.crypto_trading.config.InstrumentProperties;
+import com.pt.crypto_trading.domain.instrument.Currency;
+import com.pt.crypto_trading.domain.instrument.TradingPair;
+import com.pt.crypto_trading.integration.enums.PriceSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+
+// Currencies and trading pairs loaded from app.instruments; immutable once the context is up
+@Component
+@Slf4j
+public class InstrumentRegistry {
+    
+    private final List<Currency> currencies;
+    private final Map<String, Currency> currenciesByCode;
+    private final Map<Currency, BigDecimal> initialBalances;
+    private final List<TradingPair> pairs;
+    private final Map<String, TradingPair> pairsBySymbol;
+    private final Map<TradingPair, Map<PriceSource, String>> exchangeSymbolOverrides;
+    private final int parallelAggregationThreshold;
+    
+    // Exchange symbol -> pair, built once per provider on first use
+    private final Map<PriceSource, Map<String, TradingPair>> exchangeSymbols = new ConcurrentHashMap<>();
+    
+    public InstrumentRegistry(InstrumentProperties instrumentProperties) {
+        List<Currency> loadedCurrencies = new ArrayList<>();
+        Map<String, Currency> byCode = new HashMap<>();
+        Map<Currency, BigDecimal> balances = new HashMap<>();
+        
+        for (InstrumentProperties.CurrencySpec spec : instrumentProperties.getCurrencies()) {
+            if (spec.getCode() == null || spec.getCode().isBlank()) {
+                throw new IllegalStateException("Currency code must not be blank");
+            }
+            Currency currency = new Currency(loadedCurrencies.size(), spec.getCode(), spec.getName(), spec.getDecimalPlaces());
+            if (byCode.putIfAbsent(currency.getCode(), currency) != null) {
+                throw new IllegalStateException("Duplicate currency: " + currency.getCode());
+            }
+            loadedCurrencies.add(currency);
+            balances.put(currency, spec.getInitialBalance());
+        }
+        
+        List<TradingPair> loadedPairs = new ArrayList<>();
+        Map<String, TradingPair> bySymbol = new HashMap<>();
+        Map<TradingPair, Map<PriceSource, String>> overrides = new HashMap<>();
+        
+        for (InstrumentProperties.PairSpec spec : instrumentProperties.getPairs()) {
+            Currency base = byCode.get(spec.getBase());
+            Currency quote = byCode.get(spec.getQuote());
+            if (spec.getSymbol() == null || spec.getSymbol().isBlank() || base == null || quote == null) {
+                throw new IllegalStateException("Invalid trading pair definition: " + spec);
+            }
+            TradingPair tradingPair = new TradingPair(
+                    loadedPairs.size(), spec.getSymbol(), base, quote, spec.getMinTradeAmount());
+            if (bySymbol.putIfAbsent(tradingPair.getSymbol(), tradingPair) != null) {
+                throw new IllegalStateException("Duplicate trading pair: " + tradingPair.getSymbol());
+            }
+            loadedPairs.add(tradingPair);
+            overrides.put(tradingPair, Map.copyOf(spec.getExchangeSymbols()));
+        }
+        
+        this.currencies = List.copyOf(loadedCurrencies);
+        this.currenciesByCode = Map.copyOf(byCode);
+        this.initialBalances = Collections.unmodifiableMap(balances);
+        this.pairs = List.copyOf(loadedPairs);
+        this.pairsBySymbol = Map.copyOf(bySymbol);
+        this.exchangeSymbolOverrides = Map.copyOf(overrides);
+        this.parallelAggregationThreshold = instrumentProperties.getParallelAggregationThreshold();
+        
+        log.info("Loaded {} currencies and {} trading pairs", currencies.size(), pairs.size());
+    }
+    
+    // Indexed by TradingPair.getId()
+    public List<TradingPair> pairs() {
+        return pairs;
+    }
+    
+    public int pairCount() {
+        return pairs.size();
+    }
+    
+    public TradingPair pair(int id) {
+        return pairs.get(id);
+    }
+    
+    public TradingPair getPair(String symbol) {
+        TradingPair tradingPair = pairsBySymbol.get(symbol);
+        if (tradingPair == null) {
+            throw new IllegalArgumentException("Unknown trading pair: " + symbol);
+        }
+        return tradingPair;
+    }
+    
+    public List<Currency> currencies() {
+        return currencies;
+    }
+    
+    public Currency getCurrency(String code) {
+        Currency currency = currenciesByCode.get(code);
+        if (currency == null) {
+            throw new IllegalArgumentException("Unknown currency: " + code);
+        }
+        return currency;
+    }
+    
+    public BigDecimal initialBalance(Currency currency) {
+        return initialBalances.getOrDefault(currency, BigDecimal.ZERO);
+    }
+    
+    public boolean isParallelAggregation() {
+        return pairs.size() >= parallelAggregationThreshold;
+    }
+    
+    // Configured per-exchange symbols win; everything else goes through the provider's default mapping
+    public Map<String, TradingPair> exchangeSymbols(PriceSource source, UnaryOperator<String> defaultMapping) {
+        return exchangeSymbols.computeIfAbsent(source, key -> {
+            Map<String, TradingPair> mapping = new HashMap<>();
+            for (TradingPair tradingPair : pairs) {
+                String exchangeSymbol = exchangeSymbolOverrides.get(tradingPair).get(key);
+                mapping.put(exchangeSymbol != null ? exchangeSymbol : defaultMapping.apply(tradingPair.getSymbol()), tradingPair);
+            }
+            return Map.copyOf(mapping);
+        });
+    }
+}
@@ -0,0 +1,18 @@
+package com.pt.crypto_trading.service;
+
+import com.pt.crypto_trading.domain.enums.TradeType;
+import com.pt.crypto_trading.domain.instrument.TradingPair;
+import com.pt.crypto_trading.dto.PositionDto;
+
+import java.util.List;
+
+public interface PositionService {
+    List<PositionDto> getUserPositions(Long userId);
+    PositionDto getUserPosition(Long userId, TradingPair tradingPair);
+    // Fold completed trades into their positions inside the caller's transaction, in the order given
+    void applyTrade(Long userId, TradingPair tradingPair, TradeType type, long quantity, long price);
+    void applyTrades(List<Fill> fills);
+    
+    // One completed trade; quantity and price are FixedPoint longs
+    record Fill(Long userId, TradingPair tradingPair, TradeType type, long quantity, long price) {}
+}
@@ -1,6 +1,6 @@
 package com.pt.crypto_trading.service;
 
-import com.pt.crypto_trading.domain.enums.TradingPair;
+import com.pt.crypto_trading.domain.instrument.TradingPair;
 import com.pt.crypto_trading.integration.client.PriceProvider;
 
 import java.util.List;
@@ -9,6 +9,9 @@ import java.util.Map;
 public interface PriceAggregationService {
     void aggregateAndUpdatePrices();
     Map<TradingPair, BestPriceResult> aggregatePrices(List<Map<TradingPair, PriceProvider.PriceData>> pricesByProvider);
+    void onStreamingPriceUpdate(TradingPair tradingPair, PriceProvider.PriceData priceData);
+    boolean hasPendingStreamingUpdates();
+    void flushStreamingUpdates();
     
     record BestPriceResult(
         PriceProvider.PriceData bestBid,
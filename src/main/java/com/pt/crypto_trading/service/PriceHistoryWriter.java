@@ -0,0 +1,213 @@
+package com.pt.crypto_trading.service;
+
+import com.pt.crypto_trading.config.PriceProviderProperties;
+import com.pt.crypto_trading.domain.instrument.TradingPair;
+import com.pt.crypto_trading.integration.client.PriceProvider;
+import com.pt.crypto_trading.integration.enums.PriceSource;
+import com.pt.crypto_trading.timeseries.QuoteStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+@Component
+@Slf4j
+public class PriceHistoryWriter {
+    
+    private final QuoteStore quoteStore;
+    private final PriceProviderProperties.History config;
+    private final BlockingQueue<Tick> buffer;
+    
+    // Last tick written per (pair, source), updated by the writer thread once its batch is stored; unchanged
+    // quotes are only re-recorded as heartbeats, and a tick dropped on overflow or in a failed batch is not
+    // mistaken for one that made it to disk
+    private final Map<SeriesKey, Tick> lastRecorded = new ConcurrentHashMap<>();
+    
+    private final Counter enqueuedCounter;
+    private final Counter unchangedCounter;
+    private final Counter droppedCounter;
+    private final Counter writtenCounter;
+    private final Counter failedCounter;
+    private final Timer flushTimer;
+    
+    private volatile boolean running;
+    private Thread writerThread;
+    
+    public PriceHistoryWriter(QuoteStore quoteStore,
+                              PriceProviderProperties priceProviderProperties,
+                              MeterRegistry meterRegistry) {
+        this.quoteStore = quoteStore;
+        this.config = priceProviderProperties.getHistory();
+        this.buffer = new ArrayBlockingQueue<>(config.getBufferCapacity());
+        
+        Gauge.builder("price.history.buffer.size", buffer, BlockingQueue::size)
+                .description("Price history ticks waiting to be written")
+                .register(meterRegistry);
+        Gauge.builder("price.history.buffer.remaining", buffer, BlockingQueue::remainingCapacity)
+                .description("Free slots in the price history buffer")
+                .register(meterRegistry);
+        this.enqueuedCounter = meterRegistry.counter("price.history.ticks", "outcome", "enqueued");
+        this.unchangedCounter = meterRegistry.counter("price.history.ticks", "outcome", "unchanged");
+        this.droppedCounter = meterRegistry.counter("price.history.ticks", "outcome", "dropped");
+        this.writtenCounter = meterRegistry.counter("price.history.ticks", "outcome", "written");
+        this.failedCounter = meterRegistry.counter("price.history.ticks", "outcome", "failed");
+        this.flushTimer = meterRegistry.timer("price.history.flush");
+    }
+    
+    @PostConstruct
+    public void start() {
+        running = true;
+        writerThread = new Thread(this::runWriter, "price-history-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+    
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writerThread.join(config.getFlushIntervalMs() * 2 + 5000);
+    }
+    
+    // Called on the price tick; never blocks, overflow is resolved by the configured policy
+    public void enqueue(List<Map<TradingPair, PriceProvider.PriceData>> pricesByProvider) {
+        Instant timestamp = Instant.now();
+        
+        for (Map<TradingPair, PriceProvider.PriceData> providerPrices : pricesByProvider) {
+            providerPrices.forEach((tradingPair, priceData) -> record(new Tick(
+                    tradingPair, priceData.source(), priceData.bidPrice(), priceData.askPrice(), timestamp)));
+        }
+    }
+    
+    private void record(Tick tick) {
+        if (isUnchanged(lastRecorded.get(tick.seriesKey()), tick)) {
+            unchangedCounter.increment();
+            return;
+        }
+        
+        offer(tick);
+    }
+    
+    private boolean isUnchanged(Tick previous, Tick tick) {
+        return previous != null
+                && previous.bidPrice().compareTo(tick.bidPrice()) == 0
+                && previous.askPrice().compareTo(tick.askPrice()) == 0
+                && tick.timestamp().toEpochMilli() - previous.timestamp().toEpochMilli() < config.getHeartbeatMs();
+    }
+    
+    private void offer(Tick tick) {
+        if (buffer.offer(tick)) {
+            enqueuedCounter.increment();
+            return;
+        }
+        
+        if (config.getOverflowPolicy() == PriceProviderProperties.OverflowPolicy.DROP_OLDEST) {
+            while (!buffer.offer(tick)) {
+                if (buffer.poll() != null) {
+                    droppedCounter.increment();
+                }
+            }
+            enqueuedCounter.increment();
+        } else {
+            droppedCounter.increment();
+        }
+    }
+    
+    private void runWriter() {
+        List<Tick> batch = new ArrayList<>(config.getBatchSize());
+        long flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(config.getFlushIntervalMs());
+        long flushDeadline = System.nanoTime() + flushIntervalNanos;
+        
+        while (running) {
+            try {
+                Tick next = buffer.poll(Math.max(0, flushDeadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                if (next != null) {
+                    batch.add(next);
+                    buffer.drainTo(batch, config.getBatchSize() - batch.size());
+                }
+                
+                if (batch.size() >= config.getBatchSize() || System.nanoTime() - flushDeadline >= 0) {
+                    flush(batch);
+                    flushDeadline = System.nanoTime() + flushIntervalNanos;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.error("Price history writer loop failed", e);
+            }
+        }
+        
+        // Drain what is left so a clean shutdown loses nothing
+        do {
+            buffer.drainTo(batch, config.getBatchSize() - batch.size());
+            flush(batch);
+        } while (!buffer.isEmpty());
+    }
+    
+    private void flush(List<Tick> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        
+        // Ticks queued while the previous batch was still unwritten can repeat each other; keep the first of a run
+        Map<SeriesKey, Tick> latest = new HashMap<>();
+        List<Tick> changed = new ArrayList<>(batch.size());
+        for (Tick tick : batch) {
+            SeriesKey key = tick.seriesKey();
+            if (isUnchanged(latest.getOrDefault(key, lastRecorded.get(key)), tick)) {
+                unchangedCounter.increment();
+            } else {
+                latest.put(key, tick);
+                changed.add(tick);
+            }
+        }
+        
+        int size = changed.size();
+        try {
+            flushTimer.recordCallable(() -> {
+                for (Tick tick : changed) {
+                    quoteStore.append(tick.tradingPair(), tick.source(), tick.timestamp(), tick.bidPrice(), tick.askPrice());
+                }
+                return null;
+            });
+            lastRecorded.putAll(latest);
+            writtenCounter.increment(size);
+            log.debug("Wrote {} price history records", size);
+        } catch (Exception e) {
+            // History is best effort; a failed batch is counted and dropped rather than retried forever
+            failedCounter.increment(size);
+            log.error("Failed to write {} price history records: {}", size, e.getMessage());
+        } finally {
+            batch.clear();
+        }
+    }
+    
+    private record SeriesKey(TradingPair tradingPair, PriceSource source) {}
+    
+    private record Tick(
+        TradingPair tradingPair,
+        PriceSource source,
+        BigDecimal bidPrice,
+        BigDecimal askPrice,
+        Instant timestamp
+    ) {
+        SeriesKey seriesKey() {
+            return new SeriesKey(tradingPair, source);
+        }
+    }
+}
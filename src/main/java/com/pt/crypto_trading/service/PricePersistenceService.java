@@ -0,0 +1,7 @@
+package com.pt.crypto_trading.service;
+
+import java.util.Collection;
+
+public interface PricePersistenceService {
+    void persistBestPrices(Collection<BestPriceBook.Quote> quotes);
+}
@@ -1,13 +1,20 @@
 package com.pt.crypto_trading.service;
 
-import com.pt.crypto_trading.domain.enums.TradingPair;
+import com.pt.crypto_trading.domain.enums.CandleInterval;
+import com.pt.crypto_trading.domain.instrument.TradingPair;
+import com.pt.crypto_trading.dto.CandleDto;
 import com.pt.crypto_trading.dto.PriceDto;
+import com.pt.crypto_trading.dto.PriceHistoryDto;
+import com.pt.crypto_trading.integration.enums.PriceSource;
 
-import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface PriceService {
     List<PriceDto> getAllLatestPrices();
     PriceDto getLatestPrice(TradingPair tradingPair);
-    BigDecimal getExecutionPrice(TradingPair tradingPair, com.pt.crypto_trading.domain.enums.TradeType tradeType);
+    long getScaledExecutionPrice(TradingPair tradingPair, com.pt.crypto_trading.domain.enums.TradeType tradeType);
+    void refreshCachedPrices(BestPriceBook.Snapshot snapshot);
+    List<CandleDto> getCandles(TradingPair tradingPair, PriceSource source, CandleInterval interval, int limit);
+    List<PriceHistoryDto> getPriceHistory(TradingPair tradingPair, PriceSource source, LocalDateTime from, LocalDateTime to, int limit);
 }
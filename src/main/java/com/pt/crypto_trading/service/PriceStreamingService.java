@@ -0,0 +1,62 @@
+package com.pt.crypto_trading.service;
+
+import com.pt.crypto_trading.config.PriceProviderProperties;
+import com.pt.crypto_trading.integration.client.PriceProvider;
+import com.pt.crypto_trading.integration.client.StreamingPriceProvider;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PriceStreamingService {
+    
+    private final List<PriceProvider> priceProviders;
+    private final PriceAggregationService priceAggregationService;
+    private final PriceProviderProperties priceProviderProperties;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void startStreams() {
+        if (!priceProviderProperties.getStreaming().isEnabled()) {
+            log.info("Streaming price ingestion disabled, relying on REST polling");
+            return;
+        }
+        
+        streamingProviders().forEach(provider -> {
+            log.info("Starting price stream for {}", provider.getSource());
+            provider.startStreaming(priceAggregationService::onStreamingPriceUpdate);
+        });
+    }
+    
+    @Scheduled(fixedDelayString = "${app.price.streaming.flush-interval-ms:200}")
+    public void flushStreamingUpdates() {
+        if (!priceAggregationService.hasPendingStreamingUpdates()) {
+            return;
+        }
+        
+        try {
+            priceAggregationService.flushStreamingUpdates();
+        } catch (Exception e) {
+            log.error("Streaming price flush failed", e);
+        }
+    }
+    
+    @PreDestroy
+    public void stopStreams() {
+        streamingProviders().forEach(StreamingPriceProvider::stopStreaming);
+    }
+    
+    private List<StreamingPriceProvider> streamingProviders() {
+        return priceProviders.stream()
+                .filter(StreamingPriceProvider.class::isInstance)
+                .map(StreamingPriceProvider.class::cast)
+                .toList();
+    }
+}
@@ -12,7 +12,7 @@ public class ScheduledPriceUpdateService {
     
     private final PriceAggregationService priceAggregationService;
     
-    @Scheduled(fixedRate = 10000)
+    @Scheduled(fixedRateString = "${app.price.refresh-interval-ms:10000}")
     public void updatePrices() {
         try {
             log.debug("Starting scheduled price update");
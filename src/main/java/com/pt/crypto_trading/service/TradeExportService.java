@@ -0,0 +1,13 @@
+package com.pt.crypto_trading.service;
+
+import com.pt.crypto_trading.domain.enums.ExportFormat;
+
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+
+public interface TradeExportService {
+    // Run before the response is committed; once streaming starts an error can no longer change the status
+    void validateExport(Long userId, LocalDateTime from, LocalDateTime to);
+    
+    void exportTrades(Long userId, LocalDateTime from, LocalDateTime to, ExportFormat format, OutputStream out);
+}
@@ -0,0 +1,290 @@
+package com.pt.crypto_trading.service;
+
+import com.pt.crypto_trading.config.GroupCommitProperties;
+import com.pt.crypto_trading.domain.entity.IdempotentRequest;
+import com.pt.crypto_trading.domain.entity.Trade;
+import com.pt.crypto_trading.domain.entity.Wallet;
+import com.pt.crypto_trading.domain.enums.TradeType;
+import com.pt.crypto_trading.domain.instrument.Currency;
+import com.pt.crypto_trading.domain.instrument.TradingPair;
+import com.pt.crypto_trading.domain.money.FixedPoint;
+import com.pt.crypto_trading.dto.TradeRequestDto;
+import com.pt.crypto_trading.exception.InsufficientBalanceException;
+import com.pt.crypto_trading.exception.ResourceNotFoundException;
+import com.pt.crypto_trading.repository.TradeRepository;
+import com.pt.crypto_trading.repository.WalletRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Collects concurrent trades into micro-batches and settles each batch in one transaction, so the commit
+// and its fsync are paid once per batch; callers are released only after their batch has committed
+@Component
+@ConditionalOnExpression("${app.group-commit.enabled:false} and !${app.ledger.enabled:false}")
+@Slf4j
+public class TradeGroupCommitter {
+    
+    private final TradeRepository tradeRepository;
+    private final WalletRepository walletRepository;
+    private final IdempotencyService idempotencyService;
+    private final PositionService positionService;
+    private final TransactionTemplate transactionTemplate;
+    private final GroupCommitProperties config;
+    private final BlockingQueue<PendingTrade> queue;
+    
+    private final DistributionSummary batchSizeSummary;
+    private final Timer commitTimer;
+    
+    private volatile boolean running;
+    private Thread committerThread;
+    
+    public TradeGroupCommitter(TradeRepository tradeRepository,
+                               WalletRepository walletRepository,
+                               IdempotencyService idempotencyService,
+                               PositionService positionService,
+                               TransactionTemplate transactionTemplate,
+                               GroupCommitProperties config,
+                               MeterRegistry meterRegistry) {
+        this.tradeRepository = tradeRepository;
+        this.walletRepository = walletRepository;
+        this.idempotencyService = idempotencyService;
+        this.positionService = positionService;
+        this.transactionTemplate = transactionTemplate;
+        this.config = config;
+        this.queue = new ArrayBlockingQueue<>(config.getQueueCapacity());
+        
+        Gauge.builder("trade.group.commit.queue.size", queue, BlockingQueue::size)
+                .description("Trades waiting for the next group commit")
+                .register(meterRegistry);
+        this.batchSizeSummary = meterRegistry.summary("trade.group.commit.batch.size");
+        this.commitTimer = meterRegistry.timer("trade.group.commit");
+    }
+    
+    @PostConstruct
+    public void start() {
+        running = true;
+        committerThread = new Thread(this::runCommitter, "trade-group-commit");
+        committerThread.setDaemon(true);
+        committerThread.start();
+    }
+    
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        committerThread.join(10_000);
+    }
+    
+    // Amounts are FixedPoint longs; blocks until the trade's batch has committed, or the settle timeout passes
+    public Settlement settle(Long userId, TradeRequestDto request, String requestHash,
+                             long price, long quantity, long totalAmount) {
+        PendingTrade pending = new PendingTrade(userId, request, requestHash, price, quantity, totalAmount,
+                new CompletableFuture<>());
+        
+        try {
+            if (!running) {
+                throw new IllegalStateException("Trade group commit is not running");
+            }
+            queue.put(pending);
+            return pending.result().get(config.getSettleTimeoutMs(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for group commit", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            // Still queued means it never ran; once taken into a batch its outcome is up to that commit
+            if (queue.remove(pending)) {
+                throw new IllegalStateException("Trade group commit timed out; the trade was not settled");
+            }
+            throw new IllegalStateException("Trade group commit timed out; the trade may still settle");
+        }
+    }
+    
+    private void runCommitter() {
+        List<PendingTrade> batch = new ArrayList<>(config.getMaxBatchSize());
+        long maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(config.getMaxWaitMs());
+        
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingTrade first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                
+                // The batch closes when it is full or the first trade has waited long enough
+                long deadline = System.nanoTime() + maxWaitNanos;
+                while (batch.size() < config.getMaxBatchSize()) {
+                    queue.drainTo(batch, config.getMaxBatchSize() - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= config.getMaxBatchSize() || remaining <= 0) {
+                        break;
+                    }
+                    PendingTrade next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                
+                commit(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.error("Trade group commit loop failed", e);
+                batch.forEach(pending -> pending.result().completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+    
+    private void commit(List<PendingTrade> batch) {
+        batchSizeSummary.record(batch.size());
+        
+        List<Settlement> settlements;
+        try {
+            settlements = commitTimer.record(() -> transactionTemplate.execute(status -> settleBatch(batch)));
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                batch.get(0).result().completeExceptionally(e);
+                return;
+            }
+            // One bad trade must not fail its neighbours: settle each on its own instead
+            log.warn("Group commit of {} trades failed, settling individually: {}", batch.size(), e.getMessage());
+            for (PendingTrade pending : batch) {
+                commit(List.of(pending));
+            }
+            return;
+        }
+        
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).result().complete(settlements.get(i));
+        }
+    }
+    
+    // Balance checks run in memory against the locked wallets in arrival order; dirty wallets and the
+    // new trades go out as JDBC batches when the transaction flushes. A rejected trade writes nothing, neither
+    // a trade row nor its idempotency key, the same as the single-trade path rolling it back, so a retry
+    // with the same key runs again instead of replaying the rejection
+    private List<Settlement> settleBatch(List<PendingTrade> batch) {
+        Set<Long> userIds = new HashSet<>();
+        batch.forEach(pending -> userIds.add(pending.userId()));
+        
+        Map<WalletKey, Wallet> wallets = new HashMap<>();
+        for (Wallet wallet : walletRepository.findByUserIdInForUpdate(userIds)) {
+            wallets.put(new WalletKey(wallet.getUserId(), wallet.getCurrency()), wallet);
+        }
+        
+        List<Trade> trades = new ArrayList<>(batch.size());
+        List<PendingTrade> settled = new ArrayList<>(batch.size());
+        List<Settlement> settlements = new ArrayList<>(batch.size());
+        
+        for (PendingTrade pending : batch) {
+            RuntimeException failure = apply(pending, wallets);
+            if (failure != null) {
+                settlements.add(new Settlement(null, failure));
+                continue;
+            }
+            
+            TradeRequestDto request = pending.request();
+            Trade trade = new Trade(pending.userId(), request.getTradingPair(), request.getType(),
+                                    request.getQuantity(), FixedPoint.toBigDecimal(pending.price()));
+            trade.setTotalAmount(FixedPoint.toBigDecimal(pending.totalAmount()));
+            trade.markAsCompleted();
+            trades.add(trade);
+            settled.add(pending);
+            settlements.add(null);
+        }
+        
+        // The sequence assigns ids here; the inserts themselves go out as one JDBC batch at flush
+        List<Trade> savedTrades = tradeRepository.saveAll(trades);
+        
+        List<PositionService.Fill> fills = new ArrayList<>(settled.size());
+        List<IdempotentRequest> requests = new ArrayList<>(settled.size());
+        for (int i = 0; i < settled.size(); i++) {
+            PendingTrade pending = settled.get(i);
+            Trade savedTrade = savedTrades.get(i);
+            fills.add(new PositionService.Fill(pending.userId(), pending.request().getTradingPair(),
+                    pending.request().getType(), pending.quantity(), pending.price()));
+            IdempotentRequest request = new IdempotentRequest(pending.request().getIdempotencyKey(),
+                    pending.userId(), pending.requestHash());
+            request.setTradeId(savedTrade.getId());
+            requests.add(request);
+        }
+        
+        // Completed trades fill the slots their rejected neighbours left empty, in arrival order
+        int next = 0;
+        for (int i = 0; i < settlements.size(); i++) {
+            if (settlements.get(i) == null) {
+                settlements.set(i, new Settlement(savedTrades.get(next++), null));
+            }
+        }
+        idempotencyService.saveIdempotentRequests(requests);
+        positionService.applyTrades(fills);
+        return settlements;
+    }
+    
+    private RuntimeException apply(PendingTrade pending, Map<WalletKey, Wallet> wallets) {
+        TradingPair tradingPair = pending.request().getTradingPair();
+        boolean buy = pending.request().getType() == TradeType.BUY;
+        Currency debitCurrency = buy ? tradingPair.getQuoteCurrency() : tradingPair.getBaseCurrency();
+        Currency creditCurrency = buy ? tradingPair.getBaseCurrency() : tradingPair.getQuoteCurrency();
+        long debitAmount = buy ? pending.totalAmount() : pending.quantity();
+        long creditAmount = buy ? pending.quantity() : pending.totalAmount();
+        
+        Wallet debit = wallets.get(new WalletKey(pending.userId(), debitCurrency));
+        Wallet credit = wallets.get(new WalletKey(pending.userId(), creditCurrency));
+        if (debit == null || credit == null) {
+            return new ResourceNotFoundException(String.format("Wallet not found for user %d and currency %s",
+                    pending.userId(), debit == null ? debitCurrency : creditCurrency));
+        }
+        if (!debit.hasSufficientBalance(debitAmount)) {
+            return new InsufficientBalanceException(String.format("Insufficient %s balance. Required: %s",
+                    debitCurrency, FixedPoint.toBigDecimal(debitAmount)));
+        }
+        
+        debit.subtractBalance(debitAmount);
+        credit.addBalance(creditAmount);
+        return null;
+    }
+    
+    // Either the stored, completed trade, or the reason the trade was rejected without storing anything
+    public record Settlement(Trade trade, RuntimeException failure) {}
+    
+    private record WalletKey(Long userId, Currency currency) {}
+    
+    private record PendingTrade(
+        Long userId,
+        TradeRequestDto request,
+        String requestHash,
+        long price,
+        long quantity,
+        long totalAmount,
+        CompletableFuture<Settlement> result
+    ) {}
+}
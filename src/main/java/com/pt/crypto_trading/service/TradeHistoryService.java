@@ -0,0 +1,8 @@
+package com.pt.crypto_trading.service;
+
+import com.pt.crypto_trading.dto.TradeHistoryFilter;
+import com.pt.crypto_trading.dto.TradeHistoryPageDto;
+
+public interface TradeHistoryService {
+    TradeHistoryPageDto getTradeHistory(Long userId, TradeHistoryFilter filter, String cursor, int limit);
+}
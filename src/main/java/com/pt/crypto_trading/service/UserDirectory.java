@@ -0,0 +1,136 @@
+package com.pt.crypto_trading.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.pt.crypto_trading.config.UserDirectoryProperties;
+import com.pt.crypto_trading.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Which user ids exist, answered from memory: identity ids sit in a bitmap, anything else in a set.
+// Users are never deleted, so a known id stays known; misses go to the database once and unknown ids
+// are remembered in a bounded negative cache
+@Component
+@Slf4j
+public class UserDirectory {
+    
+    private static final int INITIAL_WORDS = 1024;
+    
+    private final UserRepository userRepository;
+    private final Cache<Long, Boolean> unknownIds;
+    
+    // Written under this object's lock only, so a growing copy never loses a concurrent bit
+    private volatile AtomicLongArray knownBits = new AtomicLongArray(INITIAL_WORDS);
+    private final Set<Long> knownSparse = ConcurrentHashMap.newKeySet();
+    
+    private final Counter knownCounter;
+    private final Counter unknownCounter;
+    private final Counter loadedCounter;
+    
+    public UserDirectory(UserRepository userRepository,
+                         UserDirectoryProperties properties,
+                         MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.unknownIds = Caffeine.newBuilder()
+                .maximumSize(properties.getNegativeCacheSize())
+                .expireAfterWrite(Duration.ofMillis(properties.getNegativeTtlMs()))
+                .build();
+        
+        Gauge.builder("user.directory.negative.size", unknownIds, Cache::estimatedSize)
+                .description("Unknown user ids remembered by the directory")
+                .register(meterRegistry);
+        this.knownCounter = meterRegistry.counter("user.directory.lookups", "outcome", "known");
+        this.unknownCounter = meterRegistry.counter("user.directory.lookups", "outcome", "unknown");
+        this.loadedCounter = meterRegistry.counter("user.directory.lookups", "outcome", "loaded");
+    }
+    
+    @PostConstruct
+    public void load() {
+        int count = 0;
+        for (Long userId : userRepository.findAllIds()) {
+            add(userId);
+            count++;
+        }
+        log.info("User directory loaded {} users", count);
+    }
+    
+    public boolean contains(Long userId) {
+        if (userId == null || userId <= 0) {
+            unknownCounter.increment();
+            return false;
+        }
+        if (isKnown(userId)) {
+            knownCounter.increment();
+            return true;
+        }
+        if (unknownIds.getIfPresent(userId) != null) {
+            unknownCounter.increment();
+            return false;
+        }
+        
+        // Created on another instance, or not at all; concurrent misses for one id share the lookup
+        boolean exists = unknownIds.get(userId, id -> userRepository.existsById(id) ? null : Boolean.TRUE) == null;
+        if (exists) {
+            add(userId);
+            loadedCounter.increment();
+        } else {
+            unknownCounter.increment();
+        }
+        return exists;
+    }
+    
+    // Publishes a new user once the creating transaction commits, never before
+    public void register(Long userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    add(userId);
+                }
+            });
+        } else {
+            add(userId);
+        }
+    }
+    
+    private boolean isKnown(long userId) {
+        if (userId > Integer.MAX_VALUE) {
+            return knownSparse.contains(userId);
+        }
+        AtomicLongArray bits = knownBits;
+        int word = (int) (userId >>> 6);
+        return word < bits.length() && (bits.get(word) & (1L << userId)) != 0;
+    }
+    
+    // Known ids are checked before the negative cache, so a stale negative entry cannot hide a registered user
+    private synchronized void add(long userId) {
+        if (userId > Integer.MAX_VALUE) {
+            knownSparse.add(userId);
+            unknownIds.invalidate(userId);
+            return;
+        }
+        
+        int word = (int) (userId >>> 6);
+        AtomicLongArray bits = knownBits;
+        if (word >= bits.length()) {
+            AtomicLongArray grown = new AtomicLongArray(Math.max(word + 1, bits.length() * 2));
+            for (int i = 0; i < bits.length(); i++) {
+                grown.set(i, bits.get(i));
+            }
+            knownBits = bits = grown;
+        }
+        bits.set(word, bits.get(word) | (1L << userId));
+        unknownIds.invalidate(userId);
+    }
+}
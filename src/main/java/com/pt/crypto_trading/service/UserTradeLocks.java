@@ -0,0 +1,83 @@
+package com.pt.crypto_trading.service;
+
+import com.pt.crypto_trading.config.TradeLockProperties;
+import com.pt.crypto_trading.exception.TradeLockTimeoutException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+// Striped per-user locks: trades of one user run one at a time inside the JVM, so they never queue on
+// each other's wallet rows in the database
+@Component
+@Slf4j
+public class UserTradeLocks {
+    
+    private final ReentrantLock[] stripes;
+    private final int mask;
+    private final long timeoutMs;
+    
+    private final Counter uncontendedCounter;
+    private final Counter contendedCounter;
+    private final Counter timedOutCounter;
+    private final Timer waitTimer;
+    
+    public UserTradeLocks(TradeLockProperties properties, MeterRegistry meterRegistry) {
+        int size = properties.getStripes() <= 1 ? 1 : Integer.highestOneBit(properties.getStripes() - 1) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+        this.timeoutMs = properties.getTimeoutMs();
+        
+        this.uncontendedCounter = meterRegistry.counter("trade.user.lock.acquisitions", "outcome", "uncontended");
+        this.contendedCounter = meterRegistry.counter("trade.user.lock.acquisitions", "outcome", "contended");
+        this.timedOutCounter = meterRegistry.counter("trade.user.lock.acquisitions", "outcome", "timeout");
+        this.waitTimer = meterRegistry.timer("trade.user.lock.wait");
+    }
+    
+    public <T> T withUserLock(Long userId, Supplier<T> action) {
+        ReentrantLock lock = stripes[stripe(userId)];
+        
+        if (lock.tryLock()) {
+            uncontendedCounter.increment();
+        } else {
+            contendedCounter.increment();
+            acquire(userId, lock);
+        }
+        
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private void acquire(Long userId, ReentrantLock lock) {
+        long start = System.nanoTime();
+        try {
+            boolean acquired = lock.tryLock(timeoutMs, TimeUnit.MILLISECONDS);
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (!acquired) {
+                timedOutCounter.increment();
+                log.warn("Timed out after {} ms waiting for trade lock of user {}", timeoutMs, userId);
+                throw new TradeLockTimeoutException("Too many concurrent trades for user " + userId);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for trade lock of user " + userId, e);
+        }
+    }
+    
+    // Spreads sequential user ids across stripes
+    private int stripe(Long userId) {
+        long hash = userId * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
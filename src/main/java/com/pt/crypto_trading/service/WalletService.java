@@ -1,7 +1,7 @@
 package com.pt.crypto_trading.service;
 
 import com.pt.crypto_trading.domain.entity.Wallet;
-import com.pt.crypto_trading.domain.enums.Currency;
+import com.pt.crypto_trading.domain.instrument.Currency;
 import com.pt.crypto_trading.dto.WalletDto;
 
 import java.math.BigDecimal;
@@ -11,6 +11,7 @@ public interface WalletService {
     List<WalletDto> getUserWallets(Long userId);
     WalletDto getUserWallet(Long userId, Currency currency);
     Wallet createWallet(Long userId, Currency currency, BigDecimal initialBalance);
-    void updateBalance(Long userId, Currency currency, BigDecimal amount);
-    boolean hasSufficientBalance(Long userId, Currency currency, BigDecimal amount);
+    // Amounts are positive FixedPoint scaled longs; debit returns false when the balance is insufficient
+    boolean debit(Long userId, Currency currency, long amount);
+    void credit(Long userId, Currency currency, long amount);
 }
@@ -0,0 +1,97 @@
+package com.pt.crypto_trading.service.impl;
+
+import com.pt.crypto_trading.domain.entity.Trade;
+import com.pt.crypto_trading.domain.money.FixedPoint;
+import com.pt.crypto_trading.dto.TradeRequestDto;
+import com.pt.crypto_trading.dto.TradeResponseDto;
+import com.pt.crypto_trading.exception.InsufficientBalanceException;
+import com.pt.crypto_trading.exception.ResourceNotFoundException;
+import com.pt.crypto_trading.repository.TradeRepository;
+import com.pt.crypto_trading.service.IdempotencyCache;
+import com.pt.crypto_trading.service.IdempotencyService;
+import com.pt.crypto_trading.service.PriceService;
+import com.pt.crypto_trading.service.TradeGroupCommitter;
+import com.pt.crypto_trading.service.TradeService;
+import com.pt.crypto_trading.service.UserService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.RoundingMode;
+
+// Not @Transactional on purpose: a caller holding a connection while it waits for the batch would starve the committer
+@Service
+@ConditionalOnExpression("${app.group-commit.enabled:false} and !${app.ledger.enabled:false}")
+@RequiredArgsConstructor
+@Slf4j
+public class GroupCommitTradeServiceImpl implements TradeService {
+    
+    private final TradeGroupCommitter tradeGroupCommitter;
+    private final TradeRepository tradeRepository;
+    private final PriceService priceService;
+    private final UserService userService;
+    private final IdempotencyService idempotencyService;
+    private final IdempotencyCache idempotencyCache;
+    
+    @Override
+    public TradeResponseDto executeTrade(Long userId, TradeRequestDto request) {
+        return idempotencyCache.execute(userId, request, requestHash -> executeOnce(userId, request, requestHash));
+    }
+    
+    private TradeResponseDto executeOnce(Long userId, TradeRequestDto request, String requestHash) {
+        log.info("Executing grouped trade for user {}: {} {} {}",
+                userId, request.getType(), request.getQuantity(), request.getTradingPair());
+        
+        TradeResponseDto existingResult = idempotencyService.checkIdempotency(userId, request, requestHash);
+        if (existingResult != null) {
+            return existingResult;
+        }
+        
+        request.validateBusinessRules();
+        
+        if (!userService.userExists(userId)) {
+            throw new ResourceNotFoundException("User not found: " + userId);
+        }
+        
+        TradeGroupCommitter.Settlement settlement;
+        try {
+            long executionPrice = priceService.getScaledExecutionPrice(request.getTradingPair(), request.getType());
+            long quantity = FixedPoint.toScaled(request.getQuantity(), RoundingMode.UNNECESSARY);
+            long totalAmount = FixedPoint.multiply(quantity, executionPrice, RoundingMode.HALF_UP);
+            
+            settlement = tradeGroupCommitter.settle(userId, request, requestHash, executionPrice, quantity, totalAmount);
+        } catch (Exception e) {
+            log.error("Failed to execute trade for user {}: {}", userId, e.getMessage(), e);
+            throw new RuntimeException("Trade execution failed: " + e.getMessage(), e);
+        }
+        
+        if (settlement.failure() != null) {
+            log.warn("Trade for user {} was rejected: {}", userId, settlement.failure().getMessage());
+            if (settlement.failure() instanceof InsufficientBalanceException) {
+                throw settlement.failure();
+            }
+            throw new RuntimeException("Trade execution failed: " + settlement.failure().getMessage(), settlement.failure());
+        }
+        
+        Trade savedTrade = settlement.trade();
+        log.info("Successfully executed trade {} for user {}", savedTrade.getId(), userId);
+        return TradeResponseDto.fromTrade(savedTrade);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public Page<TradeResponseDto> getUserTradeHistory(Long userId, Pageable pageable) {
+        log.debug("Fetching trade history for user: {}", userId);
+        
+        if (!userService.userExists(userId)) {
+            throw new ResourceNotFoundException("User not found: " + userId);
+        }
+        
+        Page<Trade> trades = tradeRepository.findByUserIdOrderByCreatedAtDesc(userId, pageable);
+        return trades.map(TradeResponseDto::fromTrade);
+    }
+}
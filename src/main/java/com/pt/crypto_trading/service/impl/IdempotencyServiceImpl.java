@@ -5,17 +5,22 @@ import com.pt.crypto_trading.domain.entity.Trade;
 import com.pt.crypto_trading.dto.TradeRequestDto;
 import com.pt.crypto_trading.dto.TradeResponseDto;
 import com.pt.crypto_trading.exception.DuplicateRequestException;
+import com.pt.crypto_trading.ledger.Ledger;
+import com.pt.crypto_trading.ledger.LedgerEntry;
 import com.pt.crypto_trading.repository.IdempotentRequestRepository;
 import com.pt.crypto_trading.repository.TradeRepository;
 import com.pt.crypto_trading.service.IdempotencyService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 @Service
@@ -23,17 +28,22 @@ import java.util.Optional;
 @Slf4j
 public class IdempotencyServiceImpl implements IdempotencyService {
     
+    private static final String INSERT_IDEMPOTENT_REQUEST =
+            "INSERT INTO idempotent_requests (idempotency_key, user_id, trade_id, request_hash, created_at, expires_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?)";
+    
     private final IdempotentRequestRepository idempotentRequestRepository;
     private final TradeRepository tradeRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final Optional<Ledger> ledger; // Present when app.ledger.enabled
     
     @Override
     @Transactional(readOnly = true)
-    public TradeResponseDto checkIdempotency(Long userId, TradeRequestDto request) {
+    public TradeResponseDto checkIdempotency(Long userId, TradeRequestDto request, String requestHash) {
         if (request.getIdempotencyKey() == null || request.getIdempotencyKey().trim().isEmpty()) {
             return null; // No idempotency key provided, proceed with normal execution
         }
         
-        String requestHash = generateRequestHash(request);
         Optional<IdempotentRequest> existingRequest = idempotentRequestRepository
                 .findByIdempotencyKeyAndUserId(request.getIdempotencyKey(), userId);
         
@@ -59,6 +69,18 @@ public class IdempotencyServiceImpl implements IdempotencyService {
                     return TradeResponseDto.fromTrade(trade.get());
                 }
             }
+            return null;
+        }
+        
+        // A ledger trade is acknowledged once journaled, before the projector writes its key's row
+        Optional<LedgerEntry> pending = ledger.flatMap(l -> l.findUnprojected(userId, request.getIdempotencyKey()));
+        if (pending.isPresent()) {
+            if (!requestHash.equals(pending.get().requestHash())) {
+                throw new DuplicateRequestException("Idempotency key already used with different request content");
+            }
+            log.info("Returning unprojected ledger trade for idempotency key: {} user: {}", 
+                    request.getIdempotencyKey(), userId);
+            return TradeResponseDto.fromLedgerEntry(pending.get(), request.getTradingPair());
         }
         
         return null;
@@ -78,28 +100,29 @@ public class IdempotencyServiceImpl implements IdempotencyService {
         log.debug("Saved idempotent request: key={}, userId={}, tradeId={}", 
                 idempotencyKey, userId, tradeId);
     }
-
-    private String generateRequestHash(TradeRequestDto request) {
-        try {
-            String content = String.format("%s-%s-%s", 
-                    request.getTradingPair(), 
-                    request.getType(), 
-                    request.getQuantity().toPlainString());
-            
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] hash = digest.digest(content.getBytes(StandardCharsets.UTF_8));
-            
-            StringBuilder hexString = new StringBuilder();
-            for (byte b : hash) {
-                String hex = Integer.toHexString(0xff & b);
-                if (hex.length() == 1) {
-                    hexString.append('0');
-                }
-                hexString.append(hex);
+    
+    // One JDBC batch for a whole group commit; the IDENTITY key keeps Hibernate from batching these inserts
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void saveIdempotentRequests(List<IdempotentRequest> requests) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = new ArrayList<>(requests.size());
+        for (IdempotentRequest request : requests) {
+            if (request.getIdempotencyKey() == null || request.getIdempotencyKey().trim().isEmpty()) {
+                continue;
             }
-            return hexString.toString();
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException("SHA-256 algorithm not available", e);
+            rows.add(new Object[] {
+                    request.getIdempotencyKey(),
+                    request.getUserId(),
+                    request.getTradeId(),
+                    request.getRequestHash(),
+                    Timestamp.valueOf(now),
+                    Timestamp.valueOf(now.plus(IdempotentRequest.TTL))});
+        }
+        
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_IDEMPOTENT_REQUEST, rows);
+            log.debug("Saved {} idempotent requests", rows.size());
         }
     }
 }
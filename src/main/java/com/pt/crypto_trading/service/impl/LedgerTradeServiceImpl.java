@@ -0,0 +1,100 @@
+package com.pt.crypto_trading.service.impl;
+
+import com.pt.crypto_trading.domain.entity.Trade;
+import com.pt.crypto_trading.domain.money.FixedPoint;
+import com.pt.crypto_trading.dto.TradeRequestDto;
+import com.pt.crypto_trading.dto.TradeResponseDto;
+import com.pt.crypto_trading.exception.InsufficientBalanceException;
+import com.pt.crypto_trading.exception.ResourceNotFoundException;
+import com.pt.crypto_trading.ledger.Ledger;
+import com.pt.crypto_trading.ledger.LedgerEntry;
+import com.pt.crypto_trading.repository.TradeRepository;
+import com.pt.crypto_trading.service.IdempotencyCache;
+import com.pt.crypto_trading.service.IdempotencyService;
+import com.pt.crypto_trading.service.PriceService;
+import com.pt.crypto_trading.service.TradeService;
+import com.pt.crypto_trading.service.UserService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.RoundingMode;
+
+// Settles through the in-memory ledger; the trades and wallets tables trail it through the ledger projector
+@Service
+@ConditionalOnProperty(prefix = "app.ledger", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class LedgerTradeServiceImpl implements TradeService {
+    
+    private final Ledger ledger;
+    private final TradeRepository tradeRepository;
+    private final PriceService priceService;
+    private final UserService userService;
+    private final IdempotencyService idempotencyService;
+    private final IdempotencyCache idempotencyCache;
+    
+    @Override
+    public TradeResponseDto executeTrade(Long userId, TradeRequestDto request) {
+        return idempotencyCache.execute(userId, request, requestHash -> executeOnce(userId, request, requestHash));
+    }
+    
+    private TradeResponseDto executeOnce(Long userId, TradeRequestDto request, String requestHash) {
+        log.info("Executing ledger trade for user {}: {} {} {}",
+                userId, request.getType(), request.getQuantity(), request.getTradingPair());
+        
+        TradeResponseDto existingResult = idempotencyService.checkIdempotency(userId, request, requestHash);
+        if (existingResult != null) {
+            return existingResult;
+        }
+        
+        request.validateBusinessRules();
+        
+        if (!userService.userExists(userId)) {
+            throw new ResourceNotFoundException("User not found: " + userId);
+        }
+        
+        try {
+            long executionPrice = priceService.getScaledExecutionPrice(request.getTradingPair(), request.getType());
+            long quantity = FixedPoint.toScaled(request.getQuantity(), RoundingMode.UNNECESSARY);
+            long totalAmount = FixedPoint.multiply(quantity, executionPrice, RoundingMode.HALF_UP);
+            
+            // The key is journaled with the trade, and the projector writes its idempotent_requests row
+            // together with the trade row, so no crash can separate a settled trade from its key
+            String idempotencyKey = requestHash != null ? request.getIdempotencyKey() : null;
+            LedgerEntry entry = ledger.execute(userId, request.getTradingPair(), request.getType(),
+                                               quantity, executionPrice, totalAmount, idempotencyKey, requestHash);
+            
+            log.info("Successfully executed ledger trade {} for user {}", entry.tradeId(), userId);
+            return TradeResponseDto.fromLedgerEntry(entry, request.getTradingPair());
+            
+        } catch (Exception e) {
+            // A rejected trade leaves no trace, as in TradeServiceImpl where it rolls back, so a retry with
+            // the same key runs again rather than replaying the rejection
+            log.error("Failed to execute trade for user {}: {}", userId, e.getMessage(), e);
+            
+            if (e instanceof InsufficientBalanceException || e instanceof ResourceNotFoundException) {
+                throw e;
+            }
+            throw new RuntimeException("Trade execution failed: " + e.getMessage(), e);
+        }
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public Page<TradeResponseDto> getUserTradeHistory(Long userId, Pageable pageable) {
+        log.debug("Fetching trade history for user: {}", userId);
+        
+        if (!userService.userExists(userId)) {
+            throw new ResourceNotFoundException("User not found: " + userId);
+        }
+        
+        // Reads the projection, so trades acknowledged in the last flush interval may not be listed yet
+        Page<Trade> trades = tradeRepository.findByUserIdOrderByCreatedAtDesc(userId, pageable);
+        return trades.map(TradeResponseDto::fromTrade);
+    }
+}
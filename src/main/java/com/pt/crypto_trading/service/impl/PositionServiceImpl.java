@@ -0,0 +1,96 @@
+package com.pt.crypto_trading.service.impl;
+
+import com.pt.crypto_trading.domain.entity.Position;
+import com.pt.crypto_trading.domain.enums.TradeType;
+import com.pt.crypto_trading.domain.instrument.TradingPair;
+import com.pt.crypto_trading.dto.PositionDto;
+import com.pt.crypto_trading.exception.ResourceNotFoundException;
+import com.pt.crypto_trading.repository.PositionRepository;
+import com.pt.crypto_trading.service.PositionService;
+import com.pt.crypto_trading.service.UserService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Positions are a read model kept current by the trade paths, so reads cost one row whatever the trade count
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PositionServiceImpl implements PositionService {
+    
+    private final PositionRepository positionRepository;
+    private final UserService userService;
+    
+    @Override
+    @Transactional(readOnly = true)
+    public List<PositionDto> getUserPositions(Long userId) {
+        log.debug("Fetching positions for user: {}", userId);
+        requireUser(userId);
+        
+        return positionRepository.findByUserIdOrderByTradingPair(userId).stream()
+                .map(PositionDto::fromPosition)
+                .toList();
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public PositionDto getUserPosition(Long userId, TradingPair tradingPair) {
+        log.debug("Fetching {} position for user: {}", tradingPair, userId);
+        requireUser(userId);
+        
+        return positionRepository.findByUserIdAndTradingPair(userId, tradingPair)
+                .map(PositionDto::fromPosition)
+                .orElseGet(() -> PositionDto.flat(userId, tradingPair));
+    }
+    
+    // Mandatory: a position must commit or roll back together with the trade that moved it. Callers
+    // already serialise a user's trades, through the user lock, the wallet row locks or the projector thread
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void applyTrade(Long userId, TradingPair tradingPair, TradeType type, long quantity, long price) {
+        Position position = positionRepository.findByUserIdAndTradingPair(userId, tradingPair)
+                .orElseGet(() -> new Position(userId, tradingPair));
+        position.apply(type, quantity, price);
+        positionRepository.save(position);
+    }
+    
+    // One query for all positions of the batch's users, so the session is not flushed once per trade
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void applyTrades(List<Fill> fills) {
+        if (fills.isEmpty()) {
+            return;
+        }
+        
+        Set<Long> userIds = new HashSet<>();
+        fills.forEach(fill -> userIds.add(fill.userId()));
+        
+        Map<PositionKey, Position> positions = new HashMap<>();
+        for (Position position : positionRepository.findByUserIdIn(userIds)) {
+            positions.put(new PositionKey(position.getUserId(), position.getTradingPair()), position);
+        }
+        
+        for (Fill fill : fills) {
+            PositionKey key = new PositionKey(fill.userId(), fill.tradingPair());
+            Position position = positions.computeIfAbsent(key, k -> new Position(k.userId(), k.tradingPair()));
+            position.apply(fill.type(), fill.quantity(), fill.price());
+        }
+        positionRepository.saveAll(positions.values());
+    }
+    
+    private void requireUser(Long userId) {
+        if (!userService.userExists(userId)) {
+            throw new ResourceNotFoundException("User not found: " + userId);
+        }
+    }
+    
+    private record PositionKey(Long userId, TradingPair tradingPair) {}
+}
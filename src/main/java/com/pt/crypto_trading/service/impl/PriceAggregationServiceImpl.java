@@ -1,26 +1,31 @@
 package com.pt.crypto_trading.service.impl;
 
-import com.pt.crypto_trading.domain.entity.BestPrice;
-import com.pt.crypto_trading.domain.entity.PriceHistory;
-import com.pt.crypto_trading.domain.enums.TradingPair;
+import com.pt.crypto_trading.config.PriceProviderProperties;
+import com.pt.crypto_trading.domain.instrument.TradingPair;
 import com.pt.crypto_trading.integration.client.PriceProvider;
-import com.pt.crypto_trading.repository.BestPriceRepository;
-import com.pt.crypto_trading.repository.PriceHistoryRepository;
+import com.pt.crypto_trading.integration.client.ProviderFanOut;
+import com.pt.crypto_trading.integration.client.ProviderHealthRegistry;
+import com.pt.crypto_trading.integration.client.StreamingPriceProvider;
+import com.pt.crypto_trading.integration.enums.PriceSource;
+import com.pt.crypto_trading.service.BestPriceBook;
+import com.pt.crypto_trading.service.CandleBook;
+import com.pt.crypto_trading.service.InstrumentRegistry;
 import com.pt.crypto_trading.service.PriceAggregationService;
+import com.pt.crypto_trading.service.PriceHistoryWriter;
+import com.pt.crypto_trading.service.PriceService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-import org.springframework.orm.ObjectOptimisticLockingFailureException;
-import org.springframework.retry.annotation.Backoff;
-import org.springframework.retry.annotation.Retryable;
 
-import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -28,21 +33,26 @@ import java.util.stream.Collectors;
 public class PriceAggregationServiceImpl implements PriceAggregationService {
     
     private final List<PriceProvider> priceProviders;
-    private final BestPriceRepository bestPriceRepository;
-    private final PriceHistoryRepository priceHistoryRepository;
+    private final ProviderHealthRegistry providerHealthRegistry;
+    private final ProviderFanOut providerFanOut;
+    private final BestPriceBook bestPriceBook;
+    private final PriceService priceService;
+    private final PriceHistoryWriter priceHistoryWriter;
+    private final CandleBook candleBook;
+    private final InstrumentRegistry instrumentRegistry;
+    private final PriceProviderProperties priceProviderProperties;
     
+    // Freshest quote per provider with the time it arrived, fed by REST polling and by streaming pushes
+    private final Map<PriceSource, Map<TradingPair, ReceivedQuote>> latestQuotes = new ConcurrentHashMap<>();
+    private final Set<TradingPair> dirtyPairs = ConcurrentHashMap.newKeySet();
+    
+    // Exchange I/O and aggregation run outside any transaction; only the final write stage holds a connection
     @Override
-    @Transactional
-    @CacheEvict(value = {"prices", "allPrices", "executionPrices"}, allEntries = true)
     public void aggregateAndUpdatePrices() {
-        log.debug("Starting price aggregation from {} providers and clearing cache", priceProviders.size());
+        log.debug("Starting price aggregation from {} providers", priceProviders.size());
         
         try {
-            List<Map<TradingPair, PriceProvider.PriceData>> pricesByProvider = priceProviders.stream()
-                    .parallel()
-                    .map(this::fetchPricesWithFallback)
-                    .filter(prices -> !prices.isEmpty())
-                    .collect(Collectors.toList());
+            List<Map<TradingPair, PriceProvider.PriceData>> pricesByProvider = collectProviderPrices();
             
             if (pricesByProvider.isEmpty()) {
                 log.warn("No price data available from any provider");
@@ -51,9 +61,16 @@ public class PriceAggregationServiceImpl implements PriceAggregationService {
             
             Map<TradingPair, BestPriceResult> bestPrices = aggregatePrices(pricesByProvider);
             
-            updateBestPricesInDatabase(bestPrices);
+            BestPriceBook.Snapshot snapshot = bestPriceBook.publish(bestPrices);
+            priceService.refreshCachedPrices(snapshot);
+            
+            List<BestPriceBook.Quote> published = publishedQuotes(snapshot);
+            long tickTime = System.currentTimeMillis();
+            candleBook.onBestPrices(published, tickTime);
+            candleBook.onProviderPrices(pricesByProvider, tickTime);
             
-            savePriceHistory(pricesByProvider);
+            // Best prices reach the database through BestPriceWriter, off this path
+            priceHistoryWriter.enqueue(pricesByProvider);
             
             log.info("Successfully aggregated prices for {} trading pairs", bestPrices.size());
             
@@ -65,12 +82,13 @@ public class PriceAggregationServiceImpl implements PriceAggregationService {
     
     @Override
     public Map<TradingPair, BestPriceResult> aggregatePrices(List<Map<TradingPair, PriceProvider.PriceData>> pricesByProvider) {
-        return TradingPair.getAllValues().stream()
-                .collect(Collectors.toMap(
-                        tradingPair -> tradingPair,
-                        tradingPair -> findBestPricesForPair(tradingPair, pricesByProvider)
-                ))
-                .entrySet().stream()
+        // Pairs are independent, so a large universe is split across the common pool
+        Stream<TradingPair> tradingPairs = instrumentRegistry.isParallelAggregation()
+                ? instrumentRegistry.pairs().parallelStream()
+                : instrumentRegistry.pairs().stream();
+        
+        return tradingPairs
+                .map(tradingPair -> Map.entry(tradingPair, findBestPricesForPair(tradingPair, pricesByProvider)))
                 .filter(entry -> entry.getValue().bestBid() != null || entry.getValue().bestAsk() != null)
                 .collect(Collectors.toMap(
                         Map.Entry::getKey,
@@ -78,14 +96,137 @@ public class PriceAggregationServiceImpl implements PriceAggregationService {
                 ));
     }
     
+    @Override
+    public void onStreamingPriceUpdate(TradingPair tradingPair, PriceProvider.PriceData priceData) {
+        latestQuotes.computeIfAbsent(priceData.source(), source -> new ConcurrentHashMap<>())
+                .put(tradingPair, new ReceivedQuote(priceData, System.currentTimeMillis()));
+        dirtyPairs.add(tradingPair);
+    }
+    
+    @Override
+    public boolean hasPendingStreamingUpdates() {
+        return !dirtyPairs.isEmpty();
+    }
+    
+    @Override
+    public void flushStreamingUpdates() {
+        Set<TradingPair> pairs = new HashSet<>();
+        for (Iterator<TradingPair> iterator = dirtyPairs.iterator(); iterator.hasNext(); ) {
+            pairs.add(iterator.next());
+            iterator.remove();
+        }
+        
+        if (pairs.isEmpty()) {
+            return;
+        }
+        
+        long now = System.currentTimeMillis();
+        List<Map<TradingPair, PriceProvider.PriceData>> pricesByProvider = latestQuotes.keySet().stream()
+                .map(source -> freshQuotes(source, now))
+                .filter(prices -> !prices.isEmpty())
+                .toList();
+        
+        Map<TradingPair, BestPriceResult> bestPrices = aggregatePrices(pricesByProvider).entrySet().stream()
+                .filter(entry -> pairs.contains(entry.getKey()))
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+        
+        BestPriceBook.Snapshot snapshot = bestPriceBook.publish(bestPrices);
+        priceService.refreshCachedPrices(snapshot);
+        
+        // Only the pairs that were pushed; the rest were already recorded when their own update was applied
+        List<Map<TradingPair, PriceProvider.PriceData>> streamedPrices = pricesByProvider.stream()
+                .map(providerPrices -> providerPrices.entrySet().stream()
+                        .filter(entry -> pairs.contains(entry.getKey()))
+                        .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)))
+                .filter(prices -> !prices.isEmpty())
+                .toList();
+        
+        List<BestPriceBook.Quote> published = publishedQuotes(snapshot);
+        long tickTime = System.currentTimeMillis();
+        candleBook.onBestPrices(published, tickTime);
+        candleBook.onProviderPrices(streamedPrices, tickTime);
+        
+        priceHistoryWriter.enqueue(streamedPrices);
+        
+        log.debug("Applied streamed prices for {} trading pairs", bestPrices.size());
+    }
+    
+    private List<BestPriceBook.Quote> publishedQuotes(BestPriceBook.Snapshot snapshot) {
+        // Only quotes written by this publish; older ones are already folded into the candles
+        return snapshot.quotes().stream()
+                .filter(quote -> quote.version() == snapshot.version())
+                .toList();
+    }
+    
+    private List<Map<TradingPair, PriceProvider.PriceData>> collectProviderPrices() {
+        long now = System.currentTimeMillis();
+        Set<PriceSource> streamedSources = priceProviders.stream()
+                .filter(provider -> isLiveStreaming(provider, now))
+                .map(PriceProvider::getSource)
+                .collect(Collectors.toSet());
+        List<PriceProvider> polledProviders = priceProviders.stream()
+                .filter(provider -> !streamedSources.contains(provider.getSource()))
+                .toList();
+        
+        Map<PriceSource, Map<TradingPair, PriceProvider.PriceData>> polledPrices =
+                providerFanOut.fetchAll(polledProviders, this::fetchPricesWithFallback);
+        
+        polledPrices.forEach((source, prices) -> {
+            if (prices.isEmpty()) {
+                latestQuotes.remove(source);
+            } else {
+                Map<TradingPair, ReceivedQuote> received = new ConcurrentHashMap<>();
+                prices.forEach((tradingPair, priceData) -> received.put(tradingPair, new ReceivedQuote(priceData, now)));
+                latestQuotes.put(source, received);
+            }
+        });
+        
+        return priceProviders.stream()
+                .map(provider -> streamedSources.contains(provider.getSource())
+                        ? freshQuotes(provider.getSource(), now)
+                        : polledPrices.getOrDefault(provider.getSource(), Map.of()))
+                .filter(prices -> !prices.isEmpty())
+                .collect(Collectors.toList());
+    }
+    
+    // A connected stream keeps this provider fresh, no need to poll it, unless it has gone quiet: a socket
+    // can stay open while the exchange stops pushing, so a stream with nothing recent is polled again
+    private boolean isLiveStreaming(PriceProvider provider, long now) {
+        return provider instanceof StreamingPriceProvider streamingProvider
+                && streamingProvider.isStreaming()
+                && !freshQuotes(provider.getSource(), now).isEmpty();
+    }
+    
+    // Quotes older than the staleness cutoff are dropped, so a pair the stream stopped updating is not
+    // quoted from a price it pushed minutes ago
+    private Map<TradingPair, PriceProvider.PriceData> freshQuotes(PriceSource source, long now) {
+        Map<TradingPair, ReceivedQuote> received = latestQuotes.get(source);
+        if (received == null) {
+            return Map.of();
+        }
+        
+        long cutoff = now - priceProviderProperties.getStreaming().getStaleAfterMs();
+        Map<TradingPair, PriceProvider.PriceData> fresh = new HashMap<>();
+        received.forEach((tradingPair, quote) -> {
+            if (quote.receivedAt() < cutoff) {
+                // Conditional, so a quote pushed since the read is kept
+                received.remove(tradingPair, quote);
+            } else {
+                fresh.put(tradingPair, quote.priceData());
+            }
+        });
+        return fresh;
+    }
+    
     private Map<TradingPair, PriceProvider.PriceData> fetchPricesWithFallback(PriceProvider provider) {
         try {
             if (!provider.isAvailable()) {
-                log.warn("Provider {} is not available", provider.getSource());
+                log.warn("Provider {} is not available (circuit {})", 
+                        provider.getSource(), providerHealthRegistry.getState(provider.getSource()));
                 return Map.of();
             }
             
-            Map<TradingPair, PriceProvider.PriceData> prices = provider.fetchPrices();
+            Map<TradingPair, PriceProvider.PriceData> prices = providerHealthRegistry.fetchPrices(provider);
             log.debug("Fetched {} prices from {}", prices.size(), provider.getSource());
             return prices;
             
@@ -105,11 +246,11 @@ public class PriceAggregationServiceImpl implements PriceAggregationService {
             PriceProvider.PriceData priceData = providerPrices.get(tradingPair);
             if (priceData == null) continue;
             
-            if (bestBid == null || priceData.bidPrice().compareTo(bestBid.bidPrice()) > 0) {
+            if (bestBid == null || priceData.scaledBid() > bestBid.scaledBid()) {
                 bestBid = priceData;
             }
             
-            if (bestAsk == null || priceData.askPrice().compareTo(bestAsk.askPrice()) < 0) {
+            if (bestAsk == null || priceData.scaledAsk() < bestAsk.scaledAsk()) {
                 bestAsk = priceData;
             }
         }
@@ -117,78 +258,5 @@ public class PriceAggregationServiceImpl implements PriceAggregationService {
         return new BestPriceResult(bestBid, bestAsk);
     }
     
-    private void updateBestPricesInDatabase(Map<TradingPair, BestPriceResult> bestPrices) {
-        for (Map.Entry<TradingPair, BestPriceResult> entry : bestPrices.entrySet()) {
-            TradingPair tradingPair = entry.getKey();
-            BestPriceResult result = entry.getValue();
-            
-            updateBestPriceWithRetry(tradingPair, result);
-        }
-    }
-    
-    @Retryable(
-        value = {ObjectOptimisticLockingFailureException.class},
-        maxAttempts = 3,
-        backoff = @Backoff(delay = 100, multiplier = 2)
-    )
-    private void updateBestPriceWithRetry(TradingPair tradingPair, BestPriceResult result) {
-        try {
-            Optional<BestPrice> existingBestPrice = bestPriceRepository.findByTradingPair(tradingPair);
-            BestPrice bestPrice = existingBestPrice.orElse(new BestPrice(tradingPair));
-            
-            boolean shouldUpdate = false;
-            
-            if (result.bestBid() != null) {
-                if (bestPrice.getBestBidPrice() == null || 
-                    result.bestBid().bidPrice().compareTo(bestPrice.getBestBidPrice()) > 0) {
-                    bestPrice.setBestBidPrice(result.bestBid().bidPrice());
-                    bestPrice.setBidSource(result.bestBid().source());
-                    shouldUpdate = true;
-                }
-            }
-            
-            if (result.bestAsk() != null) {
-                if (bestPrice.getBestAskPrice() == null || 
-                    result.bestAsk().askPrice().compareTo(bestPrice.getBestAskPrice()) < 0) {
-                    bestPrice.setBestAskPrice(result.bestAsk().askPrice());
-                    bestPrice.setAskSource(result.bestAsk().source());
-                    shouldUpdate = true;
-                }
-            }
-            
-            if (shouldUpdate) {
-                bestPriceRepository.save(bestPrice);
-                log.debug("Updated best price for {}: bid={} ({}), ask={} ({}), version={}", 
-                        tradingPair,
-                        result.bestBid() != null ? result.bestBid().bidPrice() : null,
-                        result.bestBid() != null ? result.bestBid().source() : null,
-                        result.bestAsk() != null ? result.bestAsk().askPrice() : null,
-                        result.bestAsk() != null ? result.bestAsk().source() : null,
-                        bestPrice.getVersion());
-            } else {
-                log.debug("Skipped update for {} - no better prices available", tradingPair);
-            }
-            
-        } catch (ObjectOptimisticLockingFailureException e) {
-            log.warn("Optimistic locking conflict for {}, retrying...", tradingPair);
-            throw e;
-        } catch (Exception e) {
-            log.error("Failed to update best price for {}: {}", tradingPair, e.getMessage(), e);
-        }
-    }
-    
-    private void savePriceHistory(List<Map<TradingPair, PriceProvider.PriceData>> pricesByProvider) {
-        List<PriceHistory> histories = pricesByProvider.stream()
-                .flatMap(providerPrices -> providerPrices.entrySet().stream())
-                .map(entry -> new PriceHistory(
-                        entry.getKey(),
-                        entry.getValue().source(),
-                        entry.getValue().bidPrice(),
-                        entry.getValue().askPrice()
-                ))
-                .collect(Collectors.toList());
-                
-        priceHistoryRepository.saveAll(histories);
-        log.debug("Saved {} price history records", histories.size());
-    }
+    private record ReceivedQuote(PriceProvider.PriceData priceData, long receivedAt) {}
 }
@@ -0,0 +1,60 @@
+package com.pt.crypto_trading.service.impl;
+
+import com.pt.crypto_trading.domain.entity.BestPrice;
+import com.pt.crypto_trading.repository.BestPriceRepository;
+import com.pt.crypto_trading.service.BestPriceBook;
+import com.pt.crypto_trading.service.PricePersistenceService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PricePersistenceServiceImpl implements PricePersistenceService {
+    
+    private final BestPriceRepository bestPriceRepository;
+    
+    @Override
+    @Transactional
+    @Retryable(
+        value = {DuplicateKeyException.class},
+        maxAttempts = 3,
+        backoff = @Backoff(delay = 100, multiplier = 2)
+    )
+    public void persistBestPrices(Collection<BestPriceBook.Quote> quotes) {
+        upsertBestPrices(quotes);
+    }
+    
+    // One MERGE per write-behind run; a concurrent first insert of the same pair surfaces as DuplicateKeyException and is retried
+    private void upsertBestPrices(Collection<BestPriceBook.Quote> quotes) {
+        if (quotes.isEmpty()) {
+            return;
+        }
+        
+        List<BestPrice> rows = quotes.stream()
+                .map(this::toBestPrice)
+                .collect(Collectors.toList());
+        
+        int changed = bestPriceRepository.upsertAll(rows);
+        log.debug("Upserted best prices: {} changed of {} published", changed, rows.size());
+    }
+    
+    private BestPrice toBestPrice(BestPriceBook.Quote quote) {
+        BestPrice bestPrice = new BestPrice(quote.tradingPair());
+        bestPrice.setBestBidPrice(quote.bidPrice());
+        bestPrice.setBestAskPrice(quote.askPrice());
+        bestPrice.setBidSource(quote.bidSource());
+        bestPrice.setAskSource(quote.askSource());
+        bestPrice.setUpdatedAt(quote.updatedAt());
+        return bestPrice;
+    }
+}
@@ -1,21 +1,31 @@
 package com.pt.crypto_trading.service.impl;
 
-import com.pt.crypto_trading.domain.entity.BestPrice;
-import com.pt.crypto_trading.domain.enums.TradingPair;
+import com.pt.crypto_trading.config.PriceProviderProperties;
+import com.pt.crypto_trading.domain.enums.CandleInterval;
+import com.pt.crypto_trading.domain.instrument.TradingPair;
 import com.pt.crypto_trading.domain.enums.TradeType;
+import com.pt.crypto_trading.dto.CandleDto;
 import com.pt.crypto_trading.dto.PriceDto;
+import com.pt.crypto_trading.dto.PriceHistoryDto;
 import com.pt.crypto_trading.exception.ResourceNotFoundException;
-import com.pt.crypto_trading.repository.BestPriceRepository;
+import com.pt.crypto_trading.integration.enums.PriceSource;
+import com.pt.crypto_trading.service.BestPriceBook;
+import com.pt.crypto_trading.service.CandleBook;
+import com.pt.crypto_trading.service.InstrumentRegistry;
 import com.pt.crypto_trading.service.PriceService;
-import com.pt.crypto_trading.service.PriceAggregationService;
+import com.pt.crypto_trading.timeseries.QuoteStore;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.interceptor.SimpleKey;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
-import java.util.Arrays;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -24,55 +34,104 @@ import java.util.stream.Collectors;
 @Slf4j
 public class PriceServiceImpl implements PriceService {
     
-    private final BestPriceRepository bestPriceRepository;
-    private final PriceAggregationService priceAggregationService;
+    private final BestPriceBook bestPriceBook;
+    private final CacheManager cacheManager;
+    private final QuoteStore quoteStore;
+    private final CandleBook candleBook;
+    private final InstrumentRegistry instrumentRegistry;
+    private final PriceProviderProperties priceProviderProperties;
     
     @Override
-    @Transactional(readOnly = true)
-    @Cacheable(value = "allPrices", unless = "#result.isEmpty()")
+    @Cacheable(value = "allPrices", sync = true)
     public List<PriceDto> getAllLatestPrices() {
-        log.debug("Fetching all latest prices from database");
+        log.debug("Reading all latest prices from price book");
         
-        return Arrays.stream(TradingPair.values())
-                .map(this::getLatestPriceFromDatabase)
+        BestPriceBook.Snapshot snapshot = bestPriceBook.snapshot();
+        return instrumentRegistry.pairs().stream()
+                .map(tradingPair -> toPriceDto(tradingPair, snapshot.get(tradingPair)))
                 .collect(Collectors.toList());
     }
     
     @Override
-    @Transactional(readOnly = true)
-    @Cacheable(value = "prices", key = "#tradingPair", unless = "#result == null")
+    @Cacheable(value = "prices", key = "#tradingPair", sync = true)
     public PriceDto getLatestPrice(TradingPair tradingPair) {
-        log.debug("Fetching latest price for: {} from database", tradingPair);
-        return getLatestPriceFromDatabase(tradingPair);
+        log.debug("Reading latest price for: {} from price book", tradingPair);
+        return toPriceDto(tradingPair, bestPriceBook.get(tradingPair));
     }
     
     @Override
-    @Transactional(readOnly = true)
-    @Cacheable(value = "executionPrices", key = "#tradingPair + '_' + #tradeType", unless = "#result == null")
-    public BigDecimal getExecutionPrice(TradingPair tradingPair, TradeType tradeType) {
-        log.debug("Getting execution price for {} {} from database", tradeType, tradingPair);
-        
-        BestPrice bestPrice = bestPriceRepository.findByTradingPair(tradingPair)
-                .orElseThrow(() -> new ResourceNotFoundException("Price not found for trading pair: " + tradingPair));
+    public long getScaledExecutionPrice(TradingPair tradingPair, TradeType tradeType) {
+        BestPriceBook.Quote quote = bestPriceBook.get(tradingPair);
+        if (quote == null) {
+            throw new ResourceNotFoundException("Price not found for trading pair: " + tradingPair);
+        }
         
-        if (!bestPrice.isValidPrice()) {
+        if (!quote.isValidPrice()) {
             throw new IllegalStateException("Invalid price data for trading pair: " + tradingPair);
         }
         
-        return bestPrice.getPriceForTradeType(tradeType);
+        return quote.getScaledPriceForTradeType(tradeType);
     }
 
-    private PriceDto getLatestPriceFromDatabase(TradingPair tradingPair) {
-        BestPrice bestPrice = bestPriceRepository.findByTradingPair(tradingPair)
-                .orElseThrow(() -> new ResourceNotFoundException("Price not found for trading pair: " + tradingPair));
+    @Override
+    public void refreshCachedPrices(BestPriceBook.Snapshot snapshot) {
+        Cache prices = cacheManager.getCache("prices");
+        Cache allPrices = cacheManager.getCache("allPrices");
+        
+        // Overwrite entries in place so readers never see an empty cache after a tick
+        List<PriceDto> latestPrices = new ArrayList<>();
+        for (TradingPair tradingPair : instrumentRegistry.pairs()) {
+            BestPriceBook.Quote quote = snapshot.get(tradingPair);
+            if (quote != null) {
+                PriceDto priceDto = toPriceDto(tradingPair, quote);
+                prices.put(tradingPair, priceDto);
+                latestPrices.add(priceDto);
+            }
+        }
+        
+        if (latestPrices.size() == instrumentRegistry.pairCount()) {
+            allPrices.put(SimpleKey.EMPTY, latestPrices);
+        } else {
+            allPrices.evict(SimpleKey.EMPTY);
+        }
+    }
+    
+    @Override
+    public List<CandleDto> getCandles(TradingPair tradingPair, PriceSource source, CandleInterval interval, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        return candleBook.getCandles(tradingPair, source, interval, limit);
+    }
+    
+    @Override
+    public List<PriceHistoryDto> getPriceHistory(TradingPair tradingPair, PriceSource source,
+                                                 LocalDateTime from, LocalDateTime to, int limit) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("'from' must not be after 'to'");
+        }
+        
+        // Both bounds keep one request from scanning, and holding in memory, an unbounded slice of the store
+        PriceProviderProperties.History config = priceProviderProperties.getHistory();
+        if (Duration.between(from, to).compareTo(Duration.ofHours(config.getMaxRangeHours())) > 0) {
+            throw new IllegalArgumentException("Range must not exceed " + config.getMaxRangeHours() + " hours");
+        }
+        if (limit <= 0 || limit > config.getMaxPoints()) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + config.getMaxPoints());
+        }
+        
+        ZoneId zone = ZoneId.systemDefault();
+        return quoteStore.query(tradingPair, source, from.atZone(zone).toInstant(), to.atZone(zone).toInstant(), limit)
+                .stream()
+                .map(point -> PriceHistoryDto.fromQuotePoint(tradingPair, source, point))
+                .collect(Collectors.toList());
+    }
+    
+    private PriceDto toPriceDto(TradingPair tradingPair, BestPriceBook.Quote quote) {
+        if (quote == null) {
+            throw new ResourceNotFoundException("Price not found for trading pair: " + tradingPair);
+        }
         
-        return new PriceDto(
-                bestPrice.getTradingPair(),
-                bestPrice.getBestBidPrice(),
-                bestPrice.getBestAskPrice(),
-                bestPrice.getBidSource(),
-                bestPrice.getAskSource(),
-                bestPrice.getUpdatedAt()
-        );
+        return quote.toPriceDto();
     }
 }
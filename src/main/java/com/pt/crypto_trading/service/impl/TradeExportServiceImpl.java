@@ -0,0 +1,234 @@
+package com.pt.crypto_trading.service.impl;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.pt.crypto_trading.config.TradeExportProperties;
+import com.pt.crypto_trading.domain.enums.ExportFormat;
+import com.pt.crypto_trading.exception.ResourceNotFoundException;
+import com.pt.crypto_trading.service.TradeExportService;
+import com.pt.crypto_trading.service.UserService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+// Streams a user's trades straight from one forward-only cursor to the response; heap use does not depend
+// on how many trades there are
+@Service
+@Slf4j
+public class TradeExportServiceImpl implements TradeExportService {
+    
+    private static final String[] COLUMNS = {
+            "id", "trading_pair", "type", "quantity", "price", "total_amount",
+            "status", "created_at", "executed_at", "error_message"};
+    
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final UserService userService;
+    private final TradeExportProperties config;
+    
+    public TradeExportServiceImpl(JdbcTemplate jdbcTemplate,
+                                  PlatformTransactionManager transactionManager,
+                                  UserService userService,
+                                  TradeExportProperties config) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.userService = userService;
+        this.config = config;
+        // Drivers such as PostgreSQL only stream by fetch size with autocommit off, so the cursor runs in a transaction
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+    
+    @Override
+    public void validateExport(Long userId, LocalDateTime from, LocalDateTime to) {
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new IllegalArgumentException("'from' must be before 'to'");
+        }
+        if (!userService.userExists(userId)) {
+            throw new ResourceNotFoundException("User not found: " + userId);
+        }
+    }
+    
+    @Override
+    public void exportTrades(Long userId, LocalDateTime from, LocalDateTime to, ExportFormat format, OutputStream out) {
+        StringBuilder sql = new StringBuilder("SELECT ").append(String.join(", ", COLUMNS))
+                .append(" FROM trades WHERE user_id = ?");
+        List<Object> parameters = new ArrayList<>(3);
+        parameters.add(userId);
+        if (from != null) {
+            sql.append(" AND created_at >= ?");
+            parameters.add(Timestamp.valueOf(from));
+        }
+        if (to != null) {
+            sql.append(" AND created_at < ?");
+            parameters.add(Timestamp.valueOf(to));
+        }
+        // Ledger ids sort above database ids whatever their age, so time order needs created_at first
+        sql.append(" ORDER BY created_at, id");
+        
+        PreparedStatementCreator statement = connection -> {
+            PreparedStatement prepared = connection.prepareStatement(
+                    sql.toString(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            prepared.setFetchSize(config.getFetchSize());
+            for (int i = 0; i < parameters.size(); i++) {
+                prepared.setObject(i + 1, parameters.get(i));
+            }
+            return prepared;
+        };
+        
+        try {
+            RowWriter writer = format == ExportFormat.CSV
+                    ? new CsvRowWriter(out, config.getBufferBytes())
+                    : new NdjsonRowWriter(out, config.getBufferBytes());
+            long[] rows = new long[1];
+            
+            readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(statement, resultSet -> {
+                try {
+                    writer.write(resultSet);
+                    rows[0]++;
+                } catch (IOException e) {
+                    // Usually the client went away; abandoning the cursor is all that is left to do
+                    throw new UncheckedIOException(e);
+                }
+            }));
+            writer.finish();
+            
+            log.info("Exported {} trades for user {} as {}", rows[0], userId, format);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private interface RowWriter {
+        void write(ResultSet row) throws SQLException, IOException;
+        
+        void finish() throws IOException;
+    }
+    
+    private static final class NdjsonRowWriter implements RowWriter {
+        
+        private final JsonGenerator generator;
+        
+        private NdjsonRowWriter(OutputStream out, int bufferBytes) throws IOException {
+            // The response stream belongs to the caller, who may still have to finish a gzip trailer
+            this.generator = JSON_FACTORY.createGenerator(new BufferedOutputStream(out, bufferBytes))
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        }
+        
+        @Override
+        public void write(ResultSet row) throws SQLException, IOException {
+            generator.writeStartObject();
+            generator.writeNumberField("id", row.getLong("id"));
+            generator.writeStringField("tradingPair", row.getString("trading_pair"));
+            generator.writeStringField("type", row.getString("type"));
+            writeDecimal("quantity", row.getBigDecimal("quantity"));
+            writeDecimal("price", row.getBigDecimal("price"));
+            writeDecimal("totalAmount", row.getBigDecimal("total_amount"));
+            generator.writeStringField("status", row.getString("status"));
+            generator.writeStringField("createdAt", format(row.getTimestamp("created_at")));
+            generator.writeStringField("executedAt", format(row.getTimestamp("executed_at")));
+            generator.writeStringField("errorMessage", row.getString("error_message"));
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+        
+        @Override
+        public void finish() throws IOException {
+            generator.close();
+        }
+        
+        private void writeDecimal(String field, BigDecimal value) throws IOException {
+            generator.writeFieldName(field);
+            if (value == null) {
+                generator.writeNull();
+            } else {
+                generator.writeNumber(value.toPlainString());
+            }
+        }
+    }
+    
+    private static final class CsvRowWriter implements RowWriter {
+        
+        private final Writer writer;
+        
+        private CsvRowWriter(OutputStream out, int bufferBytes) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), bufferBytes);
+            writer.write(String.join(",", COLUMNS));
+            writer.write("\r\n");
+        }
+        
+        @Override
+        public void write(ResultSet row) throws SQLException, IOException {
+            writer.write(Long.toString(row.getLong("id")));
+            writer.write(',');
+            writer.write(row.getString("trading_pair"));
+            writer.write(',');
+            writer.write(row.getString("type"));
+            writer.write(',');
+            writer.write(plain(row.getBigDecimal("quantity")));
+            writer.write(',');
+            writer.write(plain(row.getBigDecimal("price")));
+            writer.write(',');
+            writer.write(plain(row.getBigDecimal("total_amount")));
+            writer.write(',');
+            writer.write(row.getString("status"));
+            writer.write(',');
+            writer.write(nullToEmpty(format(row.getTimestamp("created_at"))));
+            writer.write(',');
+            writer.write(nullToEmpty(format(row.getTimestamp("executed_at"))));
+            writer.write(',');
+            writer.write(quote(row.getString("error_message")));
+            writer.write("\r\n");
+        }
+        
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+        
+        private static String plain(BigDecimal value) {
+            return value != null ? value.toPlainString() : "";
+        }
+        
+        // RFC 4180: free text is quoted whenever it could break the row
+        private static String quote(String value) {
+            if (value == null) {
+                return "";
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+        
+        private static String nullToEmpty(String value) {
+            return value != null ? value : "";
+        }
+    }
+    
+    private static String format(Timestamp timestamp) {
+        return timestamp != null ? DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(timestamp.toLocalDateTime()) : null;
+    }
+}
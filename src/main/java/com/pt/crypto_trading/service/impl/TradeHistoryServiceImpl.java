@@ -0,0 +1,87 @@
+package com.pt.crypto_trading.service.impl;
+
+import com.pt.crypto_trading.domain.entity.Trade;
+import com.pt.crypto_trading.dto.TradeHistoryFilter;
+import com.pt.crypto_trading.dto.TradeHistoryPageDto;
+import com.pt.crypto_trading.dto.TradeResponseDto;
+import com.pt.crypto_trading.exception.ResourceNotFoundException;
+import com.pt.crypto_trading.repository.TradeRepository;
+import com.pt.crypto_trading.service.TradeHistoryService;
+import com.pt.crypto_trading.service.UserService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TradeHistoryServiceImpl implements TradeHistoryService {
+    
+    static final int MAX_LIMIT = 100;
+    private static final String CURSOR_PREFIX = "t2:";
+    
+    private final TradeRepository tradeRepository;
+    private final UserService userService;
+    
+    // No totals: one extra row is read to tell whether another page exists
+    @Override
+    @Transactional(readOnly = true)
+    public TradeHistoryPageDto getTradeHistory(Long userId, TradeHistoryFilter filter, String cursor, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        if (filter.getFrom() != null && filter.getTo() != null && !filter.getFrom().isBefore(filter.getTo())) {
+            throw new IllegalArgumentException("'from' must be before 'to'");
+        }
+        if (!userService.userExists(userId)) {
+            throw new ResourceNotFoundException("User not found: " + userId);
+        }
+        
+        int pageSize = Math.min(limit, MAX_LIMIT);
+        Cursor before = cursor != null && !cursor.isBlank() ? decodeCursor(cursor) : null;
+        log.debug("Fetching {} trades for user {} before {} with {}", pageSize, userId, before, filter);
+        
+        List<Trade> rows = tradeRepository.findHistoryPage(userId, filter,
+                before != null ? before.createdAt() : null, before != null ? before.id() : null, pageSize + 1);
+        boolean hasMore = rows.size() > pageSize;
+        List<TradeResponseDto> trades = new ArrayList<>(Math.min(rows.size(), pageSize));
+        for (int i = 0; i < rows.size() && i < pageSize; i++) {
+            trades.add(TradeResponseDto.fromTrade(rows.get(i)));
+        }
+        
+        String nextCursor = hasMore ? encodeCursor(rows.get(pageSize - 1)) : null;
+        return new TradeHistoryPageDto(trades, nextCursor);
+    }
+    
+    // Pages run newest first by (created_at, id); the cursor carries both of the last row's keys
+    private static String encodeCursor(Trade last) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((CURSOR_PREFIX + last.getCreatedAt() + "," + last.getId()).getBytes(StandardCharsets.UTF_8));
+    }
+    
+    // Cursors of the old id-only format are rejected rather than resumed in the wrong order
+    private static Cursor decodeCursor(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int comma = decoded.indexOf(',');
+            if (decoded.startsWith(CURSOR_PREFIX) && comma > 0) {
+                return new Cursor(LocalDateTime.parse(decoded.substring(CURSOR_PREFIX.length(), comma)),
+                        Long.parseLong(decoded.substring(comma + 1)));
+            }
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            // Falls through to the same rejection as a well-formed but foreign token
+        }
+        throw new IllegalArgumentException("Invalid cursor");
+    }
+    
+    private record Cursor(LocalDateTime createdAt, long id) {
+    }
+}
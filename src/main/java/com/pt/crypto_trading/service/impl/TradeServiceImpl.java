@@ -1,46 +1,64 @@
 package com.pt.crypto_trading.service.impl;
 
 import com.pt.crypto_trading.domain.entity.Trade;
-import com.pt.crypto_trading.domain.enums.Currency;
+import com.pt.crypto_trading.domain.instrument.Currency;
 import com.pt.crypto_trading.domain.enums.TradeType;
-import com.pt.crypto_trading.domain.enums.TradingPair;
+import com.pt.crypto_trading.domain.instrument.TradingPair;
+import com.pt.crypto_trading.domain.money.FixedPoint;
 import com.pt.crypto_trading.dto.TradeRequestDto;
 import com.pt.crypto_trading.dto.TradeResponseDto;
 import com.pt.crypto_trading.exception.InsufficientBalanceException;
 import com.pt.crypto_trading.exception.ResourceNotFoundException;
 import com.pt.crypto_trading.repository.TradeRepository;
+import com.pt.crypto_trading.service.IdempotencyCache;
 import com.pt.crypto_trading.service.IdempotencyService;
+import com.pt.crypto_trading.service.PositionService;
 import com.pt.crypto_trading.service.PriceService;
 import com.pt.crypto_trading.service.TradeService;
 import com.pt.crypto_trading.service.UserService;
+import com.pt.crypto_trading.service.UserTradeLocks;
 import com.pt.crypto_trading.service.WalletService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 
 @Service
+@ConditionalOnExpression("!${app.ledger.enabled:false} and !${app.group-commit.enabled:false}")
 @RequiredArgsConstructor
 @Slf4j
 public class TradeServiceImpl implements TradeService {
     
     private final TradeRepository tradeRepository;
     private final WalletService walletService;
+    private final PositionService positionService;
     private final PriceService priceService;
     private final UserService userService;
     private final IdempotencyService idempotencyService;
+    private final IdempotencyCache idempotencyCache;
+    private final UserTradeLocks userTradeLocks;
+    private final TransactionTemplate transactionTemplate;
     
+    // The user's lock is taken before the transaction opens and released after it commits,
+    // so one user's trades never wait on each other's wallet rows
     @Override
-    @Transactional
     public TradeResponseDto executeTrade(Long userId, TradeRequestDto request) {
+        return idempotencyCache.execute(userId, request, requestHash -> userTradeLocks.withUserLock(userId,
+                () -> transactionTemplate.execute(status -> executeLocked(userId, request, requestHash))));
+    }
+    
+    private TradeResponseDto executeLocked(Long userId, TradeRequestDto request, String requestHash) {
         log.info("Executing trade for user {}: {} {} {}", 
                 userId, request.getType(), request.getQuantity(), request.getTradingPair());
         
-        TradeResponseDto existingResult = idempotencyService.checkIdempotency(userId, request);
+        TradeResponseDto existingResult = idempotencyService.checkIdempotency(userId, request, requestHash);
         if (existingResult != null) {
             return existingResult;
         }
@@ -51,23 +69,22 @@ public class TradeServiceImpl implements TradeService {
             throw new ResourceNotFoundException("User not found: " + userId);
         }
         
-        String requestHash = null;
-        if (request.getIdempotencyKey() != null) {
-            requestHash = generateRequestHash(request);
-        }
-        
         try {
-            BigDecimal executionPrice = priceService.getExecutionPrice(request.getTradingPair(), request.getType());
-            BigDecimal totalAmount = request.getQuantity().multiply(executionPrice);
+            // Priced and checked in FixedPoint longs; BigDecimal is only built for the stored trade
+            long executionPrice = priceService.getScaledExecutionPrice(request.getTradingPair(), request.getType());
+            long quantity = FixedPoint.toScaled(request.getQuantity(), RoundingMode.UNNECESSARY);
+            long totalAmount = FixedPoint.multiply(quantity, executionPrice, RoundingMode.HALF_UP);
             
             Trade trade = new Trade(userId, request.getTradingPair(), request.getType(), 
-                                  request.getQuantity(), executionPrice);
+                                  request.getQuantity(), FixedPoint.toBigDecimal(executionPrice));
+            trade.setTotalAmount(FixedPoint.toBigDecimal(totalAmount));
             
             validateAndUpdateWallets(userId, request.getTradingPair(), request.getType(), 
-                                   request.getQuantity(), totalAmount);
+                                   quantity, totalAmount);
             
             trade.markAsCompleted();
             Trade savedTrade = tradeRepository.save(trade);
+            positionService.applyTrade(userId, request.getTradingPair(), request.getType(), quantity, executionPrice);
             
             idempotencyService.saveIdempotentRequest(userId, request.getIdempotencyKey(), 
                                                    requestHash, savedTrade.getId());
@@ -110,63 +127,29 @@ public class TradeServiceImpl implements TradeService {
     }
     
     private void validateAndUpdateWallets(Long userId, TradingPair tradingPair, TradeType tradeType, 
-                                        BigDecimal quantity, BigDecimal totalAmount) {
+                                        long quantity, long totalAmount) {
         
-        Currency baseCurrency = getBaseCurrency(tradingPair);
-        Currency quoteCurrency = getQuoteCurrency(tradingPair);
+        boolean buy = tradeType == TradeType.BUY;
+        Currency debitCurrency = buy ? tradingPair.getQuoteCurrency() : tradingPair.getBaseCurrency();
+        Currency creditCurrency = buy ? tradingPair.getBaseCurrency() : tradingPair.getQuoteCurrency();
+        long debitAmount = buy ? totalAmount : quantity;
+        long creditAmount = buy ? quantity : totalAmount;
         
-        if (tradeType == TradeType.BUY) {
-            if (!walletService.hasSufficientBalance(userId, quoteCurrency, totalAmount)) {
-                throw new InsufficientBalanceException(
-                    String.format("Insufficient %s balance. Required: %s", quoteCurrency, totalAmount));
-            }
-            
-            walletService.updateBalance(userId, quoteCurrency, totalAmount.negate());
-            walletService.updateBalance(userId, baseCurrency, quantity);
-            
+        // Wallet rows are always locked in currency order, whichever side of the trade they are on;
+        // a credit applied before a failed debit is undone with the rest of the transaction
+        if (debitCurrency.getId() < creditCurrency.getId()) {
+            debit(userId, debitCurrency, debitAmount);
+            walletService.credit(userId, creditCurrency, creditAmount);
         } else {
-            if (!walletService.hasSufficientBalance(userId, baseCurrency, quantity)) {
-                throw new InsufficientBalanceException(
-                    String.format("Insufficient %s balance. Required: %s", baseCurrency, quantity));
-            }
-            
-            walletService.updateBalance(userId, baseCurrency, quantity.negate());
-            walletService.updateBalance(userId, quoteCurrency, totalAmount);
+            walletService.credit(userId, creditCurrency, creditAmount);
+            debit(userId, debitCurrency, debitAmount);
         }
     }
     
-    private Currency getBaseCurrency(TradingPair tradingPair) {
-        return switch (tradingPair) {
-            case BTCUSDT -> Currency.BTC;
-            case ETHUSDT -> Currency.ETH;
-        };
-    }
-    
-    private Currency getQuoteCurrency(TradingPair tradingPair) {
-        return Currency.USDT;
-    }
-    
-    private String generateRequestHash(TradeRequestDto request) {
-        try {
-            String content = String.format("%s-%s-%s", 
-                    request.getTradingPair(), 
-                    request.getType(), 
-                    request.getQuantity().toPlainString());
-            
-            java.security.MessageDigest digest = java.security.MessageDigest.getInstance("SHA-256");
-            byte[] hash = digest.digest(content.getBytes(java.nio.charset.StandardCharsets.UTF_8));
-            
-            StringBuilder hexString = new StringBuilder();
-            for (byte b : hash) {
-                String hex = Integer.toHexString(0xff & b);
-                if (hex.length() == 1) {
-                    hexString.append('0');
-                }
-                hexString.append(hex);
-            }
-            return hexString.toString();
-        } catch (java.security.NoSuchAlgorithmException e) {
-            throw new RuntimeException("SHA-256 algorithm not available", e);
+    private void debit(Long userId, Currency currency, long amount) {
+        if (!walletService.debit(userId, currency, amount)) {
+            throw new InsufficientBalanceException(
+                String.format("Insufficient %s balance. Required: %s", currency, FixedPoint.toBigDecimal(amount)));
         }
     }
 }
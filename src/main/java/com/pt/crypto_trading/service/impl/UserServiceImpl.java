@@ -1,10 +1,12 @@
 package com.pt.crypto_trading.service.impl;
 
 import com.pt.crypto_trading.domain.entity.User;
-import com.pt.crypto_trading.domain.enums.Currency;
+import com.pt.crypto_trading.domain.instrument.Currency;
 import com.pt.crypto_trading.dto.CreateUserRequestDto;
 import com.pt.crypto_trading.exception.ResourceNotFoundException;
 import com.pt.crypto_trading.repository.UserRepository;
+import com.pt.crypto_trading.service.InstrumentRegistry;
+import com.pt.crypto_trading.service.UserDirectory;
 import com.pt.crypto_trading.service.UserService;
 import com.pt.crypto_trading.service.WalletService;
 import lombok.RequiredArgsConstructor;
@@ -13,8 +15,6 @@ import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
-
 @Service
 @RequiredArgsConstructor
 @Slf4j
@@ -22,6 +22,8 @@ public class UserServiceImpl implements UserService {
     
     private final UserRepository userRepository;
     private final WalletService walletService;
+    private final InstrumentRegistry instrumentRegistry;
+    private final UserDirectory userDirectory;
     
     @Override
     @Transactional
@@ -35,10 +37,11 @@ public class UserServiceImpl implements UserService {
         try {
             User savedUser = userRepository.save(user);
             
-            walletService.createWallet(savedUser.getId(), Currency.USDT, new BigDecimal("50000.00000000"));
-            walletService.createWallet(savedUser.getId(), Currency.BTC, BigDecimal.ZERO);
-            walletService.createWallet(savedUser.getId(), Currency.ETH, BigDecimal.ZERO);
+            for (Currency currency : instrumentRegistry.currencies()) {
+                walletService.createWallet(savedUser.getId(), currency, instrumentRegistry.initialBalance(currency));
+            }
             
+            userDirectory.register(savedUser.getId());
             log.info("Successfully created user {} with initial wallets", savedUser.getId());
             return savedUser;
             
@@ -56,9 +59,9 @@ public class UserServiceImpl implements UserService {
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with ID: " + userId));
     }
     
+    // Answered from memory; only ids the directory has never seen reach the database
     @Override
-    @Transactional(readOnly = true)
     public boolean userExists(Long userId) {
-        return userRepository.existsById(userId);
+        return userDirectory.contains(userId);
     }
 }
@@ -1,7 +1,8 @@
 package com.pt.crypto_trading.service.impl;
 
 import com.pt.crypto_trading.domain.entity.Wallet;
-import com.pt.crypto_trading.domain.enums.Currency;
+import com.pt.crypto_trading.domain.instrument.Currency;
+import com.pt.crypto_trading.domain.money.FixedPoint;
 import com.pt.crypto_trading.dto.WalletDto;
 import com.pt.crypto_trading.exception.ResourceNotFoundException;
 import com.pt.crypto_trading.repository.WalletRepository;
@@ -59,28 +60,41 @@ public class WalletServiceImpl implements WalletService {
     
     @Override
     @Transactional
-    public void updateBalance(Long userId, Currency currency, BigDecimal amount) {
-        log.debug("Updating balance for user {} currency {} by amount: {}", userId, currency, amount);
+    public boolean debit(Long userId, Currency currency, long amount) {
+        log.debug("Debiting {} {} from user {}", FixedPoint.toBigDecimal(amount), currency, userId);
+        requirePositive(amount);
         
-        Wallet wallet = walletRepository.findByUserIdAndCurrencyForUpdate(userId, currency)
-                .orElseThrow(() -> new ResourceNotFoundException(
-                    String.format("Wallet not found for user %d and currency %s", userId, currency)));
-        
-        if (amount.compareTo(BigDecimal.ZERO) > 0) {
-            wallet.addBalance(amount);
-        } else if (amount.compareTo(BigDecimal.ZERO) < 0) {
-            wallet.subtractBalance(amount.abs());
+        if (walletRepository.debit(userId, currency.getCode(), FixedPoint.toBigDecimal(amount)) == 1) {
+            return true;
         }
         
-        walletRepository.save(wallet);
-        log.debug("Updated wallet balance to: {}", wallet.getBalance());
+        // No row matched: either the guard failed or there is no wallet; only this rare path pays for the lookup
+        requireWallet(userId, currency);
+        return false;
     }
 
     @Override
-    @Transactional(readOnly = true)
-    public boolean hasSufficientBalance(Long userId, Currency currency, BigDecimal amount) {
-        Wallet wallet = findWalletByUserIdAndCurrency(userId, currency);
-        return wallet.hasSufficientBalance(amount);
+    @Transactional
+    public void credit(Long userId, Currency currency, long amount) {
+        log.debug("Crediting {} {} to user {}", FixedPoint.toBigDecimal(amount), currency, userId);
+        requirePositive(amount);
+        
+        if (walletRepository.credit(userId, currency.getCode(), FixedPoint.toBigDecimal(amount)) == 0) {
+            requireWallet(userId, currency);
+        }
+    }
+    
+    private void requirePositive(long amount) {
+        if (amount <= 0) {
+            throw new IllegalArgumentException("Amount must be positive");
+        }
+    }
+    
+    private void requireWallet(Long userId, Currency currency) {
+        if (!walletRepository.existsByUserIdAndCurrency(userId, currency)) {
+            throw new ResourceNotFoundException(
+                String.format("Wallet not found for user %d and currency %s", userId, currency));
+        }
     }
     
     private Wallet findWalletByUserIdAndCurrency(Long userId, Currency currency) {
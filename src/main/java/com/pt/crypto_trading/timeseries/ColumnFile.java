@@ -0,0 +1,79 @@
+package com.pt.crypto_trading.timeseries;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Append-only byte column backed by a memory-mapped file that doubles its mapping when full
+final class ColumnFile implements Closeable {
+    
+    // Longest zigzag varint encoding of a 64-bit value
+    private static final int MAX_VARLONG_BYTES = 10;
+    
+    private final FileChannel channel;
+    private MappedByteBuffer buffer;
+    
+    ColumnFile(Path path, int initialCapacity) throws IOException {
+        this.channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long capacity = Math.max(initialCapacity, channel.size());
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+    }
+    
+    int writeVarLong(int position, long value) throws IOException {
+        ensureCapacity(position + MAX_VARLONG_BYTES);
+        
+        long zigzag = (value << 1) ^ (value >> 63);
+        while ((zigzag & ~0x7FL) != 0) {
+            buffer.put(position++, (byte) ((zigzag & 0x7F) | 0x80));
+            zigzag >>>= 7;
+        }
+        buffer.put(position++, (byte) zigzag);
+        return position;
+    }
+    
+    ByteBuffer view(int limit) {
+        ByteBuffer view = buffer.duplicate();
+        view.position(0).limit(limit);
+        return view;
+    }
+    
+    static long readVarLong(ByteBuffer view) {
+        long zigzag = 0;
+        int shift = 0;
+        byte next;
+        do {
+            next = view.get();
+            zigzag |= (long) (next & 0x7F) << shift;
+            shift += 7;
+        } while ((next & 0x80) != 0);
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+    
+    void force() {
+        buffer.force();
+    }
+    
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+    
+    private void ensureCapacity(int required) throws IOException {
+        if (required <= buffer.capacity()) {
+            return;
+        }
+        
+        long capacity = buffer.capacity();
+        while (capacity < required) {
+            capacity *= 2;
+        }
+        buffer.force();
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+    }
+}
@@ -0,0 +1,10 @@
+package com.pt.crypto_trading.timeseries;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+public record QuotePoint(
+    Instant timestamp,
+    BigDecimal bidPrice,
+    BigDecimal askPrice
+) {}
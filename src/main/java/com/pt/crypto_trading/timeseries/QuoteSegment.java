@@ -0,0 +1,160 @@
+package com.pt.crypto_trading.timeseries;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// One UTC day of quotes for a single (pair, source) series, stored column by column:
+// timestamps as delta-of-delta, bid and ask as deltas of scaled longs, all zigzag varints
+final class QuoteSegment implements Closeable {
+    
+    private static final int FORMAT_VERSION = 1;
+    private static final int META_BYTES = 64;
+    
+    private static final int META_VERSION = 0;
+    private static final int META_COUNT = 4;
+    private static final int META_TS_POSITION = 8;
+    private static final int META_BID_POSITION = 12;
+    private static final int META_ASK_POSITION = 16;
+    private static final int META_FIRST_TS = 24;
+    private static final int META_LAST_TS = 32;
+    private static final int META_LAST_TS_DELTA = 40;
+    private static final int META_LAST_BID = 48;
+    private static final int META_LAST_ASK = 56;
+    
+    private final Path directory;
+    private final FileChannel metaChannel;
+    private final MappedByteBuffer meta;
+    private final ColumnFile timestamps;
+    private final ColumnFile bids;
+    private final ColumnFile asks;
+    
+    QuoteSegment(Path directory, int initialColumnBytes) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.metaChannel = FileChannel.open(directory.resolve("segment.meta"),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.meta = metaChannel.map(FileChannel.MapMode.READ_WRITE, 0, META_BYTES);
+        this.timestamps = new ColumnFile(directory.resolve("ts.col"), initialColumnBytes);
+        this.bids = new ColumnFile(directory.resolve("bid.col"), initialColumnBytes);
+        this.asks = new ColumnFile(directory.resolve("ask.col"), initialColumnBytes);
+        
+        if (meta.getInt(META_VERSION) == 0) {
+            meta.putInt(META_VERSION, FORMAT_VERSION);
+        } else if (meta.getInt(META_VERSION) != FORMAT_VERSION) {
+            throw new IOException("Unsupported quote segment format in " + directory);
+        }
+    }
+    
+    Path directory() {
+        return directory;
+    }
+    
+    synchronized int count() {
+        return meta.getInt(META_COUNT);
+    }
+    
+    synchronized void append(long timestamp, long bid, long ask) throws IOException {
+        int count = meta.getInt(META_COUNT);
+        long lastTimestamp = meta.getLong(META_LAST_TS);
+        long lastDelta = meta.getLong(META_LAST_TS_DELTA);
+        
+        // Range scans stop at the first timestamp past the window, so keep the column monotonic
+        long ts = count == 0 ? timestamp : Math.max(timestamp, lastTimestamp);
+        long delta = count == 0 ? 0 : ts - lastTimestamp;
+        long encodedTimestamp = count == 0 ? ts : delta - lastDelta;
+        
+        int tsPosition = timestamps.writeVarLong(meta.getInt(META_TS_POSITION), encodedTimestamp);
+        int bidPosition = bids.writeVarLong(meta.getInt(META_BID_POSITION), bid - meta.getLong(META_LAST_BID));
+        int askPosition = asks.writeVarLong(meta.getInt(META_ASK_POSITION), ask - meta.getLong(META_LAST_ASK));
+        
+        if (count == 0) {
+            meta.putLong(META_FIRST_TS, ts);
+        }
+        meta.putInt(META_TS_POSITION, tsPosition);
+        meta.putInt(META_BID_POSITION, bidPosition);
+        meta.putInt(META_ASK_POSITION, askPosition);
+        meta.putLong(META_LAST_TS, ts);
+        meta.putLong(META_LAST_TS_DELTA, delta);
+        meta.putLong(META_LAST_BID, bid);
+        meta.putLong(META_LAST_ASK, ask);
+        // Count goes last so a crash mid-append leaves the previous record set readable
+        meta.putInt(META_COUNT, count + 1);
+    }
+    
+    // False once the consumer asked to stop
+    synchronized boolean scan(long fromInclusive, long toInclusive, QuoteConsumer consumer) {
+        int count = meta.getInt(META_COUNT);
+        if (count == 0 || toInclusive < meta.getLong(META_FIRST_TS) || fromInclusive > meta.getLong(META_LAST_TS)) {
+            return true;
+        }
+        
+        ByteBuffer tsView = timestamps.view(meta.getInt(META_TS_POSITION));
+        ByteBuffer bidView = bids.view(meta.getInt(META_BID_POSITION));
+        ByteBuffer askView = asks.view(meta.getInt(META_ASK_POSITION));
+        
+        long ts = ColumnFile.readVarLong(tsView);
+        long delta = 0;
+        long bid = ColumnFile.readVarLong(bidView);
+        long ask = ColumnFile.readVarLong(askView);
+        
+        for (int i = 0; ; i++) {
+            if (ts > toInclusive) {
+                return true;
+            }
+            if (ts >= fromInclusive && !consumer.accept(ts, bid, ask)) {
+                return false;
+            }
+            if (i + 1 == count) {
+                return true;
+            }
+            
+            delta += ColumnFile.readVarLong(tsView);
+            ts += delta;
+            bid += ColumnFile.readVarLong(bidView);
+            ask += ColumnFile.readVarLong(askView);
+        }
+    }
+    
+    synchronized long storedBytes() {
+        return META_BYTES
+                + meta.getInt(META_TS_POSITION)
+                + meta.getInt(META_BID_POSITION)
+                + meta.getInt(META_ASK_POSITION);
+    }
+    
+    // Same figure read straight from the meta file, for a segment that is not open
+    static long storedBytes(Path directory) throws IOException {
+        ByteBuffer header = ByteBuffer.wrap(Files.readAllBytes(directory.resolve("segment.meta")));
+        return META_BYTES
+                + header.getInt(META_TS_POSITION)
+                + header.getInt(META_BID_POSITION)
+                + header.getInt(META_ASK_POSITION);
+    }
+    
+    synchronized void force() {
+        timestamps.force();
+        bids.force();
+        asks.force();
+        meta.force();
+    }
+    
+    @Override
+    public synchronized void close() throws IOException {
+        force();
+        timestamps.close();
+        bids.close();
+        asks.close();
+        metaChannel.close();
+    }
+    
+    // Returns false to stop the scan
+    @FunctionalInterface
+    interface QuoteConsumer {
+        boolean accept(long timestamp, long bid, long ask);
+    }
+}
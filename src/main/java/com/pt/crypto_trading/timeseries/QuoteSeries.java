@@ -0,0 +1,134 @@
+package com.pt.crypto_trading.timeseries;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+
+// All segments of one (pair, source) series, one directory per UTC day. Only the day directories are
+// tracked here; the segments themselves are opened on demand through the store's segment cache
+final class QuoteSeries {
+    
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+    
+    private final Path directory;
+    private final SegmentCache segmentCache;
+    private final NavigableMap<Long, Path> days = new ConcurrentSkipListMap<>();
+    
+    QuoteSeries(Path directory, SegmentCache segmentCache) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.segmentCache = segmentCache;
+        
+        try (Stream<Path> entries = Files.list(directory)) {
+            for (Path day : entries.filter(Files::isDirectory).toList()) {
+                try {
+                    days.put(LocalDate.parse(day.getFileName().toString()).toEpochDay(), day);
+                } catch (DateTimeParseException e) {
+                    // Not a segment directory
+                }
+            }
+        }
+    }
+    
+    void append(long timestamp, long bid, long ask) throws IOException {
+        long epochDay = Math.floorDiv(timestamp, MILLIS_PER_DAY);
+        Path day = days.computeIfAbsent(epochDay, key -> directory.resolve(LocalDate.ofEpochDay(key).toString()));
+        segmentCache.use(day, segment -> {
+            segment.append(timestamp, bid, ask);
+            return null;
+        });
+    }
+    
+    // False once the consumer asked to stop
+    boolean scan(long fromInclusive, long toInclusive, long beforeDay, QuoteSegment.QuoteConsumer consumer) {
+        long fromDay = Math.floorDiv(fromInclusive, MILLIS_PER_DAY);
+        long toDay = Math.min(Math.floorDiv(toInclusive, MILLIS_PER_DAY), beforeDay - 1);
+        if (fromInclusive > toInclusive || fromDay > toDay) {
+            return true;
+        }
+        
+        try {
+            for (Path day : days.subMap(fromDay, true, toDay, true).values()) {
+                if (!segmentCache.use(day, segment -> segment.scan(fromInclusive, toInclusive, consumer))) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    NavigableMap<Long, Path> days() {
+        return days;
+    }
+    
+    long firstDay() {
+        return days.isEmpty() ? Long.MAX_VALUE : days.firstKey();
+    }
+    
+    // Rewrites one day into the target keeping the last tick of every bucket, so step-wise reads stay exact at that resolution
+    void rollupDay(long epochDay, QuoteSeries target, long bucketMillis) throws IOException {
+        Path day = days.get(epochDay);
+        if (day == null) {
+            return;
+        }
+        
+        List<long[]> buckets = new ArrayList<>();
+        segmentCache.use(day, segment -> segment.scan(Long.MIN_VALUE, Long.MAX_VALUE, (timestamp, bid, ask) -> {
+            long[] last = buckets.isEmpty() ? null : buckets.get(buckets.size() - 1);
+            if (last != null && Math.floorDiv(last[0], bucketMillis) == Math.floorDiv(timestamp, bucketMillis)) {
+                last[0] = timestamp;
+                last[1] = bid;
+                last[2] = ask;
+            } else {
+                buckets.add(new long[] {timestamp, bid, ask});
+            }
+            return true;
+        }));
+        
+        // A previous run may have died half way through this day
+        target.dropDay(epochDay);
+        if (buckets.isEmpty()) {
+            return;
+        }
+        for (long[] bucket : buckets) {
+            target.append(bucket[0], bucket[1], bucket[2]);
+        }
+        target.segmentCache.use(target.days.get(epochDay), segment -> {
+            segment.force();
+            return null;
+        });
+    }
+    
+    // Retention is a whole-directory delete, never a row-by-row purge
+    void dropDay(long epochDay) throws IOException {
+        Path day = days.remove(epochDay);
+        if (day == null) {
+            return;
+        }
+        
+        segmentCache.evict(day);
+        try (Stream<Path> files = Files.list(day)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(day);
+    }
+    
+    long storedBytes() throws IOException {
+        long total = 0;
+        for (Path day : days.values()) {
+            total += segmentCache.storedBytes(day);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,214 @@
+package com.pt.crypto_trading.timeseries;
+
+import com.pt.crypto_trading.config.PriceProviderProperties;
+import com.pt.crypto_trading.domain.instrument.TradingPair;
+import com.pt.crypto_trading.domain.money.FixedPoint;
+import com.pt.crypto_trading.integration.enums.PriceSource;
+import com.pt.crypto_trading.service.InstrumentRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Append-only quote history, laid out as <directory>/<tier>/<PAIR>/<SOURCE>/<yyyy-MM-dd>/{ts,bid,ask}.col
+@Component
+@Slf4j
+public class QuoteStore {
+    
+    private final Path root;
+    private final long heartbeatMillis;
+    private final InstrumentRegistry instrumentRegistry;
+    private final SegmentCache segmentCache;
+    private final Map<SeriesKey, QuoteSeries> series = new ConcurrentHashMap<>();
+    
+    public QuoteStore(PriceProviderProperties priceProviderProperties, InstrumentRegistry instrumentRegistry) {
+        PriceProviderProperties.History config = priceProviderProperties.getHistory();
+        this.root = Paths.get(config.getStoreDirectory());
+        this.heartbeatMillis = config.getHeartbeatMs();
+        this.instrumentRegistry = instrumentRegistry;
+        this.segmentCache = new SegmentCache(config.getMaxOpenSegments(), config.getColumnInitialBytes());
+    }
+    
+    @PostConstruct
+    public void open() throws IOException {
+        Files.createDirectories(root);
+        
+        for (QuoteTier tier : QuoteTier.values()) {
+            for (TradingPair tradingPair : instrumentRegistry.pairs()) {
+                for (PriceSource source : PriceSource.values()) {
+                    if (Files.isDirectory(seriesDirectory(new SeriesKey(tier, tradingPair, source)))) {
+                        series(new SeriesKey(tier, tradingPair, source));
+                    }
+                }
+            }
+        }
+        
+        log.info("Opened quote store at {} with {} series", root.toAbsolutePath(), series.size());
+    }
+    
+    public void append(TradingPair tradingPair, PriceSource source, Instant timestamp,
+                       BigDecimal bidPrice, BigDecimal askPrice) throws IOException {
+        series(new SeriesKey(QuoteTier.RAW, tradingPair, source))
+                .append(timestamp.toEpochMilli(), FixedPoint.toScaled(bidPrice), FixedPoint.toScaled(askPrice));
+    }
+    
+    // Quotes are recorded only on change or heartbeat, so the value in force at 'from' is carried in as the first
+    // point. At most limit points, oldest first; the scan stops there instead of reading the rest of the range
+    public List<QuotePoint> query(TradingPair tradingPair, PriceSource source, Instant from, Instant to, int limit) {
+        List<QuotePoint> points = new ArrayList<>();
+        scan(tradingPair, source, from.toEpochMilli(), to.toEpochMilli(), (timestamp, bid, ask) -> {
+            points.add(point(timestamp, bid, ask));
+            return points.size() < limit;
+        });
+        if (!points.isEmpty() && points.get(0).timestamp().equals(from)) {
+            return points;
+        }
+        
+        // Coarser tiers keep one point per bucket, so look back at least one bucket of the coarsest tier
+        long lookback = Math.max(heartbeatMillis, QuoteTier.ONE_HOUR.getResolutionMillis());
+        long[] inForce = new long[2];
+        boolean[] found = new boolean[1];
+        scan(tradingPair, source, from.toEpochMilli() - lookback, from.toEpochMilli() - 1, (timestamp, bid, ask) -> {
+            inForce[0] = bid;
+            inForce[1] = ask;
+            found[0] = true;
+            return true;
+        });
+        if (!found[0]) {
+            return points;
+        }
+        
+        List<QuotePoint> result = new ArrayList<>(Math.min(points.size() + 1, limit));
+        result.add(point(from.toEpochMilli(), inForce[0], inForce[1]));
+        result.addAll(points.subList(0, Math.min(points.size(), limit - 1)));
+        return result;
+    }
+    
+    // Rolls expired days down one tier and drops whole day segments; safe to re-run after a crash
+    public void applyRetention(LocalDate today, int rawDays, int minuteDays, int hourDays) throws IOException {
+        for (TradingPair tradingPair : instrumentRegistry.pairs()) {
+            for (PriceSource source : PriceSource.values()) {
+                rollup(new SeriesKey(QuoteTier.RAW, tradingPair, source), QuoteTier.ONE_MINUTE, today.minusDays(rawDays));
+                rollup(new SeriesKey(QuoteTier.ONE_MINUTE, tradingPair, source), QuoteTier.ONE_HOUR, today.minusDays(minuteDays));
+                
+                QuoteSeries hourly = series.get(new SeriesKey(QuoteTier.ONE_HOUR, tradingPair, source));
+                if (hourly != null) {
+                    for (Long day : List.copyOf(hourly.days().headMap(today.minusDays(hourDays).toEpochDay()).keySet())) {
+                        hourly.dropDay(day);
+                        log.info("Dropped expired {} {} quotes for {}", tradingPair, source, LocalDate.ofEpochDay(day));
+                    }
+                }
+            }
+        }
+    }
+    
+    public long storedBytes() throws IOException {
+        long total = 0;
+        for (QuoteSeries quoteSeries : series.values()) {
+            total += quoteSeries.storedBytes();
+        }
+        return total;
+    }
+    
+    public int openSegments() {
+        return segmentCache.openCount();
+    }
+    
+    public void force() {
+        segmentCache.force();
+    }
+    
+    @PreDestroy
+    public void close() {
+        try {
+            segmentCache.close();
+        } catch (IOException e) {
+            log.warn("Failed to close quote segments: {}", e.getMessage());
+        }
+        series.clear();
+    }
+    
+    // Each day is served by the finest tier that still holds it, so a range can span raw, minute and hour data.
+    // Coarser tiers hold the older days, so they are read first to keep the points in time order
+    private void scan(TradingPair tradingPair, PriceSource source, long from, long to,
+                      QuoteSegment.QuoteConsumer consumer) {
+        List<QuoteSeries> tiers = new ArrayList<>();
+        List<Long> beforeDays = new ArrayList<>();
+        long beforeDay = Long.MAX_VALUE;
+        
+        for (QuoteTier tier : QuoteTier.values()) {
+            QuoteSeries quoteSeries = series.get(new SeriesKey(tier, tradingPair, source));
+            if (quoteSeries == null) {
+                continue;
+            }
+            tiers.add(0, quoteSeries);
+            beforeDays.add(0, beforeDay);
+            beforeDay = Math.min(beforeDay, quoteSeries.firstDay());
+        }
+        
+        for (int i = 0; i < tiers.size(); i++) {
+            if (!tiers.get(i).scan(from, to, beforeDays.get(i), consumer)) {
+                return;
+            }
+        }
+    }
+    
+    private static QuotePoint point(long timestamp, long bid, long ask) {
+        return new QuotePoint(Instant.ofEpochMilli(timestamp), FixedPoint.toBigDecimal(bid), FixedPoint.toBigDecimal(ask));
+    }
+    
+    private void rollup(SeriesKey sourceKey, QuoteTier targetTier, LocalDate cutoff) throws IOException {
+        QuoteSeries source = series.get(sourceKey);
+        if (source == null) {
+            return;
+        }
+        
+        List<Long> expiredDays = List.copyOf(source.days().headMap(cutoff.toEpochDay()).keySet());
+        if (expiredDays.isEmpty()) {
+            return;
+        }
+        
+        QuoteSeries target = series(new SeriesKey(targetTier, sourceKey.tradingPair(), sourceKey.source()));
+        for (Long day : expiredDays) {
+            source.rollupDay(day, target, targetTier.getResolutionMillis());
+            source.dropDay(day);
+            log.info("Rolled {} {} {} quotes for {} into {} tier", 
+                    sourceKey.tier(), sourceKey.tradingPair(), sourceKey.source(), LocalDate.ofEpochDay(day), targetTier);
+        }
+    }
+    
+    private QuoteSeries series(SeriesKey key) throws IOException {
+        try {
+            return series.computeIfAbsent(key, newKey -> {
+                try {
+                    return new QuoteSeries(seriesDirectory(newKey), segmentCache);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+    
+    private Path seriesDirectory(SeriesKey key) {
+        return root.resolve(key.tier().getDirectoryName())
+                .resolve(key.tradingPair().getSymbol())
+                .resolve(key.source().name());
+    }
+    
+    private record SeriesKey(QuoteTier tier, TradingPair tradingPair, PriceSource source) {}
+}
@@ -0,0 +1,18 @@
+package com.pt.crypto_trading.timeseries;
+
+import lombok.Getter;
+
+@Getter
+public enum QuoteTier {
+    RAW("raw", 0L),
+    ONE_MINUTE("1m", 60_000L),
+    ONE_HOUR("1h", 3_600_000L);
+    
+    private final String directoryName;
+    private final long resolutionMillis; // 0 keeps every tick
+    
+    QuoteTier(String directoryName, long resolutionMillis) {
+        this.directoryName = directoryName;
+        this.resolutionMillis = resolutionMillis;
+    }
+}
@@ -0,0 +1,123 @@
+package com.pt.crypto_trading.timeseries;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Opens day segments on first use and keeps at most maxOpen of them mapped, closing the least recently used
+// idle one when a new segment needs a slot; each open segment holds four files and their mappings.
+// A segment is pinned while an append or scan runs on it, so eviction never closes it underneath a caller
+@Slf4j
+final class SegmentCache implements Closeable {
+    
+    private final int maxOpen;
+    private final int initialColumnBytes;
+    private final LinkedHashMap<Path, Slot> open = new LinkedHashMap<>(16, 0.75f, true);
+    
+    SegmentCache(int maxOpen, int initialColumnBytes) {
+        this.maxOpen = Math.max(1, maxOpen);
+        this.initialColumnBytes = initialColumnBytes;
+    }
+    
+    <T> T use(Path directory, SegmentAction<T> action) throws IOException {
+        Slot slot = pin(directory);
+        try {
+            return action.apply(slot.segment);
+        } finally {
+            unpin(slot);
+        }
+    }
+    
+    // Stored bytes without mapping a segment that is not already open
+    synchronized long storedBytes(Path directory) throws IOException {
+        Slot slot = open.get(directory);
+        return slot != null ? slot.segment.storedBytes() : QuoteSegment.storedBytes(directory);
+    }
+    
+    // Closes the segment ahead of its directory being deleted; a running scan finishes first
+    synchronized void evict(Path directory) throws IOException {
+        Slot slot = open.remove(directory);
+        if (slot != null) {
+            slot.evicted = true;
+            if (slot.pins == 0) {
+                slot.segment.close();
+            }
+        }
+    }
+    
+    synchronized int openCount() {
+        return open.size();
+    }
+    
+    synchronized void force() {
+        open.values().forEach(slot -> slot.segment.force());
+    }
+    
+    @Override
+    public synchronized void close() throws IOException {
+        List<Slot> slots = new ArrayList<>(open.values());
+        open.clear();
+        for (Slot slot : slots) {
+            slot.evicted = true;
+            if (slot.pins == 0) {
+                slot.segment.close();
+            }
+        }
+    }
+    
+    private synchronized Slot pin(Path directory) throws IOException {
+        Slot slot = open.get(directory);
+        if (slot == null) {
+            slot = new Slot(new QuoteSegment(directory, initialColumnBytes));
+            open.put(directory, slot);
+        }
+        slot.pins++;
+        evictIdle();
+        return slot;
+    }
+    
+    private synchronized void unpin(Slot slot) throws IOException {
+        slot.pins--;
+        if (slot.evicted && slot.pins == 0) {
+            slot.segment.close();
+        } else {
+            evictIdle();
+        }
+    }
+    
+    // Eldest first; pinned segments are skipped, so the cap can be exceeded briefly under concurrent use
+    private void evictIdle() throws IOException {
+        Iterator<Map.Entry<Path, Slot>> iterator = open.entrySet().iterator();
+        while (open.size() > maxOpen && iterator.hasNext()) {
+            Slot slot = iterator.next().getValue();
+            if (slot.pins == 0) {
+                iterator.remove();
+                slot.evicted = true;
+                slot.segment.close();
+                log.debug("Closed idle quote segment {}", slot.segment.directory());
+            }
+        }
+    }
+    
+    @FunctionalInterface
+    interface SegmentAction<T> {
+        T apply(QuoteSegment segment) throws IOException;
+    }
+    
+    private static final class Slot {
+        private final QuoteSegment segment;
+        private int pins;
+        private boolean evicted;
+        
+        private Slot(QuoteSegment segment) {
+            this.segment = segment;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.pt.crypto_trading.domain.money;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+// Rough comparison of FixedPoint against the BigDecimal arithmetic it replaced, on the trade path's own
+// operations. Not a test: run main() from the IDE or with the test classpath, e.g.
+//   java -cp build/classes/java/main:build/classes/java/test com.pt.crypto_trading.domain.money.FixedPointBenchmark
+// Each round runs every variant over the same operands, and the later rounds are the ones to read
+public final class FixedPointBenchmark {
+    
+    private static final int OPERANDS = 1 << 16;
+    private static final int ITERATIONS = 5_000_000;
+    private static final int ROUNDS = 5;
+    
+    private FixedPointBenchmark() {
+    }
+    
+    public static void main(String[] args) {
+        // Quantities up to 100 and prices up to 100,000, the range the trade path multiplies
+        Random random = new Random(42);
+        long[] quantities = new long[OPERANDS];
+        long[] prices = new long[OPERANDS];
+        BigDecimal[] decimalQuantities = new BigDecimal[OPERANDS];
+        BigDecimal[] decimalPrices = new BigDecimal[OPERANDS];
+        for (int i = 0; i < OPERANDS; i++) {
+            quantities[i] = 1 + Math.floorMod(random.nextLong(), 100 * FixedPoint.ONE);
+            prices[i] = 1 + Math.floorMod(random.nextLong(), 100_000 * FixedPoint.ONE);
+            decimalQuantities[i] = FixedPoint.toBigDecimal(quantities[i]);
+            decimalPrices[i] = FixedPoint.toBigDecimal(prices[i]);
+        }
+        
+        for (int round = 1; round <= ROUNDS; round++) {
+            System.out.printf("Round %d%n", round);
+            
+            long start = System.nanoTime();
+            long sink = 0;
+            for (int i = 0; i < ITERATIONS; i++) {
+                int index = i & (OPERANDS - 1);
+                sink += FixedPoint.multiply(quantities[index], prices[index], RoundingMode.HALF_UP);
+            }
+            report("FixedPoint.multiply", start, sink);
+            
+            start = System.nanoTime();
+            sink = 0;
+            for (int i = 0; i < ITERATIONS; i++) {
+                int index = i & (OPERANDS - 1);
+                sink += decimalQuantities[index].multiply(decimalPrices[index])
+                        .setScale(FixedPoint.SCALE, RoundingMode.HALF_UP).unscaledValue().longValue();
+            }
+            report("BigDecimal.multiply", start, sink);
+            
+            start = System.nanoTime();
+            sink = 0;
+            for (int i = 0; i < ITERATIONS; i++) {
+                int index = i & (OPERANDS - 1);
+                sink += FixedPoint.divide(quantities[index], prices[index], RoundingMode.HALF_UP);
+            }
+            report("FixedPoint.divide", start, sink);
+            
+            start = System.nanoTime();
+            sink = 0;
+            for (int i = 0; i < ITERATIONS; i++) {
+                int index = i & (OPERANDS - 1);
+                sink += decimalQuantities[index].divide(decimalPrices[index], FixedPoint.SCALE, RoundingMode.HALF_UP)
+                        .unscaledValue().longValue();
+            }
+            report("BigDecimal.divide", start, sink);
+        }
+    }
+    
+    // The sink is printed so the JIT cannot drop the loops as dead code
+    private static void report(String name, long start, long sink) {
+        double nanosPerOperation = (double) (System.nanoTime() - start) / ITERATIONS;
+        System.out.printf("  %-20s %8.1f ns/op  (sink %d)%n", name, nanosPerOperation, sink);
+    }
+}
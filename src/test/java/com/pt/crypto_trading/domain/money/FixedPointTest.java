@@ -0,0 +1,154 @@
+package com.pt.crypto_trading.domain.money;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+// FixedPoint has to agree with BigDecimal at scale 8, including when each of them gives up
+class FixedPointTest {
+    
+    private static final int RANDOM_CASES = 100_000;
+    private static final long MAX_STORED = 999_999_999_999_999_999L; // DECIMAL(18,8) at scale 8
+    
+    @ParameterizedTest
+    @EnumSource(RoundingMode.class)
+    void multiplyMatchesBigDecimal(RoundingMode roundingMode) {
+        Random random = new Random(roundingMode.ordinal());
+        for (int i = 0; i < RANDOM_CASES; i++) {
+            long a = operand(random);
+            long b = operand(random);
+            assertAgrees("multiply(" + a + ", " + b + ")", () -> FixedPoint.multiply(a, b, roundingMode),
+                    () -> decimal(a).multiply(decimal(b)).setScale(FixedPoint.SCALE, roundingMode));
+        }
+    }
+    
+    @ParameterizedTest
+    @EnumSource(RoundingMode.class)
+    void divideMatchesBigDecimal(RoundingMode roundingMode) {
+        Random random = new Random(100 + roundingMode.ordinal());
+        for (int i = 0; i < RANDOM_CASES; i++) {
+            long a = operand(random);
+            long b = operand(random);
+            if (b == 0) {
+                continue;
+            }
+            assertAgrees("divide(" + a + ", " + b + ")", () -> FixedPoint.divide(a, b, roundingMode),
+                    () -> decimal(a).divide(decimal(b), FixedPoint.SCALE, roundingMode));
+        }
+    }
+    
+    @ParameterizedTest
+    @EnumSource(RoundingMode.class)
+    void toScaledMatchesBigDecimal(RoundingMode roundingMode) {
+        Random random = new Random(200 + roundingMode.ordinal());
+        for (int i = 0; i < RANDOM_CASES; i++) {
+            BigDecimal value = BigDecimal.valueOf(operand(random), FixedPoint.SCALE + 1 + random.nextInt(4));
+            assertAgrees("toScaled(" + value + ")", () -> FixedPoint.toScaled(value, roundingMode),
+                    () -> value.setScale(FixedPoint.SCALE, roundingMode));
+        }
+    }
+    
+    @Test
+    void roundsNegativeResultsTowardTheRightSide() {
+        long half = FixedPoint.ONE / 2; // 0.5
+        long quarter = FixedPoint.ONE / 4; // 0.25
+        long tiny = 1; // 0.00000001
+        
+        // -0.00000001 * 0.5 = -0.000000005
+        assertThat(FixedPoint.multiply(-tiny, half, RoundingMode.HALF_UP)).isEqualTo(-1);
+        assertThat(FixedPoint.multiply(-tiny, half, RoundingMode.HALF_DOWN)).isZero();
+        assertThat(FixedPoint.multiply(-tiny, half, RoundingMode.HALF_EVEN)).isZero();
+        assertThat(FixedPoint.multiply(-tiny, half, RoundingMode.FLOOR)).isEqualTo(-1);
+        assertThat(FixedPoint.multiply(-tiny, half, RoundingMode.CEILING)).isZero();
+        assertThat(FixedPoint.multiply(tiny, -quarter, RoundingMode.UP)).isEqualTo(-1);
+        assertThat(FixedPoint.multiply(tiny, -quarter, RoundingMode.DOWN)).isZero();
+        
+        // -1 / 3 and 2 / -3
+        assertThat(FixedPoint.divide(-FixedPoint.ONE, 3 * FixedPoint.ONE, RoundingMode.HALF_UP)).isEqualTo(-33_333_333);
+        assertThat(FixedPoint.divide(-FixedPoint.ONE, 3 * FixedPoint.ONE, RoundingMode.FLOOR)).isEqualTo(-33_333_334);
+        assertThat(FixedPoint.divide(2 * FixedPoint.ONE, -3 * FixedPoint.ONE, RoundingMode.HALF_UP)).isEqualTo(-66_666_667);
+        assertThat(FixedPoint.divide(2 * FixedPoint.ONE, -3 * FixedPoint.ONE, RoundingMode.CEILING)).isEqualTo(-66_666_666);
+        assertThat(FixedPoint.divide(-FixedPoint.ONE, -4 * FixedPoint.ONE, RoundingMode.UNNECESSARY)).isEqualTo(quarter);
+    }
+    
+    @Test
+    void failsOnOverflowInsteadOfWrapping() {
+        assertThatThrownBy(() -> FixedPoint.add(Long.MAX_VALUE, 1)).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> FixedPoint.subtract(Long.MIN_VALUE, 1)).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> FixedPoint.multiply(MAX_STORED, MAX_STORED, RoundingMode.HALF_UP))
+                .isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> FixedPoint.multiply(Long.MAX_VALUE, 2 * FixedPoint.ONE, RoundingMode.HALF_UP))
+                .isInstanceOf(ArithmeticException.class);
+        // Long.MIN_VALUE has no magnitude, and lies far outside what a column can hold anyway
+        assertThatThrownBy(() -> FixedPoint.multiply(Long.MIN_VALUE, FixedPoint.ONE, RoundingMode.HALF_UP))
+                .isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> FixedPoint.divide(MAX_STORED, 1, RoundingMode.HALF_UP))
+                .isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> FixedPoint.divide(FixedPoint.ONE, 0, RoundingMode.HALF_UP))
+                .isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> FixedPoint.toScaled(new BigDecimal("1e11")))
+                .isInstanceOf(ArithmeticException.class);
+    }
+    
+    @Test
+    void largeDividendsTakeTheExactPath() {
+        // a * 10^8 does not fit in a long here, so the BigDecimal fallback has to give the same answer
+        long a = MAX_STORED;
+        long b = 3 * FixedPoint.ONE;
+        assertThat(FixedPoint.divide(a, b, RoundingMode.HALF_EVEN))
+                .isEqualTo(decimal(a).divide(decimal(b), FixedPoint.SCALE, RoundingMode.HALF_EVEN)
+                        .unscaledValue().longValueExact());
+        assertThat(FixedPoint.divide(-a, b, RoundingMode.FLOOR))
+                .isEqualTo(decimal(-a).divide(decimal(b), FixedPoint.SCALE, RoundingMode.FLOOR)
+                        .unscaledValue().longValueExact());
+    }
+    
+    // Magnitudes spread over every digit count up to DECIMAL(18,8), both signs, with zero and one included
+    private static long operand(Random random) {
+        int digits = random.nextInt(19);
+        long magnitude = digits == 0 ? random.nextInt(2) : Math.floorMod(random.nextLong(), pow10(digits));
+        if (random.nextInt(16) == 0) {
+            magnitude = FixedPoint.ONE;
+        }
+        return random.nextBoolean() ? -magnitude : magnitude;
+    }
+    
+    private static long pow10(int exponent) {
+        long value = 1;
+        for (int i = 0; i < exponent; i++) {
+            value *= 10;
+        }
+        return value;
+    }
+    
+    private static BigDecimal decimal(long scaled) {
+        return BigDecimal.valueOf(scaled, FixedPoint.SCALE);
+    }
+    
+    // Either both produce the same long, or both refuse: BigDecimal because rounding was necessary,
+    // or because the result does not fit the long the column maps to
+    private static void assertAgrees(String operation, LongSupplier actual, Supplier<BigDecimal> expected) {
+        Long expectedValue;
+        try {
+            expectedValue = expected.get().unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            expectedValue = null;
+        }
+        
+        if (expectedValue == null) {
+            assertThat(catchThrowable(actual::getAsLong)).as(operation).isInstanceOf(ArithmeticException.class);
+        } else {
+            assertThat(actual.getAsLong()).as(operation).isEqualTo(expectedValue);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.pt.crypto_trading.integration.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pt.crypto_trading.config.PriceProviderProperties;
+import com.pt.crypto_trading.domain.instrument.Currency;
+import com.pt.crypto_trading.domain.instrument.TradingPair;
+import com.pt.crypto_trading.integration.enums.PriceSource;
+import com.pt.crypto_trading.service.InstrumentRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.socket.client.ReactorNettyWebSocketClient;
+import reactor.core.publisher.Flux;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Runs the Binance stream against a local stub server that pushes a crossed and a valid bookTicker frame per
+// connection and then hangs up, so every valid frame after the first only arrives through a reconnect
+class BinanceClientStreamingTest {
+    
+    private static final TradingPair BTCUSDT = new TradingPair(0, "BTCUSDT",
+            new Currency(0, "BTC", "Bitcoin", 8), new Currency(1, "USDT", "Tether", 2), null);
+    
+    private final AtomicInteger connections = new AtomicInteger();
+    private DisposableServer server;
+    private BinanceClient client;
+    
+    @BeforeEach
+    void startStubServer() {
+        server = HttpServer.create()
+                .port(0)
+                .route(routes -> routes.ws("/stream", (inbound, outbound) -> {
+                    int connection = connections.incrementAndGet();
+                    return outbound.sendString(Flux.just(
+                            bookTicker("50200.00", "50100.00"),
+                            bookTicker("5000" + connection + ".00", "50100.00")));
+                }))
+                .bindNow();
+        
+        PriceProviderProperties properties = new PriceProviderProperties();
+        properties.getBinance().setStreamUrl("ws://localhost:" + server.port() + "/stream");
+        properties.getStreaming().setInitialBackoffMs(50);
+        properties.getStreaming().setMaxBackoffMs(200);
+        
+        InstrumentRegistry instrumentRegistry = mock(InstrumentRegistry.class);
+        when(instrumentRegistry.exchangeSymbols(eq(PriceSource.BINANCE), any())).thenReturn(Map.of("BTCUSDT", BTCUSDT));
+        
+        client = new BinanceClient(mock(RestTemplate.class), properties, mock(ProviderHealthRegistry.class),
+                new ReactorNettyWebSocketClient(), new ObjectMapper(), instrumentRegistry);
+    }
+    
+    @AfterEach
+    void stopStubServer() {
+        client.stopStreaming();
+        server.disposeNow();
+    }
+    
+    @Test
+    void pushesQuotesAndReconnectsAfterTheServerHangsUp() throws InterruptedException {
+        BlockingQueue<Map.Entry<TradingPair, PriceProvider.PriceData>> updates = new LinkedBlockingQueue<>();
+        client.startStreaming((tradingPair, priceData) -> updates.add(Map.entry(tradingPair, priceData)));
+        
+        Map.Entry<TradingPair, PriceProvider.PriceData> firstUpdate = updates.poll(5, TimeUnit.SECONDS);
+        Map.Entry<TradingPair, PriceProvider.PriceData> secondUpdate = updates.poll(5, TimeUnit.SECONDS);
+        assertThat(firstUpdate).isNotNull();
+        assertThat(secondUpdate).isNotNull();
+        assertThat(firstUpdate.getKey()).isEqualTo(BTCUSDT);
+        
+        // The crossed frame is skipped, so each connection contributes exactly its valid quote
+        PriceProvider.PriceData first = firstUpdate.getValue();
+        PriceProvider.PriceData second = secondUpdate.getValue();
+        assertThat(first.source()).isEqualTo(PriceSource.BINANCE);
+        assertThat(first.bidPrice()).isEqualByComparingTo(new BigDecimal("50001.00"));
+        assertThat(first.askPrice()).isEqualByComparingTo(new BigDecimal("50100.00"));
+        assertThat(second.bidPrice()).isEqualByComparingTo(new BigDecimal("50002.00"));
+        assertThat(connections.get()).isGreaterThanOrEqualTo(2);
+    }
+    
+    private static String bookTicker(String bid, String ask) {
+        return "{\"stream\":\"btcusdt@bookTicker\",\"data\":{\"s\":\"BTCUSDT\",\"b\":\"" + bid + "\",\"a\":\"" + ask + "\"}}";
+    }
+}
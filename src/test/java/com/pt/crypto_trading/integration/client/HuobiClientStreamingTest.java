@@ -0,0 +1,123 @@
+package com.pt.crypto_trading.integration.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pt.crypto_trading.config.PriceProviderProperties;
+import com.pt.crypto_trading.domain.instrument.Currency;
+import com.pt.crypto_trading.domain.instrument.TradingPair;
+import com.pt.crypto_trading.integration.enums.PriceSource;
+import com.pt.crypto_trading.service.InstrumentRegistry;
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.socket.client.ReactorNettyWebSocketClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Runs the Huobi stream against a local stub server that, like Huobi, pushes gzip-compressed binary frames:
+// a ping, a crossed bbo tick and a valid one, and records what the client sends back
+class HuobiClientStreamingTest {
+    
+    private static final TradingPair BTCUSDT = new TradingPair(0, "BTCUSDT",
+            new Currency(0, "BTC", "Bitcoin", 8), new Currency(1, "USDT", "Tether", 2), null);
+    
+    private final BlockingQueue<String> received = new LinkedBlockingQueue<>();
+    private DisposableServer server;
+    private HuobiClient client;
+    
+    @BeforeEach
+    void startStubServer() {
+        server = HttpServer.create()
+                .port(0)
+                .route(routes -> routes.ws("/ws", (inbound, outbound) -> Mono.when(
+                        outbound.send(Flux.just(
+                                        "{\"ping\":1700000000000}",
+                                        bbo("50200.0", "50100.0"),
+                                        bbo("50001.0", "50100.0"))
+                                .map(HuobiClientStreamingTest::gzip)
+                                .map(Unpooled::wrappedBuffer)),
+                        inbound.receive().asString().doOnNext(received::add).then())))
+                .bindNow();
+        
+        PriceProviderProperties properties = new PriceProviderProperties();
+        properties.getHuobi().setStreamUrl("ws://localhost:" + server.port() + "/ws");
+        properties.getStreaming().setInitialBackoffMs(50);
+        properties.getStreaming().setMaxBackoffMs(200);
+        
+        InstrumentRegistry instrumentRegistry = mock(InstrumentRegistry.class);
+        when(instrumentRegistry.exchangeSymbols(eq(PriceSource.HUOBI), any())).thenReturn(Map.of("btcusdt", BTCUSDT));
+        
+        client = new HuobiClient(mock(RestTemplate.class), properties, mock(ProviderHealthRegistry.class),
+                new ReactorNettyWebSocketClient(), new ObjectMapper(), instrumentRegistry);
+    }
+    
+    @AfterEach
+    void stopStubServer() {
+        client.stopStreaming();
+        server.disposeNow();
+    }
+    
+    @Test
+    void decodesGzipFramesAndAnswersPings() throws InterruptedException {
+        BlockingQueue<Map.Entry<TradingPair, PriceProvider.PriceData>> updates = new LinkedBlockingQueue<>();
+        client.startStreaming((tradingPair, priceData) -> updates.add(Map.entry(tradingPair, priceData)));
+        
+        // The crossed tick is skipped, so the first update is the valid one
+        Map.Entry<TradingPair, PriceProvider.PriceData> update = updates.poll(5, TimeUnit.SECONDS);
+        assertThat(update).isNotNull();
+        assertThat(update.getKey()).isEqualTo(BTCUSDT);
+        assertThat(update.getValue().source()).isEqualTo(PriceSource.HUOBI);
+        assertThat(update.getValue().bidPrice()).isEqualByComparingTo(new BigDecimal("50001.0"));
+        assertThat(update.getValue().askPrice()).isEqualByComparingTo(new BigDecimal("50100.0"));
+        assertThat(updates.poll(200, TimeUnit.MILLISECONDS)).isNull();
+        
+        Set<String> messages = new HashSet<>();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (messages.size() < 2 && System.currentTimeMillis() < deadline) {
+            String message = received.poll(100, TimeUnit.MILLISECONDS);
+            if (message != null) {
+                messages.add(message);
+            }
+        }
+        assertThat(messages).containsExactlyInAnyOrder(
+                "{\"sub\":\"market.btcusdt.bbo\",\"id\":\"btcusdt\"}",
+                "{\"pong\":1700000000000}");
+    }
+    
+    private static String bbo(String bid, String ask) {
+        return "{\"ch\":\"market.btcusdt.bbo\",\"ts\":1700000000000,\"tick\":{\"symbol\":\"btcusdt\",\"bid\":" + bid
+                + ",\"bidSize\":1.5,\"ask\":" + ask + ",\"askSize\":2.0}}";
+    }
+    
+    private static byte[] gzip(String payload) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream output = new GZIPOutputStream(bytes)) {
+            output.write(payload.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+}
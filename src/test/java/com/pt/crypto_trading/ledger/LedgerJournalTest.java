@@ -0,0 +1,99 @@
+package com.pt.crypto_trading.ledger;
+
+import com.pt.crypto_trading.domain.enums.TradeType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LedgerJournalTest {
+    
+    @TempDir
+    Path directory;
+    
+    @Test
+    void replaysAppendedEntriesWithTheirIdempotencyKeys() throws IOException {
+        LedgerEntry keyed = entry(1, "order-1", "hash-1");
+        LedgerEntry unkeyed = entry(2, null, null);
+        
+        try (LedgerJournal journal = new LedgerJournal(directory)) {
+            journal.openForAppend(1);
+            journal.append(List.of(keyed));
+            journal.append(List.of(unkeyed));
+        }
+        
+        List<LedgerEntry> replayed = new ArrayList<>();
+        try (LedgerJournal journal = new LedgerJournal(directory)) {
+            assertThat(journal.replay(replayed::add)).isEqualTo(2);
+        }
+        assertThat(replayed).containsExactly(keyed, unkeyed);
+    }
+    
+    @Test
+    void truncatesATornTailAndKeepsAppendingAfterIt() throws IOException {
+        try (LedgerJournal journal = new LedgerJournal(directory)) {
+            journal.openForAppend(1);
+            journal.append(List.of(entry(1, "order-1", "hash-1"), entry(2, null, null)));
+        }
+        Path segment = onlySegment();
+        long validBytes = Files.size(segment);
+        
+        // A crash mid-write: a header promising more bytes than made it to disk
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.allocate(12).putInt(200).putInt(0x1234).putInt(7).flip());
+        }
+        
+        List<LedgerEntry> replayed = new ArrayList<>();
+        try (LedgerJournal journal = new LedgerJournal(directory)) {
+            assertThat(journal.replay(replayed::add)).isEqualTo(2);
+            assertThat(Files.size(segment)).isEqualTo(validBytes);
+            
+            journal.openForAppend(3);
+            journal.append(List.of(entry(3, "order-3", "hash-3")));
+        }
+        assertThat(replayed).extracting(LedgerEntry::sequence).containsExactly(1L, 2L);
+        
+        List<LedgerEntry> afterRestart = new ArrayList<>();
+        try (LedgerJournal journal = new LedgerJournal(directory)) {
+            journal.replay(afterRestart::add);
+        }
+        assertThat(afterRestart).extracting(LedgerEntry::sequence).containsExactly(1L, 2L, 3L);
+    }
+    
+    @Test
+    void emptyDirectoryHoldsNoState() throws IOException {
+        assertThat(LedgerJournal.holdsState(directory)).isFalse();
+        
+        try (LedgerJournal journal = new LedgerJournal(directory)) {
+            journal.openForAppend(1);
+            assertThat(LedgerJournal.holdsState(directory)).isFalse();
+            
+            journal.append(List.of(entry(1, null, null)));
+            assertThat(LedgerJournal.holdsState(directory)).isTrue();
+        }
+    }
+    
+    private Path onlySegment() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> segments = files.filter(path -> path.getFileName().toString().endsWith(".log")).toList();
+            assertThat(segments).hasSize(1);
+            return segments.get(0);
+        }
+    }
+    
+    static LedgerEntry entry(long sequence, String idempotencyKey, String requestHash) {
+        return new LedgerEntry(sequence, Ledger.tradeId(sequence, 0), 7, "BTCUSDT", TradeType.BUY,
+                100_000_000L, 5_000_000_000_000L, 5_000_000_000_000L, 1_700_000_000_000L + sequence,
+                "USDT", 45_000_000_000_000L - sequence, "BTC", 100_000_000L * sequence, idempotencyKey, requestHash);
+    }
+}
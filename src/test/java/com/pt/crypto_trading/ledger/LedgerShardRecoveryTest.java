@@ -0,0 +1,76 @@
+package com.pt.crypto_trading.ledger;
+
+import com.pt.crypto_trading.domain.enums.TradeType;
+import com.pt.crypto_trading.domain.instrument.Currency;
+import com.pt.crypto_trading.domain.instrument.TradingPair;
+import com.pt.crypto_trading.repository.WalletRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static com.pt.crypto_trading.ledger.LedgerJournalTest.entry;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class LedgerShardRecoveryTest {
+    
+    private static final Currency BTC = new Currency(0, "BTC", "Bitcoin", 8);
+    private static final Currency USDT = new Currency(1, "USDT", "Tether", 8);
+    private static final TradingPair BTCUSDT = new TradingPair(0, "BTCUSDT", BTC, USDT, null);
+    
+    @TempDir
+    Path directory;
+    
+    @Test
+    void rebuildsBalancesAndIdempotencyKeysFromSnapshotAndJournal() throws Exception {
+        LedgerEntry first = entry(1, "order-1", "hash-1");
+        LedgerEntry second = entry(2, null, null);
+        LedgerEntry third = entry(3, "order-3", "hash-3");
+        try (LedgerJournal journal = new LedgerJournal(directory)) {
+            journal.openForAppend(1);
+            journal.append(List.of(first, second));
+            journal.writeSnapshot(2, Map.of(
+                    new AccountKey(7, "USDT"), second.debitBalance(),
+                    new AccountKey(7, "BTC"), second.creditBalance()));
+            journal.append(List.of(third));
+        }
+        
+        LedgerProjector projector = mock(LedgerProjector.class);
+        WalletRepository walletRepository = mock(WalletRepository.class);
+        LedgerShard shard = new LedgerShard(0, new LedgerJournal(directory), projector, walletRepository,
+                16, 16, Long.MAX_VALUE);
+        List<LedgerEntry> recovered = new ArrayList<>();
+        shard.recover(recovered::add);
+        
+        // Entries not yet known to be projected go back to the projector, keys and all
+        assertThat(recovered).containsExactly(first, second, third);
+        verify(projector).enqueue(first);
+        verify(projector).enqueue(second);
+        verify(projector).enqueue(third);
+        
+        shard.start();
+        try {
+            CompletableFuture<LedgerEntry> result = new CompletableFuture<>();
+            shard.submit(new LedgerShard.TradeCommand(7, BTCUSDT, TradeType.SELL, 100_000_000L,
+                    5_000_000_000_000L, 5_000_000_000_000L, "order-4", "hash-4", result));
+            LedgerEntry sell = result.get(5, TimeUnit.SECONDS);
+            
+            // Balances continue from the journal tail, past the snapshot, without asking the database
+            assertThat(sell.sequence()).isEqualTo(4);
+            assertThat(sell.debitBalance()).isEqualTo(third.creditBalance() - 100_000_000L);
+            assertThat(sell.creditBalance()).isEqualTo(third.debitBalance() + 5_000_000_000_000L);
+            assertThat(sell.idempotencyKey()).isEqualTo("order-4");
+            verifyNoInteractions(walletRepository);
+        } finally {
+            shard.stop();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.pt.crypto_trading.service;
+
+import com.pt.crypto_trading.config.PriceProviderProperties;
+import com.pt.crypto_trading.domain.entity.PriceCandle;
+import com.pt.crypto_trading.domain.enums.CandleInterval;
+import com.pt.crypto_trading.domain.instrument.Currency;
+import com.pt.crypto_trading.domain.instrument.TradingPair;
+import com.pt.crypto_trading.dto.CandleDto;
+import com.pt.crypto_trading.integration.client.PriceProvider;
+import com.pt.crypto_trading.integration.enums.PriceSource;
+import com.pt.crypto_trading.repository.PriceCandleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class CandleBookTest {
+    
+    private static final TradingPair BTCUSDT = new TradingPair(0, "BTCUSDT",
+            new Currency(0, "BTC", "Bitcoin", 8), new Currency(1, "USDT", "Tether", 2), null);
+    private static final long MINUTE = 60_000L;
+    private static final long T0 = 1_700_000_040_000L; // Start of a minute
+    
+    private PriceCandleRepository priceCandleRepository;
+    private CandleBook candleBook;
+    
+    @BeforeEach
+    void setUp() {
+        PriceProviderProperties properties = new PriceProviderProperties();
+        properties.getCandles().setRetainedPerSeries(3);
+        properties.getCandles().setPersistedIntervals(Set.of(CandleInterval.ONE_MINUTE));
+        priceCandleRepository = mock(PriceCandleRepository.class);
+        candleBook = new CandleBook(priceCandleRepository, properties, mock(InstrumentRegistry.class));
+    }
+    
+    @Test
+    void closesTheBarWhenATickOpensTheNextOne() {
+        tick(T0, "100", "102");         // mid 101
+        tick(T0 + 10_000, "104", "106"); // mid 105
+        tick(T0 + 20_000, "96", "98");   // mid 97
+        tick(T0 + 59_999, "99", "101");  // mid 100
+        tick(T0 + MINUTE, "110", "112"); // mid 111, next bar
+        
+        List<CandleDto> candles = candleBook.getCandles(BTCUSDT, PriceSource.BINANCE, CandleInterval.ONE_MINUTE, 10);
+        assertThat(candles).hasSize(2);
+        
+        CandleDto closed = candles.get(0);
+        assertThat(closed.isClosed()).isTrue();
+        assertThat(closed.getOpen()).isEqualByComparingTo("101");
+        assertThat(closed.getHigh()).isEqualByComparingTo("105");
+        assertThat(closed.getLow()).isEqualByComparingTo("97");
+        assertThat(closed.getClose()).isEqualByComparingTo("100");
+        assertThat(closed.getTickCount()).isEqualTo(4);
+        
+        CandleDto open = candles.get(1);
+        assertThat(open.isClosed()).isFalse();
+        assertThat(open.getOpen()).isEqualByComparingTo("111");
+        assertThat(open.getTickCount()).isEqualTo(1);
+    }
+    
+    @Test
+    void ignoresLateTicksForAClosedBar() {
+        tick(T0, "100", "102");
+        tick(T0 + MINUTE, "110", "112");
+        tick(T0 + 30_000, "50", "52"); // Belongs to the bar that already closed
+        
+        List<CandleDto> candles = candleBook.getCandles(BTCUSDT, PriceSource.BINANCE, CandleInterval.ONE_MINUTE, 10);
+        assertThat(candles).hasSize(2);
+        assertThat(candles.get(0).getLow()).isEqualByComparingTo("101");
+        assertThat(candles.get(0).getTickCount()).isEqualTo(1);
+        assertThat(candles.get(1).getLow()).isEqualByComparingTo("111");
+        assertThat(candles.get(1).getTickCount()).isEqualTo(1);
+    }
+    
+    @Test
+    void retainsOnlyTheNewestClosedBars() {
+        for (int i = 0; i < 6; i++) {
+            tick(T0 + i * MINUTE, String.valueOf(100 + i), String.valueOf(102 + i));
+        }
+        
+        // Five closed bars, three retained, plus the open one
+        List<CandleDto> candles = candleBook.getCandles(BTCUSDT, PriceSource.BINANCE, CandleInterval.ONE_MINUTE, 10);
+        assertThat(candles).extracting(CandleDto::getOpen)
+                .usingElementComparator(BigDecimal::compareTo)
+                .containsExactly(new BigDecimal("103"), new BigDecimal("104"), new BigDecimal("105"), new BigDecimal("106"));
+        assertThat(candleBook.getCandles(BTCUSDT, PriceSource.BINANCE, CandleInterval.ONE_MINUTE, 2))
+                .extracting(CandleDto::isClosed)
+                .containsExactly(true, false);
+    }
+    
+    @Test
+    @SuppressWarnings("unchecked")
+    void persistsOnlyConfiguredIntervalsAndRetriesAFailedBatch() {
+        tick(T0, "100", "102");
+        tick(T0 + MINUTE, "110", "112");
+        
+        doThrow(new IllegalStateException("database down")).when(priceCandleRepository).insertAll(any());
+        candleBook.persistClosedCandles();
+        
+        reset(priceCandleRepository);
+        candleBook.persistClosedCandles();
+        
+        // Bars of other intervals closed too, but only the one-minute bar is persisted, and it survived the failure
+        ArgumentCaptor<Collection<PriceCandle>> batch = ArgumentCaptor.forClass(Collection.class);
+        verify(priceCandleRepository, times(1)).insertAll(batch.capture());
+        assertThat(batch.getValue()).singleElement().satisfies(candle -> {
+            assertThat(candle.getInterval()).isEqualTo(CandleInterval.ONE_MINUTE);
+            assertThat(candle.getOpen()).isEqualByComparingTo("101");
+        });
+        
+        candleBook.persistClosedCandles();
+        verify(priceCandleRepository, times(1)).insertAll(any());
+    }
+    
+    @Test
+    void persistsNothingWhileNoBarHasClosed() {
+        tick(T0, "100", "102");
+        candleBook.persistClosedCandles();
+        verify(priceCandleRepository, never()).insertAll(any());
+    }
+    
+    private void tick(long timestamp, String bid, String ask) {
+        candleBook.onProviderPrices(List.of(Map.of(BTCUSDT,
+                new PriceProvider.PriceData(new BigDecimal(bid), new BigDecimal(ask), PriceSource.BINANCE))), timestamp);
+    }
+}
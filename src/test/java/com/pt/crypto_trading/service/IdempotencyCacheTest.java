@@ -0,0 +1,113 @@
+package com.pt.crypto_trading.service;
+
+import com.pt.crypto_trading.config.IdempotencyProperties;
+import com.pt.crypto_trading.domain.enums.TradeType;
+import com.pt.crypto_trading.domain.instrument.Currency;
+import com.pt.crypto_trading.domain.instrument.TradingPair;
+import com.pt.crypto_trading.dto.TradeRequestDto;
+import com.pt.crypto_trading.dto.TradeResponseDto;
+import com.pt.crypto_trading.repository.IdempotentRequestRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class IdempotencyCacheTest {
+    
+    private static final TradingPair BTCUSDT = new TradingPair(0, "BTCUSDT",
+            new Currency(0, "BTC", "Bitcoin", 8), new Currency(1, "USDT", "Tether", 2), null);
+    
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+    
+    @AfterEach
+    void shutDown() {
+        executor.shutdownNow();
+    }
+    
+    @Test
+    void concurrentDuplicatesExecuteOnce() throws Exception {
+        assertConcurrentDuplicatesExecuteOnce(cache(100));
+    }
+    
+    @Test
+    void concurrentDuplicatesExecuteOnceWithTheCacheFull() throws Exception {
+        IdempotencyCache cache = cache(1);
+        cache.execute(7L, request("filler"), requestHash -> response(1L));
+        
+        assertConcurrentDuplicatesExecuteOnce(cache);
+    }
+    
+    @Test
+    void completedResponsesPastTheCapAreNotKept() {
+        IdempotencyCache cache = cache(1);
+        AtomicInteger executions = new AtomicInteger();
+        cache.execute(7L, request("filler"), requestHash -> response(executions.incrementAndGet()));
+        
+        cache.execute(7L, request("key-1"), requestHash -> response(executions.incrementAndGet()));
+        cache.execute(7L, request("key-1"), requestHash -> response(executions.incrementAndGet()));
+        
+        // The second call reaches execution, where the stored key answers it; the filler is still replayed
+        assertThat(executions).hasValue(3);
+        assertThat(cache.execute(7L, request("filler"), requestHash -> response(99L)).getTradeId()).isEqualTo(1L);
+    }
+    
+    private void assertConcurrentDuplicatesExecuteOnce(IdempotencyCache cache) throws Exception {
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        
+        Future<TradeResponseDto> first = executor.submit(() -> cache.execute(7L, request("key-1"), requestHash -> {
+            executions.incrementAndGet();
+            started.countDown();
+            await(release);
+            return response(42L);
+        }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        
+        // Issued while the first is still running, so it must wait for that result rather than run again
+        Future<TradeResponseDto> second = executor.submit(() -> cache.execute(7L, request("key-1"), requestHash -> {
+            executions.incrementAndGet();
+            return response(43L);
+        }));
+        Thread.sleep(100);
+        release.countDown();
+        
+        assertThat(first.get(5, TimeUnit.SECONDS).getTradeId()).isEqualTo(42L);
+        assertThat(second.get(5, TimeUnit.SECONDS).getTradeId()).isEqualTo(42L);
+        assertThat(executions).hasValue(1);
+    }
+    
+    private static IdempotencyCache cache(int maxEntries) {
+        IdempotencyProperties properties = new IdempotencyProperties();
+        properties.setMaxEntries(maxEntries);
+        return new IdempotencyCache(mock(IdempotentRequestRepository.class), properties, new SimpleMeterRegistry());
+    }
+    
+    private static TradeRequestDto request(String idempotencyKey) {
+        return new TradeRequestDto(BTCUSDT, TradeType.BUY, new BigDecimal("0.5"), idempotencyKey);
+    }
+    
+    private static TradeResponseDto response(long tradeId) {
+        TradeResponseDto response = new TradeResponseDto();
+        response.setTradeId(tradeId);
+        return response;
+    }
+    
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
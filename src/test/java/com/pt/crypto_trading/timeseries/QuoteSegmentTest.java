@@ -0,0 +1,157 @@
+package com.pt.crypto_trading.timeseries;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QuoteSegmentTest {
+    
+    // Small enough that a handful of appends outgrows the first mapping
+    private static final int INITIAL_COLUMN_BYTES = 16;
+    private static final long T0 = 1_700_000_000_000L;
+    
+    @TempDir
+    Path directory;
+    
+    @Test
+    void zigzagVarLongsRoundTrip() throws IOException {
+        long[] values = {0, 1, -1, 63, -64, 64, -65, 1L << 35, -(1L << 35), Long.MAX_VALUE, Long.MIN_VALUE};
+        
+        int position = 0;
+        try (ColumnFile column = new ColumnFile(directory.resolve("test.col"), INITIAL_COLUMN_BYTES)) {
+            for (long value : values) {
+                position = column.writeVarLong(position, value);
+            }
+            
+            ByteBuffer view = column.view(position);
+            for (long value : values) {
+                assertThat(ColumnFile.readVarLong(view)).isEqualTo(value);
+            }
+            assertThat(view.hasRemaining()).isFalse();
+            
+            // Small magnitudes take one byte whatever their sign
+            assertThat(column.writeVarLong(0, 63)).isEqualTo(1);
+            assertThat(column.writeVarLong(0, -64)).isEqualTo(1);
+            assertThat(column.writeVarLong(0, 64)).isEqualTo(2);
+        }
+        assertThat(Files.size(directory.resolve("test.col"))).isGreaterThan(INITIAL_COLUMN_BYTES);
+    }
+    
+    @Test
+    void decodesWhatWasAppended() throws IOException {
+        List<long[]> appended = irregularQuotes(200);
+        
+        try (QuoteSegment segment = new QuoteSegment(directory, INITIAL_COLUMN_BYTES)) {
+            for (long[] quote : appended) {
+                segment.append(quote[0], quote[1], quote[2]);
+            }
+            
+            assertThat(segment.count()).isEqualTo(appended.size());
+            assertThat(scanAll(segment)).containsExactlyElementsOf(appended);
+        }
+    }
+    
+    @Test
+    void growsColumnsPastTheirInitialMapping() throws IOException {
+        List<long[]> appended = irregularQuotes(1000);
+        
+        try (QuoteSegment segment = new QuoteSegment(directory, INITIAL_COLUMN_BYTES)) {
+            for (long[] quote : appended) {
+                segment.append(quote[0], quote[1], quote[2]);
+            }
+            assertThat(scanAll(segment)).containsExactlyElementsOf(appended);
+            assertThat(segment.storedBytes()).isGreaterThan(3L * INITIAL_COLUMN_BYTES);
+        }
+        
+        for (String column : List.of("ts.col", "bid.col", "ask.col")) {
+            assertThat(Files.size(directory.resolve(column))).isGreaterThan(INITIAL_COLUMN_BYTES);
+        }
+    }
+    
+    @Test
+    void reopensAndKeepsAppendingAfterARestart() throws IOException {
+        List<long[]> appended = irregularQuotes(300);
+        long storedBytes;
+        
+        try (QuoteSegment segment = new QuoteSegment(directory, INITIAL_COLUMN_BYTES)) {
+            for (long[] quote : appended.subList(0, 200)) {
+                segment.append(quote[0], quote[1], quote[2]);
+            }
+            storedBytes = segment.storedBytes();
+        }
+        assertThat(QuoteSegment.storedBytes(directory)).isEqualTo(storedBytes);
+        
+        // The delta-of-delta and price state come back from the meta file, so later appends decode too
+        try (QuoteSegment segment = new QuoteSegment(directory, INITIAL_COLUMN_BYTES)) {
+            assertThat(scanAll(segment)).containsExactlyElementsOf(appended.subList(0, 200));
+            for (long[] quote : appended.subList(200, 300)) {
+                segment.append(quote[0], quote[1], quote[2]);
+            }
+        }
+        
+        try (QuoteSegment segment = new QuoteSegment(directory, INITIAL_COLUMN_BYTES)) {
+            assertThat(segment.count()).isEqualTo(300);
+            assertThat(scanAll(segment)).containsExactlyElementsOf(appended);
+        }
+    }
+    
+    @Test
+    void keepsTimestampsMonotonic() throws IOException {
+        try (QuoteSegment segment = new QuoteSegment(directory, INITIAL_COLUMN_BYTES)) {
+            segment.append(T0, 100, 101);
+            segment.append(T0 - 5_000, 102, 103); // Arrived late
+            segment.append(T0 + 1_000, 104, 105);
+            
+            assertThat(scanAll(segment)).containsExactly(
+                    new long[] {T0, 100, 101}, new long[] {T0, 102, 103}, new long[] {T0 + 1_000, 104, 105});
+        }
+    }
+    
+    @Test
+    void scansOnlyTheRangeAndStopsWhenAsked() throws IOException {
+        try (QuoteSegment segment = new QuoteSegment(directory, INITIAL_COLUMN_BYTES)) {
+            for (int i = 0; i < 10; i++) {
+                segment.append(T0 + i * 1_000L, 100 + i, 101 + i);
+            }
+            
+            List<Long> inRange = new ArrayList<>();
+            assertThat(segment.scan(T0 + 2_000, T0 + 5_000, (timestamp, bid, ask) -> inRange.add(timestamp))).isTrue();
+            assertThat(inRange).containsExactly(T0 + 2_000, T0 + 3_000, T0 + 4_000, T0 + 5_000);
+            
+            List<Long> firstTwo = new ArrayList<>();
+            assertThat(segment.scan(T0, T0 + 9_000, (timestamp, bid, ask) -> {
+                firstTwo.add(timestamp);
+                return firstTwo.size() < 2;
+            })).isFalse();
+            assertThat(firstTwo).containsExactly(T0, T0 + 1_000);
+        }
+    }
+    
+    // Uneven gaps and prices that move both ways, so deltas and delta-of-deltas take both signs
+    private static List<long[]> irregularQuotes(int count) {
+        List<long[]> quotes = new ArrayList<>();
+        long timestamp = T0;
+        long bid = 6_500_000_000_000L;
+        for (int i = 0; i < count; i++) {
+            timestamp += (i % 7 == 0) ? 60_000 : (i % 3) * 250 + 1;
+            bid += (i % 5 - 2) * 1_234_567L;
+            long ask = bid + (i % 4 + 1) * 100_000L;
+            quotes.add(new long[] {timestamp, bid, ask});
+        }
+        return quotes;
+    }
+    
+    private static List<long[]> scanAll(QuoteSegment segment) {
+        List<long[]> quotes = new ArrayList<>();
+        segment.scan(Long.MIN_VALUE, Long.MAX_VALUE, (timestamp, bid, ask) -> quotes.add(new long[] {timestamp, bid, ask}));
+        return quotes;
+    }
+}
@@ -0,0 +1,145 @@
+package com.pt.crypto_trading.timeseries;
+
+import com.pt.crypto_trading.config.PriceProviderProperties;
+import com.pt.crypto_trading.domain.instrument.Currency;
+import com.pt.crypto_trading.domain.instrument.TradingPair;
+import com.pt.crypto_trading.integration.enums.PriceSource;
+import com.pt.crypto_trading.service.InstrumentRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class QuoteStoreTest {
+    
+    private static final TradingPair BTCUSDT = new TradingPair(0, "BTCUSDT",
+            new Currency(0, "BTC", "Bitcoin", 8), new Currency(1, "USDT", "Tether", 2), null);
+    private static final LocalDate DAY = LocalDate.of(2023, 11, 14);
+    private static final Instant START = DAY.atStartOfDay(ZoneOffset.UTC).toInstant();
+    
+    @TempDir
+    Path directory;
+    
+    private QuoteStore store;
+    
+    @BeforeEach
+    void setUp() throws IOException {
+        store = openStore();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+    
+    @Test
+    void carriesTheValueInForceAtFrom() throws IOException {
+        append(START.plusSeconds(3_600), "100", "101");
+        append(START.plusSeconds(3_630), "102", "103");
+        append(START.plusSeconds(3_700), "104", "105");
+        
+        // Nothing recorded at 'from' itself, so the quote from 30s earlier is carried in
+        Instant from = START.plusSeconds(3_660);
+        List<QuotePoint> points = store.query(BTCUSDT, PriceSource.BINANCE, from, START.plusSeconds(7_200), 10);
+        assertThat(points).extracting(QuotePoint::timestamp).containsExactly(from, START.plusSeconds(3_700));
+        assertThat(points.get(0).bidPrice()).isEqualByComparingTo("102");
+        assertThat(points.get(0).askPrice()).isEqualByComparingTo("103");
+        
+        // A point exactly at 'from' needs no carry, and the limit counts the carried point
+        assertThat(store.query(BTCUSDT, PriceSource.BINANCE, START.plusSeconds(3_630), START.plusSeconds(7_200), 10))
+                .extracting(QuotePoint::timestamp)
+                .containsExactly(START.plusSeconds(3_630), START.plusSeconds(3_700));
+        assertThat(store.query(BTCUSDT, PriceSource.BINANCE, from, START.plusSeconds(7_200), 1))
+                .extracting(QuotePoint::timestamp)
+                .containsExactly(from);
+        
+        // Before the first quote there is nothing to carry
+        assertThat(store.query(BTCUSDT, PriceSource.BINANCE, START, START.plusSeconds(3_000), 10)).isEmpty();
+    }
+    
+    @Test
+    void reopensWithTheSameHistory() throws IOException {
+        append(START.plusSeconds(10), "100", "101");
+        append(START.plusSeconds(20), "102.5", "103.25");
+        store.close();
+        
+        store = openStore();
+        append(START.plusSeconds(30), "99", "100");
+        
+        List<QuotePoint> points = store.query(BTCUSDT, PriceSource.BINANCE, START, START.plusSeconds(60), 10);
+        assertThat(points).extracting(QuotePoint::timestamp)
+                .containsExactly(START.plusSeconds(10), START.plusSeconds(20), START.plusSeconds(30));
+        assertThat(points.get(1).bidPrice()).isEqualByComparingTo("102.5");
+        assertThat(points.get(1).askPrice()).isEqualByComparingTo("103.25");
+        assertThat(points.get(2).bidPrice()).isEqualByComparingTo("99");
+    }
+    
+    @Test
+    void rollsExpiredDaysDownBeforeDroppingThem() throws IOException {
+        append(START.plusSeconds(10), "100", "101");
+        append(START.plusSeconds(50), "101", "102");
+        append(START.plusSeconds(80), "102", "103");
+        append(START.plusSeconds(5_400), "103", "104");
+        Instant end = START.plusSeconds(86_399);
+        
+        // Raw day expires: the last tick of each minute moves to the minute tier before the raw day goes
+        store.applyRetention(DAY.plusDays(2), 1, 30, 365);
+        assertThat(Files.exists(dayDirectory(QuoteTier.RAW))).isFalse();
+        assertThat(Files.isDirectory(dayDirectory(QuoteTier.ONE_MINUTE))).isTrue();
+        assertThat(store.query(BTCUSDT, PriceSource.BINANCE, START, end, 10))
+                .extracting(QuotePoint::timestamp)
+                .containsExactly(START.plusSeconds(50), START.plusSeconds(80), START.plusSeconds(5_400));
+        
+        // Minute day expires: rolled again into hours
+        store.applyRetention(DAY.plusDays(40), 1, 30, 365);
+        assertThat(Files.exists(dayDirectory(QuoteTier.ONE_MINUTE))).isFalse();
+        List<QuotePoint> hourly = store.query(BTCUSDT, PriceSource.BINANCE, START, end, 10);
+        assertThat(hourly).extracting(QuotePoint::timestamp)
+                .containsExactly(START.plusSeconds(80), START.plusSeconds(5_400));
+        assertThat(hourly.get(0).bidPrice()).isEqualByComparingTo("102");
+        
+        // Re-running with nothing newly expired changes nothing
+        store.applyRetention(DAY.plusDays(40), 1, 30, 365);
+        assertThat(store.query(BTCUSDT, PriceSource.BINANCE, START, end, 10)).hasSize(2);
+        
+        // Only the coarsest tier is dropped outright
+        store.applyRetention(DAY.plusDays(400), 1, 30, 365);
+        assertThat(Files.exists(dayDirectory(QuoteTier.ONE_HOUR))).isFalse();
+        assertThat(store.query(BTCUSDT, PriceSource.BINANCE, START, end, 10)).isEmpty();
+    }
+    
+    private QuoteStore openStore() throws IOException {
+        PriceProviderProperties properties = new PriceProviderProperties();
+        properties.getHistory().setStoreDirectory(directory.toString());
+        properties.getHistory().setColumnInitialBytes(64);
+        properties.getHistory().setMaxOpenSegments(2);
+        InstrumentRegistry instrumentRegistry = mock(InstrumentRegistry.class);
+        when(instrumentRegistry.pairs()).thenReturn(List.of(BTCUSDT));
+        
+        QuoteStore quoteStore = new QuoteStore(properties, instrumentRegistry);
+        quoteStore.open();
+        return quoteStore;
+    }
+    
+    private void append(Instant timestamp, String bid, String ask) throws IOException {
+        store.append(BTCUSDT, PriceSource.BINANCE, timestamp, new BigDecimal(bid), new BigDecimal(ask));
+    }
+    
+    private Path dayDirectory(QuoteTier tier) {
+        return directory.resolve(tier.getDirectoryName()).resolve("BTCUSDT").resolve(PriceSource.BINANCE.name())
+                .resolve(DAY.toString());
+    }
+}